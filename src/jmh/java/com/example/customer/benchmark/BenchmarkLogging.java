@@ -0,0 +1,16 @@
+package com.example.customer.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.slf4j.LoggerFactory;
+
+final class BenchmarkLogging {
+
+    private BenchmarkLogging() {
+    }
+
+    // Outside a Spring context logback falls back to DEBUG on the console, which would dominate every measurement
+    static void quiet() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.customer.benchmark;
+
+import com.example.customer.CustomerApiApplication;
+import com.example.customer.repository.entity.Customer;
+import com.example.customer.service.CustomerService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// saveCustomer and getCustomerById through the Spring proxies against in-memory H2
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerServiceBenchmark {
+
+    @Param({"true", "false"})
+    public boolean cacheEnabled;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private ConfigurableApplicationContext context;
+    private CustomerService customerService;
+    private List<UUID> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkLogging.quiet();
+        context = new SpringApplicationBuilder(CustomerApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1",
+                        "--logging.level.root=WARN",
+                        "--customer.cache.enabled=" + cacheEnabled);
+        customerService = context.getBean(CustomerService.class);
+
+        ids = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            ids.add(customerService.saveCustomer(newCustomer()).getId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Customer saveCustomer() {
+        return customerService.saveCustomer(newCustomer());
+    }
+
+    @Benchmark
+    public Optional<Customer> getCustomerById() {
+        UUID id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        return customerService.getCustomerById(id);
+    }
+
+    private Customer newCustomer() {
+        long n = sequence.incrementAndGet();
+        Customer customer = new Customer();
+        customer.setFirstName("First" + n);
+        customer.setLastName("Last" + n);
+        customer.setEmailAddress("customer" + n + "@example.com");
+        customer.setPhoneNumber("555-0100");
+        return customer;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.customer.benchmark;
+
+import com.example.customer.config.NameIndexProperties;
+import com.example.customer.config.PaginationProperties;
+import com.example.customer.controller.CustomerController;
+import com.example.customer.exception.base.GlobalExceptionHandler;
+import com.example.customer.exception.custom.CustomerNotFoundException;
+import com.example.customer.service.CustomerService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// 404 responses through the real MVC dispatch and GlobalExceptionHandler, against a stubbed service.
+// Run with -prof gc and compare gc.alloc.rate.norm (bytes/op) between releases.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorResponseBenchmark {
+
+    private final String path = "/api/customers/" + UUID.randomUUID();
+    private MockMvc mockMvc;
+
+    @Setup
+    public void setUp() {
+        BenchmarkLogging.quiet();
+        CustomerService service = Mockito.mock(CustomerService.class);
+        Mockito.when(service.getCustomerById(Mockito.any())).thenReturn(Optional.empty());
+        Mockito.doAnswer(invocation -> {
+            throw new CustomerNotFoundException("Customer with ID " + invocation.getArgument(0) + " not found");
+        }).when(service).deleteCustomer(Mockito.any(), Mockito.any());
+
+        CustomerController controller = new CustomerController(service, new ObjectMapper(),
+                new PaginationProperties(100, 1000), new NameIndexProperties(true, 0.5, 10, 100));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler(new SimpleMeterRegistry()))
+                .build();
+    }
+
+    @Benchmark
+    public MvcResult getMissingCustomer() throws Exception {
+        return mockMvc.perform(get(path)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult deleteMissingCustomer() throws Exception {
+        return mockMvc.perform(delete(path)).andReturn();
+    }
+}
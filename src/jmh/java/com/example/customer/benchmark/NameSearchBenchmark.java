@@ -0,0 +1,82 @@
+package com.example.customer.benchmark;
+
+import com.example.customer.search.NameMatch;
+import com.example.customer.search.NameSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Fuzzy name search against the in-memory trigram index. Names are built from syllables, drawn from 5,000 first and
+// 50,000 last names so trigram frequencies are skewed like real ones. Each query is an indexed customer's name with
+// one letter dropped from the last name.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class NameSearchBenchmark {
+
+    private static final String[] ONSETS = {
+            "", "b", "br", "c", "ch", "d", "dr", "f", "g", "gr", "h", "j", "k", "kh", "l", "m", "n", "p", "pr", "r",
+            "s", "sh", "st", "t", "th", "tr", "v", "w", "y", "z"};
+    private static final String[] VOWELS = {"a", "e", "i", "o", "u", "ai", "ee", "ou", "y"};
+    private static final String[] CODAS = {"", "n", "r", "l", "s", "m", "t", "nd", "rt", "sh", "ck", "ng"};
+
+    @Param({"1000000"})
+    public int customers;
+
+    @Param({"0.5"})
+    public double minSimilarity;
+
+    private NameSearchIndex index;
+    private String[] firstNames;
+    private String[] lastNames;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        String[] firstNamePool = names(random, 5_000);
+        String[] lastNamePool = names(random, 50_000);
+        firstNames = new String[customers];
+        lastNames = new String[customers];
+        index = new NameSearchIndex();
+        for (int i = 0; i < customers; i++) {
+            firstNames[i] = firstNamePool[random.nextInt(firstNamePool.length)];
+            lastNames[i] = lastNamePool[random.nextInt(lastNamePool.length)];
+            index.upsert(UUID.randomUUID(), 0, firstNames[i], lastNames[i]);
+        }
+        System.out.printf("%nName index: %d customers, about %d bytes per customer%n",
+                index.size(), index.estimatedBytes() / index.size());
+    }
+
+    @Benchmark
+    public List<NameMatch> searchWithTypo() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int customer = random.nextInt(customers);
+        String last = lastNames[customer];
+        int typo = random.nextInt(last.length());
+        return index.search(firstNames[customer] + ' ' + last.substring(0, typo) + last.substring(typo + 1),
+                minSimilarity, 10);
+    }
+
+    private static String[] names(Random random, int count) {
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            StringBuilder name = new StringBuilder();
+            int syllables = 2 + random.nextInt(2);
+            for (int s = 0; s < syllables; s++) {
+                name.append(ONSETS[random.nextInt(ONSETS.length)])
+                        .append(VOWELS[random.nextInt(VOWELS.length)])
+                        .append(CODAS[random.nextInt(CODAS.length)]);
+            }
+            name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+            names[i] = name.toString();
+        }
+        return names;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.customer.benchmark;
+
+import com.example.customer.repository.entity.Customer;
+import com.example.customer.service.CustomerValidator;
+import com.example.customer.utils.CustomerUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Per-request CPU work outside the database: id parsing, cursor and Base64 helpers, field validation
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestParsingBenchmark {
+
+    private final CustomerValidator validator = new CustomerValidator();
+    private String id;
+    private String malformedId;
+    private UUID uuid;
+    private String cursor;
+    private String plainText;
+    private String encodedText;
+    private Customer customer;
+
+    @Setup
+    public void setUp() {
+        BenchmarkLogging.quiet();
+        uuid = UUID.randomUUID();
+        id = uuid.toString();
+        malformedId = id.replace('-', 'x');
+        cursor = CustomerUtils.encodeCursor(uuid);
+        plainText = "customer@example.com";
+        encodedText = CustomerUtils.encodeToBase64(plainText);
+
+        customer = new Customer();
+        customer.setFirstName("First");
+        customer.setLastName("Last");
+        customer.setEmailAddress("customer@example.com");
+    }
+
+    @Benchmark
+    public UUID parseId() {
+        return UUID.fromString(id);
+    }
+
+    @Benchmark
+    public UUID parseIdWithoutExceptions() {
+        return CustomerUtils.parseUuid(id);
+    }
+
+    @Benchmark
+    public UUID rejectMalformedId() {
+        return CustomerUtils.parseUuid(malformedId);
+    }
+
+    @Benchmark
+    public String encodeCursor() {
+        return CustomerUtils.encodeCursor(uuid);
+    }
+
+    @Benchmark
+    public UUID decodeCursor() {
+        return CustomerUtils.decodeCursor(cursor);
+    }
+
+    @Benchmark
+    public String encodeToBase64() {
+        return CustomerUtils.encodeToBase64(plainText);
+    }
+
+    @Benchmark
+    public String decodeFromBase64() {
+        return CustomerUtils.decodeFromBase64(encodedText);
+    }
+
+    @Benchmark
+    public Customer validate() {
+        validator.validate(customer);
+        return customer;
+    }
+}
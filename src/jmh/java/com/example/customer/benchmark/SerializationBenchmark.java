@@ -0,0 +1,74 @@
+package com.example.customer.benchmark;
+
+import com.example.customer.repository.entity.Customer;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Jackson round trips for a single customer and for a page of customers
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"100"})
+    public int pageSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Customer customer;
+    private List<Customer> page;
+    private byte[] customerJson;
+    private byte[] pageJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        customer = customer(0);
+        page = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            page.add(customer(i));
+        }
+        customerJson = objectMapper.writeValueAsBytes(customer);
+        pageJson = objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] writeCustomer() throws Exception {
+        return objectMapper.writeValueAsBytes(customer);
+    }
+
+    @Benchmark
+    public byte[] writeCustomerPage() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public Customer readCustomer() throws Exception {
+        return objectMapper.readValue(customerJson, Customer.class);
+    }
+
+    @Benchmark
+    public List<Customer> readCustomerPage() throws Exception {
+        return objectMapper.readValue(pageJson, new TypeReference<>() {
+        });
+    }
+
+    private static Customer customer(int n) {
+        Customer customer = new Customer();
+        customer.setId(UUID.randomUUID());
+        customer.setFirstName("First" + n);
+        customer.setMiddleName("Middle");
+        customer.setLastName("Last" + n);
+        customer.setEmailAddress("customer" + n + "@example.com");
+        customer.setPhoneNumber("555-0100");
+        customer.setVersion(0L);
+        return customer;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.customer.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// What a downstream copy pays to catch up after a burst of updates: paging through GET /api/customers against
+// reading GET /api/customers/changes from its last offset. Each round patches a few customers, then both sync.
+// Args: [customers=100000] [updatesPerRound=100] [rounds=5] [pageSize=1000]
+public class ChangeFeedComparison {
+
+    public static void main(String[] args) throws Exception {
+        int customers = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int updatesPerRound = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        int pageSize = args.length > 3 ? Integer.parseInt(args[3]) : 1_000;
+
+        try (LoadTestApp app = LoadTestApp.start("change-feed", Map.of("customer.pagination.max-page-size", pageSize))) {
+            List<String> ids = app.seed("feed", customers);
+            HttpClient client = HttpClient.newHttpClient();
+            String offset = get(client, app, "/api/customers/changes").headers()
+                    .firstValue("X-Next-Offset").orElseThrow();
+
+            // Unreported pass for class loading and JIT warm-up
+            fullSync(client, app, pageSize);
+
+            Sync full = new Sync();
+            Sync feed = new Sync();
+            for (int round = 0; round < rounds; round++) {
+                for (int i = 0; i < updatesPerRound; i++) {
+                    String id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+                    HttpResponse<String> patched = client.send(HttpRequest.newBuilder(app.uri("/api/customers/" + id))
+                            .header("Content-Type", "application/merge-patch+json")
+                            .method("PATCH", HttpRequest.BodyPublishers.ofString(
+                                    "{\"middleName\":\"R" + round + "U" + i + "\"}"))
+                            .build(), HttpResponse.BodyHandlers.ofString());
+                    if (patched.statusCode() != 200) {
+                        throw new IllegalStateException("Patch failed: " + patched.body());
+                    }
+                }
+                full.add(fullSync(client, app, pageSize));
+
+                long start = System.nanoTime();
+                long bytes = 0;
+                int requests = 0;
+                while (true) {
+                    HttpResponse<String> response = get(client, app,
+                            "/api/customers/changes?limit=" + pageSize + "&after=" + offset);
+                    bytes += response.body().length();
+                    requests++;
+                    String next = response.headers().firstValue("X-Next-Offset").orElseThrow();
+                    if (next.equals(offset)) {
+                        break;
+                    }
+                    offset = next;
+                }
+                feed.add(new long[]{System.nanoTime() - start, bytes, requests});
+            }
+
+            System.out.printf("%n%d customers, %d updates per sync, %d syncs%n", customers, updatesPerRound, rounds);
+            System.out.printf("%-8s %12s %12s %10s%n", "sync", "ms", "KB", "requests");
+            System.out.println(full.report("full"));
+            System.out.println(feed.report("feed"));
+        }
+    }
+
+    // {nanos, bytes, requests}
+    private static long[] fullSync(HttpClient client, LoadTestApp app, int pageSize) throws Exception {
+        long start = System.nanoTime();
+        long bytes = 0;
+        int requests = 0;
+        String cursor = null;
+        do {
+            HttpResponse<String> response = get(client, app, "/api/customers?limit=" + pageSize
+                    + (cursor == null ? "" : "&cursor=" + cursor));
+            bytes += response.body().length();
+            requests++;
+            cursor = response.headers().firstValue("X-Next-Cursor").orElse(null);
+        } while (cursor != null);
+        return new long[]{System.nanoTime() - start, bytes, requests};
+    }
+
+    private static HttpResponse<String> get(HttpClient client, LoadTestApp app, String path) throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(app.uri(path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(path + " failed: " + response.statusCode());
+        }
+        return response;
+    }
+
+    private static final class Sync {
+        private long nanos;
+        private long bytes;
+        private long requests;
+        private int syncs;
+
+        void add(long[] sample) {
+            nanos += sample[0];
+            bytes += sample[1];
+            requests += sample[2];
+            syncs++;
+        }
+
+        String report(String name) {
+            return String.format("%-8s %12.1f %12.1f %10.1f", name, nanos / 1e6 / syncs, bytes / 1024.0 / syncs,
+                    (double) requests / syncs);
+        }
+    }
+}
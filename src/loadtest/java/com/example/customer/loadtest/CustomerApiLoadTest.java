@@ -0,0 +1,210 @@
+package com.example.customer.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Open-loop load generator for every /api/customers route. Requests are issued on a fixed schedule and
+// latency is measured from the scheduled send time, so a stalled server shows up in the tail instead of
+// silently slowing the generator down (coordinated omission).
+// Args: [ratePerSecond=500] [durationSeconds=30] [customers=1000] [warmupSeconds=10] [appLogLevel=INFO]
+// Running once with INFO and once with OFF shows the share of request latency spent logging.
+// Histograms are also written to target/loadtest/<endpoint>.hgrm for plotting.
+public class CustomerApiLoadTest {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final Path OUTPUT_DIR = Path.of("target", "loadtest");
+
+    enum Endpoint {
+        LIST(20), GET(50), CREATE(10), UPDATE(15), DELETE(5);
+
+        private final int weight;
+
+        Endpoint(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private final LoadTestApp app;
+    private final List<String> ids;
+    private final Queue<String> deletable = new ConcurrentLinkedQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client;
+    private final Map<Endpoint, Histogram> histograms = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, LongAdder> errors = new EnumMap<>(Endpoint.class);
+    private final Endpoint[] schedule;
+
+    CustomerApiLoadTest(LoadTestApp app, List<String> ids, List<String> deletable) {
+        this.app = app;
+        this.ids = ids;
+        this.deletable.addAll(deletable);
+        this.client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        List<Endpoint> slots = new ArrayList<>();
+        for (Endpoint endpoint : Endpoint.values()) {
+            histograms.put(endpoint, new ConcurrentHistogram(REQUEST_TIMEOUT.toNanos(), 3));
+            errors.put(endpoint, new LongAdder());
+            for (int i = 0; i < endpoint.weight; i++) {
+                slots.add(endpoint);
+            }
+        }
+        this.schedule = slots.toArray(Endpoint[]::new);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rate = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int durationSeconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int customers = args.length > 2 ? Integer.parseInt(args[2]) : 1_000;
+        int warmupSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        String appLogLevel = args.length > 4 ? args[4] : "INFO";
+
+        Map<String, Object> properties = Map.of("logging.level.com.example.customer", appLogLevel);
+        try (LoadTestApp app = LoadTestApp.start("loadtest", properties, "dev")) {
+            List<String> ids = app.seed("customer", customers);
+            List<String> deletable = app.seed("deletable", Math.max(customers / 10, 1));
+            CustomerApiLoadTest loadTest = new CustomerApiLoadTest(app, ids, deletable);
+
+            if (warmupSeconds > 0) {
+                loadTest.run(rate, Duration.ofSeconds(warmupSeconds));
+                loadTest.reset();
+            }
+            Duration elapsed = loadTest.run(rate, Duration.ofSeconds(durationSeconds));
+            loadTest.report(System.out, rate, elapsed);
+        }
+    }
+
+    Duration run(int rate, Duration duration) throws InterruptedException {
+        long intervalNanos = 1_000_000_000L / rate;
+        long total = duration.toSeconds() * rate;
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < total; i++) {
+                long intendedStart = start + i * intervalNanos;
+                long delay = intendedStart - System.nanoTime();
+                if (delay > 0) {
+                    LockSupport.parkNanos(delay);
+                }
+                Endpoint endpoint = schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+                executor.submit(() -> send(endpoint, intendedStart));
+            }
+        }
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    private void send(Endpoint endpoint, long intendedStart) {
+        boolean ok;
+        try {
+            ok = switch (endpoint) {
+                case LIST -> isSuccess(client.send(request("/api/customers?limit=50").GET().build(),
+                        HttpResponse.BodyHandlers.discarding()));
+                case GET -> isSuccess(client.send(request("/api/customers/" + randomId()).GET().build(),
+                        HttpResponse.BodyHandlers.discarding()));
+                case CREATE -> create();
+                case UPDATE -> isSuccess(client.send(request("/api/customers/" + randomId())
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString(customerJson("updated")))
+                        .build(), HttpResponse.BodyHandlers.discarding()));
+                case DELETE -> delete();
+            };
+        } catch (IOException | InterruptedException ex) {
+            ok = false;
+        }
+        histograms.get(endpoint).recordValue(Math.min(System.nanoTime() - intendedStart, REQUEST_TIMEOUT.toNanos()));
+        if (!ok) {
+            errors.get(endpoint).increment();
+        }
+    }
+
+    private boolean create() throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request("/api/customers")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(customerJson("created")))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (!isSuccess(response)) {
+            return false;
+        }
+        // Customers created under load are the ones later deleted, so the read set stays stable
+        JsonNode created = objectMapper.readTree(response.body());
+        deletable.add(created.get("id").asText());
+        return true;
+    }
+
+    private boolean delete() throws IOException, InterruptedException {
+        String id = deletable.poll();
+        if (id == null) {
+            // Nothing left to delete: measure the 404 path rather than skipping the slot
+            return client.send(request("/api/customers/" + UUID.randomUUID()).DELETE().build(),
+                    HttpResponse.BodyHandlers.discarding()).statusCode() == 404;
+        }
+        return isSuccess(client.send(request("/api/customers/" + id).DELETE().build(),
+                HttpResponse.BodyHandlers.discarding()));
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(app.uri(path)).timeout(REQUEST_TIMEOUT);
+    }
+
+    private String randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    private String customerJson(String prefix) throws IOException {
+        long n = sequence.incrementAndGet();
+        return objectMapper.writeValueAsString(Map.of(
+                "firstName", prefix + "First" + n,
+                "lastName", prefix + "Last" + n,
+                "emailAddress", prefix + n + "@example.com",
+                "phoneNumber", "555-0100"));
+    }
+
+    private static boolean isSuccess(HttpResponse<?> response) {
+        return response.statusCode() / 100 == 2;
+    }
+
+    void reset() {
+        histograms.values().forEach(Histogram::reset);
+        errors.values().forEach(LongAdder::reset);
+    }
+
+    void report(PrintStream out, int rate, Duration elapsed) throws IOException {
+        Files.createDirectories(OUTPUT_DIR);
+        long completed = histograms.values().stream().mapToLong(Histogram::getTotalCount).sum();
+        double seconds = elapsed.toNanos() / 1e9;
+
+        out.printf("%ntarget %d req/s, achieved %.0f req/s over %.1f s%n", rate, completed / seconds, seconds);
+        out.printf("%-8s %8s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Endpoint endpoint : Endpoint.values()) {
+            Histogram histogram = histograms.get(endpoint);
+            out.printf("%-8s %8d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n", endpoint, histogram.getTotalCount(),
+                    errors.get(endpoint).sum(), millis(histogram, 50), millis(histogram, 90), millis(histogram, 99),
+                    millis(histogram, 99.9), histogram.getMaxValue() / 1e6);
+            try (PrintStream file = new PrintStream(
+                    Files.newOutputStream(OUTPUT_DIR.resolve(endpoint.name().toLowerCase() + ".hgrm")))) {
+                histogram.outputPercentileDistribution(file, 1e6);
+            }
+        }
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1e6;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.customer.loadtest;
+
+import com.example.customer.repository.entity.TimeOrderedUuids;
+import org.flywaydb.core.Flyway;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Insert throughput of random (v4) against time-ordered (v7) primary keys as the customer table grows. Each strategy
+// fills its own file-backed H2 database, migrated by the application's Flyway scripts, with JDBC batches that commit
+// every batchSize rows. Reports the rate over the first and last tenth of the rows and the size on disk at the end.
+// Args: [rows=1000000] [batchSize=1000]
+public class IdStrategyComparison {
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+
+        Map<String, Supplier<UUID>> strategies = new LinkedHashMap<>();
+        strategies.put("random-v4", UUID::randomUUID);
+        strategies.put("time-v7", TimeOrderedUuids::next);
+
+        Path dataDir = Files.createTempDirectory("customer-id-strategy");
+        // Unreported pass, so class loading and JIT warm-up do not count against whichever strategy runs first
+        insert(dataDir.resolve("warmup"), UUID::randomUUID, Math.min(rows, 100_000), batchSize);
+
+        List<String> report = new ArrayList<>();
+        for (Map.Entry<String, Supplier<UUID>> strategy : strategies.entrySet()) {
+            report.add(String.format("%-10s %s", strategy.getKey(),
+                    insert(dataDir.resolve(strategy.getKey()), strategy.getValue(), rows, batchSize)));
+        }
+        System.out.printf("%n%-10s %10s %14s %14s %10s%n", "ids", "rows/s", "first 10% /s", "last 10% /s", "disk MB");
+        report.forEach(System.out::println);
+    }
+
+    private static String insert(Path database, Supplier<UUID> ids, int rows, int batchSize) throws Exception {
+        String url = "jdbc:h2:file:" + database + ";CACHE_SIZE=65536";
+        Flyway.configure().dataSource(url, "sa", "").locations("classpath:db/migration/h2").load().migrate();
+
+        int tenth = Math.max(1, rows / 10);
+        double firstTenth = 0;
+        long start = System.nanoTime();
+        long lastTenthStart = start;
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             PreparedStatement insert = connection.prepareStatement("insert into customer "
+                     + "(id, version, first_name, last_name, email_address, phone_number) values (?, 0, ?, ?, ?, ?)")) {
+            connection.setAutoCommit(false);
+            for (int i = 0; i < rows; i++) {
+                insert.setObject(1, ids.get());
+                insert.setString(2, "First" + i);
+                insert.setString(3, "Last" + i);
+                insert.setString(4, "customer" + i + "@example.com");
+                insert.setString(5, "555-" + i);
+                insert.addBatch();
+                if ((i + 1) % batchSize == 0 || i == rows - 1) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+                if (i + 1 == tenth) {
+                    firstTenth = tenth / ((System.nanoTime() - start) / 1e9);
+                }
+                if (i + 1 == rows - tenth) {
+                    lastTenthStart = System.nanoTime();
+                }
+            }
+        }
+        long end = System.nanoTime();
+        double lastTenth = tenth / ((end - lastTenthStart) / 1e9);
+
+        long bytes;
+        try (Stream<Path> files = Files.list(database.getParent())) {
+            bytes = files.filter(file -> file.getFileName().toString().startsWith(database.getFileName() + "."))
+                    .mapToLong(file -> file.toFile().length())
+                    .sum();
+        }
+        return String.format("%10.0f %14.0f %14.0f %10.1f", rows / ((end - start) / 1e9), firstTenth, lastTenth,
+                bytes / (1024.0 * 1024.0));
+    }
+}
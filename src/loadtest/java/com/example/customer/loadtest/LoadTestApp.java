@@ -0,0 +1,118 @@
+package com.example.customer.loadtest;
+
+import com.example.customer.CustomerApiApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Boots the API in-process on a random port, against its own in-memory H2 database unless a datasource URL is given
+public final class LoadTestApp implements AutoCloseable {
+
+    private static final int SEED_CHUNK = 1_000;
+
+    private final ConfigurableApplicationContext context;
+    private final URI baseUri;
+    private final Duration startupTime;
+
+    private LoadTestApp(ConfigurableApplicationContext context, URI baseUri, Duration startupTime) {
+        this.context = context;
+        this.baseUri = baseUri;
+        this.startupTime = startupTime;
+    }
+
+    public static LoadTestApp start(String name, Map<String, Object> properties, String... profiles) {
+        Map<String, Object> defaults = new HashMap<>();
+        defaults.put("server.port", 0);
+        defaults.put("spring.datasource.url", "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+        defaults.put("logging.level.root", "WARN");
+        defaults.put("logging.level.com.example.customer", "WARN");
+        // The load generator is a single client, comparisons that measure the limits turn them back on
+        defaults.put("customer.rate-limit.enabled", false);
+        defaults.put("customer.load-shedding.enabled", false);
+        defaults.putAll(properties);
+
+        // Passed as command-line arguments so they override the profile documents in application.yml
+        String[] args = defaults.entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
+
+        long start = System.nanoTime();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(CustomerApiApplication.class)
+                .profiles(profiles)
+                .run(args);
+        Duration startupTime = Duration.ofNanos(System.nanoTime() - start);
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        return new LoadTestApp(context, URI.create("http://localhost:" + port), startupTime);
+    }
+
+    // Creates customers through the batch endpoint and returns their ids as strings
+    public List<String> seed(String prefix, int customers) throws IOException, InterruptedException {
+        ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+        HttpClient client = HttpClient.newHttpClient();
+        List<String> ids = new ArrayList<>(customers);
+        for (int start = 0; start < customers; start += SEED_CHUNK) {
+            List<Map<String, String>> chunk = new ArrayList<>();
+            for (int i = start; i < Math.min(start + SEED_CHUNK, customers); i++) {
+                chunk.add(Map.of("firstName", prefix + "First" + i, "lastName", prefix + "Last" + i,
+                        "emailAddress", prefix + i + "@example.com", "phoneNumber", "555-" + i));
+            }
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/api/customers/batch"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(chunk)))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            for (JsonNode result : objectMapper.readTree(response.body())) {
+                if (result.get("status").asInt() != 201) {
+                    throw new IllegalStateException("Seeding failed: " + result);
+                }
+                ids.add(result.get("id").asText());
+            }
+        }
+        return ids;
+    }
+
+    // One POST per customer, for stacks that do not serve the batch endpoint
+    public List<String> seedThroughCreates(String prefix, int customers) throws IOException, InterruptedException {
+        ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+        HttpClient client = HttpClient.newHttpClient();
+        List<String> ids = new ArrayList<>(customers);
+        for (int i = 0; i < customers; i++) {
+            Map<String, String> customer = Map.of("firstName", prefix + "First" + i, "lastName", prefix + "Last" + i,
+                    "emailAddress", prefix + i + "@example.com", "phoneNumber", "555-" + i);
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/api/customers"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(customer)))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Seeding failed: " + response.body());
+            }
+            ids.add(objectMapper.readTree(response.body()).get("id").asText());
+        }
+        return ids;
+    }
+
+    public URI uri(String path) {
+        return baseUri.resolve(path);
+    }
+
+    public Duration startupTime() {
+        return startupTime;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.customer.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// One noisy client floods GET /api/customers?limit=1000 from many connections while a polite one reads single
+// customers at a steady pace, without limits, with only the per-client rate limit, with only load shedding and with
+// both. What matters is the polite client's latency and how much of the noisy load got in.
+// Args: [seconds=10] [noisyConcurrency=150] [politePerSecond=20] [customers=2000]
+public class RateLimitComparison {
+
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int noisyConcurrency = args.length > 1 ? Integer.parseInt(args[1]) : 150;
+        int politePerSecond = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        int customers = args.length > 3 ? Integer.parseInt(args[3]) : 2_000;
+
+        Map<String, boolean[]> modes = new LinkedHashMap<>();
+        modes.put("off", new boolean[]{false, false});
+        modes.put("rate-limit", new boolean[]{true, false});
+        modes.put("shedding", new boolean[]{false, true});
+        modes.put("both", new boolean[]{true, true});
+
+        List<String> report = new ArrayList<>();
+        for (Map.Entry<String, boolean[]> mode : modes.entrySet()) {
+            try (LoadTestApp app = LoadTestApp.start("ratelimit-" + mode.getKey(), Map.of(
+                    "customer.rate-limit.enabled", mode.getValue()[0],
+                    "customer.load-shedding.enabled", mode.getValue()[1],
+                    "customer.rate-limit.api-keys", "noisy,polite"))) {
+                List<String> ids = app.seed("customer", customers);
+                // Unreported round for class loading and JIT warm-up
+                run(app, mode.getKey(), ids, 3, noisyConcurrency, politePerSecond);
+                report.add(run(app, mode.getKey(), ids, seconds, noisyConcurrency, politePerSecond));
+            }
+        }
+        System.out.printf("%n%-11s %10s %10s %10s %8s %12s %10s %10s%n", "mode", "polite p50", "p99 ms", "max ms",
+                "errors", "noisy ok/s", "429/s", "503/s");
+        report.forEach(System.out::println);
+    }
+
+    private static String run(LoadTestApp app, String mode, List<String> ids, int seconds, int noisyConcurrency,
+                              int politePerSecond) throws Exception {
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        // ok, 429, 503, other
+        AtomicIntegerArray noisy = new AtomicIntegerArray(4);
+        List<Long> polite = new ArrayList<>();
+        int[] politeErrors = new int[1];
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < noisyConcurrency; i++) {
+                executor.submit(() -> {
+                    HttpRequest request = HttpRequest.newBuilder(app.uri("/api/customers?limit=1000"))
+                            .header("X-API-Key", "noisy").GET().build();
+                    while (System.nanoTime() < end) {
+                        try {
+                            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            noisy.incrementAndGet(status == 200 ? 0 : status == 429 ? 1 : status == 503 ? 2 : 3);
+                        } catch (Exception ex) {
+                            noisy.incrementAndGet(3);
+                        }
+                    }
+                    return null;
+                });
+            }
+            long interval = 1_000_000_000L / politePerSecond;
+            for (long next = System.nanoTime(); next < end; next += interval) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+                }
+                String id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+                long sent = System.nanoTime();
+                try {
+                    int status = client.send(HttpRequest.newBuilder(app.uri("/api/customers/" + id))
+                            .header("X-API-Key", "polite").GET().build(), HttpResponse.BodyHandlers.discarding())
+                            .statusCode();
+                    if (status != 200) {
+                        politeErrors[0]++;
+                    }
+                } catch (Exception ex) {
+                    politeErrors[0]++;
+                }
+                polite.add(System.nanoTime() - sent);
+            }
+        }
+
+        Collections.sort(polite);
+        return String.format("%-11s %10.2f %10.2f %10.2f %8d %12.1f %10.1f %10.1f", mode,
+                polite.get(polite.size() / 2) / 1e6, polite.get((int) (polite.size() * 0.99)) / 1e6,
+                polite.get(polite.size() - 1) / 1e6, politeErrors[0], noisy.get(0) / (double) seconds,
+                noisy.get(1) / (double) seconds, noisy.get(2) / (double) seconds);
+    }
+}
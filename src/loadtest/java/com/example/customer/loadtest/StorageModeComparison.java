@@ -0,0 +1,117 @@
+package com.example.customer.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Startup time and throughput of each storage mode: in-memory H2 (dev), file-backed H2 (prod) and, when a JDBC URL
+// is given, an external database. Startup is measured on an empty database, which includes running the migrations,
+// and again after a restart with the seeded customers on disk.
+// Args: [requests=20000] [concurrency=64] [customers=10000] [externalUrl] [externalUser] [externalPassword]
+public class StorageModeComparison {
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int customers = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+
+        Path dataDir = Files.createTempDirectory("customer-storage");
+        Map<String, Map<String, Object>> modes = new LinkedHashMap<>();
+        modes.put("memory", Map.of());
+        modes.put("file", Map.of("spring.datasource.url",
+                "jdbc:h2:file:" + dataDir.resolve("customerdb") + ";CACHE_SIZE=65536;QUERY_CACHE_SIZE=64;DB_CLOSE_ON_EXIT=FALSE"));
+        if (args.length > 3) {
+            modes.put("external", Map.of("spring.datasource.url", args[3],
+                    "spring.datasource.username", args.length > 4 ? args[4] : "",
+                    "spring.datasource.password", args.length > 5 ? args[5] : ""));
+        }
+
+        // Unreported pass, so class loading and JIT warm-up do not count against whichever mode runs first
+        try (LoadTestApp app = LoadTestApp.start("storage-warmup", Map.of(), "prod")) {
+            run(app, app.seed("warmup", 1_000), requests, concurrency);
+        }
+
+        List<String> report = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Object>> mode : modes.entrySet()) {
+            String name = mode.getKey();
+            long coldStartMs;
+            double seededPerSecond;
+            String throughput;
+            try (LoadTestApp app = LoadTestApp.start("storage-" + name, mode.getValue(), "prod")) {
+                coldStartMs = app.startupTime().toMillis();
+                long start = System.nanoTime();
+                List<String> ids = app.seed("customer", customers);
+                seededPerSecond = customers / ((System.nanoTime() - start) / 1e9);
+                throughput = run(app, ids, requests, concurrency);
+            }
+            // An in-memory database is gone after the restart, so only persistent modes report a warm start
+            String warmStart = "n/a";
+            if (!name.equals("memory")) {
+                try (LoadTestApp app = LoadTestApp.start("storage-" + name, mode.getValue(), "prod")) {
+                    warmStart = String.valueOf(app.startupTime().toMillis());
+                }
+            }
+            report.add(String.format("%-10s %12d %12s %12.0f %s", name, coldStartMs, warmStart, seededPerSecond,
+                    throughput));
+        }
+        System.out.printf("%n%-10s %12s %12s %12s %12s %10s %10s %8s%n", "mode", "cold ms", "restart ms",
+                "seeded/s", "req/s", "p50 ms", "p99 ms", "errors");
+        report.forEach(System.out::println);
+    }
+
+    // Closed loop of reads and writes: four in five requests read a customer, the rest update one
+    private static String run(LoadTestApp app, List<String> ids, int requests, int concurrency) throws Exception {
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        long[] latencies = new long[requests];
+        int[] errors = new int[1];
+        Semaphore inFlight = new Semaphore(concurrency);
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < requests; i++) {
+                inFlight.acquire();
+                int request = i;
+                executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    int customer = random.nextInt(ids.size());
+                    HttpRequest.Builder builder = HttpRequest.newBuilder(app.uri("/api/customers/" + ids.get(customer)));
+                    if (random.nextInt(5) == 0) {
+                        builder.header("Content-Type", "application/json")
+                                .PUT(HttpRequest.BodyPublishers.ofString(String.format(
+                                        "{\"firstName\":\"customerFirst%1$d\",\"lastName\":\"customerLast%1$d\","
+                                                + "\"emailAddress\":\"customer%1$d@example.com\",\"phoneNumber\":\"555-%2$d\"}",
+                                        customer, random.nextInt(1_000_000))));
+                    }
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(builder.build(), HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            synchronized (errors) {
+                                errors[0]++;
+                            }
+                        }
+                    } catch (Exception ex) {
+                        synchronized (errors) {
+                            errors[0]++;
+                        }
+                    } finally {
+                        latencies[request] = System.nanoTime() - sent;
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Arrays.sort(latencies);
+        return String.format("%12.0f %10.2f %10.2f %8d", requests / seconds, latencies[requests / 2] / 1e6,
+                latencies[(int) (requests * 0.99)] / 1e6, errors[0]);
+    }
+}
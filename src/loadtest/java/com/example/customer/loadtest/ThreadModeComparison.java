@@ -0,0 +1,78 @@
+package com.example.customer.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Compares throughput and tail latency of the platform-thread and virtual-thread request pipelines.
+// Args: [requests=20000] [concurrency=400] [customers=1000] [tomcatThreads=50]
+public class ThreadModeComparison {
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        int customers = args.length > 2 ? Integer.parseInt(args[2]) : 1_000;
+        int tomcatThreads = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+
+        List<String> report = new ArrayList<>();
+        for (boolean virtual : new boolean[]{false, true}) {
+            String mode = virtual ? "virtual" : "platform";
+            Map<String, Object> properties = Map.of(
+                    "spring.threads.virtual.enabled", virtual,
+                    "server.tomcat.threads.max", tomcatThreads);
+            try (LoadTestApp app = LoadTestApp.start("threads-" + mode, properties, "dev")) {
+                List<String> ids = app.seed("customer", customers);
+                report.add(run(app, mode, ids, requests, concurrency));
+            }
+        }
+        System.out.printf("%n%-10s %12s %10s %10s %10s %8s%n", "mode", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        report.forEach(System.out::println);
+    }
+
+    private static String run(LoadTestApp app, String mode, List<String> ids, int requests, int concurrency) throws Exception {
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        long[] latencies = new long[requests];
+        int[] errors = new int[1];
+        Semaphore inFlight = new Semaphore(concurrency);
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < requests; i++) {
+                inFlight.acquire();
+                int request = i;
+                executor.submit(() -> {
+                    String id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(
+                                HttpRequest.newBuilder(app.uri("/api/customers/" + id)).GET().build(),
+                                HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            synchronized (errors) {
+                                errors[0]++;
+                            }
+                        }
+                    } catch (Exception ex) {
+                        synchronized (errors) {
+                            errors[0]++;
+                        }
+                    } finally {
+                        latencies[request] = System.nanoTime() - sent;
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Arrays.sort(latencies);
+        return String.format("%-10s %12.0f %10.2f %10.2f %10.2f %8d", mode, requests / seconds,
+                latencies[requests / 2] / 1e6, latencies[(int) (requests * 0.99)] / 1e6,
+                latencies[requests - 1] / 1e6, errors[0]);
+    }
+}
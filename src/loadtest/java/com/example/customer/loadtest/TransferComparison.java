@@ -0,0 +1,203 @@
+package com.example.customer.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.io.InputStream;
+import java.lang.management.*;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Moving a large customer file in and out: the JSON batch endpoint in max-size requests against one streamed
+// NDJSON or CSV import, then paging GET /api/customers against streamed exports. Each import gets a fresh file-backed
+// H2 database, so the table itself is not on the heap. Memory is the largest heap in use right after any GC, client
+// and server share the JVM; it stays flat when nothing holds on to the rows.
+// Args: [customers=200000] [batchSize=10000]
+public class TransferComparison {
+
+    private static final Set<String> HEAP_POOLS = new HashSet<>();
+    private static final AtomicLong maxAfterGc = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        int customers = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        watchHeapAfterGc();
+
+        Path dataDir = Files.createTempDirectory("customer-transfer");
+        ObjectMapper objectMapper = new ObjectMapper();
+        HttpClient client = HttpClient.newHttpClient();
+        List<String> report = new ArrayList<>();
+        LoadTestApp last = null;
+        try {
+            for (String mode : List.of("warmup", "batch", "ndjson", "csv")) {
+                if (last != null) {
+                    last.close();
+                }
+                // The name index keeps every customer in memory by design, it would hide what the transfer holds
+                last = LoadTestApp.start("transfer-" + mode, Map.of(
+                        "spring.datasource.url", "jdbc:h2:file:" + dataDir.resolve(mode) + ";DB_CLOSE_ON_EXIT=FALSE",
+                        "customer.name-index.enabled", false,
+                        "customer.batch.max-size", batchSize), "prod");
+                int rows = mode.equals("warmup") ? customers / 10 : customers;
+                resetHeap();
+                long start = System.nanoTime();
+                if (mode.equals("batch") || mode.equals("warmup")) {
+                    for (int from = 0; from < rows; from += batchSize) {
+                        StringBuilder body = new StringBuilder("[");
+                        for (int i = from; i < Math.min(from + batchSize, rows); i++) {
+                            body.append(i == from ? "" : ",").append(json(mode, i));
+                        }
+                        HttpResponse<String> response = client.send(HttpRequest.newBuilder(last.uri("/api/customers/batch"))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(body.append(']').toString()))
+                                .build(), HttpResponse.BodyHandlers.ofString());
+                        for (JsonNode result : objectMapper.readTree(response.body())) {
+                            if (result.get("status").asInt() != 201) {
+                                throw new IllegalStateException("Batch failed: " + result);
+                            }
+                        }
+                    }
+                } else {
+                    boolean csv = mode.equals("csv");
+                    HttpResponse<String> response = client.send(HttpRequest.newBuilder(last.uri("/api/customers/import"))
+                            .header("Content-Type", csv ? "text/csv" : "application/x-ndjson")
+                            .POST(HttpRequest.BodyPublishers.ofInputStream(() -> new Rows(mode, rows, csv)))
+                            .build(), HttpResponse.BodyHandlers.ofString());
+                    List<String> lines = response.body().lines().toList();
+                    JsonNode done = objectMapper.readTree(lines.get(lines.size() - 1));
+                    if (done.get("imported").asLong() != rows) {
+                        throw new IllegalStateException("Import failed: " + lines.get(0));
+                    }
+                }
+                if (!mode.equals("warmup")) {
+                    report.add(line("import " + mode, rows, System.nanoTime() - start, -1));
+                }
+            }
+
+            // Export from the last database, which holds the customers of the csv import
+            for (String mode : List.of("pages", "ndjson", "csv")) {
+                resetHeap();
+                long start = System.nanoTime();
+                long bytes = 0;
+                if (mode.equals("pages")) {
+                    String cursor = null;
+                    do {
+                        HttpResponse<String> response = client.send(HttpRequest.newBuilder(last.uri(
+                                        "/api/customers?limit=1000" + (cursor == null ? "" : "&cursor=" + cursor)))
+                                .GET().build(), HttpResponse.BodyHandlers.ofString());
+                        bytes += response.body().length();
+                        cursor = response.headers().firstValue("X-Next-Cursor").orElse(null);
+                    } while (cursor != null);
+                } else {
+                    HttpResponse<InputStream> response = client.send(HttpRequest.newBuilder(
+                            last.uri("/api/customers/export?format=" + mode)).GET().build(),
+                            HttpResponse.BodyHandlers.ofInputStream());
+                    try (InputStream body = response.body()) {
+                        byte[] buffer = new byte[65_536];
+                        for (int read = body.read(buffer); read != -1; read = body.read(buffer)) {
+                            bytes += read;
+                        }
+                    }
+                }
+                report.add(line("export " + mode, customers, System.nanoTime() - start, bytes));
+            }
+        } finally {
+            if (last != null) {
+                last.close();
+            }
+        }
+
+        System.out.printf("%n%d customers, batch requests of %d%n", customers, batchSize);
+        System.out.printf("%-14s %12s %16s %10s%n", "transfer", "rows/s", "max heap after GC", "MB sent");
+        report.forEach(System.out::println);
+    }
+
+    private static String line(String name, int rows, long nanos, long bytes) {
+        return String.format("%-14s %12.0f %14.1f MB %10s", name, rows / (nanos / 1e9), maxAfterGc.get() / 1048576.0,
+                bytes < 0 ? "" : String.format("%.1f", bytes / 1048576.0));
+    }
+
+    private static String json(String prefix, int i) {
+        return "{\"firstName\":\"" + prefix + "First" + i + "\",\"lastName\":\"" + prefix + "Last" + i
+                + "\",\"emailAddress\":\"" + prefix + i + "@example.com\",\"phoneNumber\":\"555-" + i + "\"}";
+    }
+
+    private static void watchHeapAfterGc() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                HEAP_POOLS.add(pool.getName());
+            }
+        }
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) collector).addNotificationListener((notification, handback) -> {
+                if (!notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+                    return;
+                }
+                GarbageCollectionNotificationInfo info =
+                        GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                long used = info.getGcInfo().getMemoryUsageAfterGc().entrySet().stream()
+                        .filter(entry -> HEAP_POOLS.contains(entry.getKey()))
+                        .mapToLong(entry -> entry.getValue().getUsed())
+                        .sum();
+                maxAfterGc.accumulateAndGet(used, Math::max);
+            }, null, null);
+        }
+    }
+
+    // Starts each measurement from the live heap, not from garbage the previous one left behind
+    private static void resetHeap() {
+        System.gc();
+        maxAfterGc.set(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+    }
+
+    // Generates the upload row by row, the client never holds the file either
+    private static final class Rows extends InputStream {
+        private final String prefix;
+        private final int rows;
+        private final boolean csv;
+        private byte[] line;
+        private int position;
+        private int next;
+
+        Rows(String prefix, int rows, boolean csv) {
+            this.prefix = prefix;
+            this.rows = rows;
+            this.csv = csv;
+            this.line = csv ? "firstName,lastName,emailAddress,phoneNumber\n".getBytes(StandardCharsets.UTF_8) : new byte[0];
+        }
+
+        @Override
+        public int read() {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            while (position == line.length) {
+                if (next == rows) {
+                    return -1;
+                }
+                int i = next++;
+                String text = csv
+                        ? prefix + "First" + i + "," + prefix + "Last" + i + "," + prefix + i + "@example.com,555-" + i + "\n"
+                        : json(prefix, i) + "\n";
+                line = text.getBytes(StandardCharsets.UTF_8);
+                position = 0;
+            }
+            int count = Math.min(length, line.length - position);
+            System.arraycopy(line, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+    }
+}
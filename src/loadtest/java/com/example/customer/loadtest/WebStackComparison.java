@@ -0,0 +1,133 @@
+package com.example.customer.loadtest;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Servlet stack on platform and on virtual threads against the reactive profile, under the same closed loop of
+// GET /api/customers/{id}, once at a low and once at a high number of concurrent connections. Memory per connection
+// is the growth between the two: live heap right after a GC in the middle of each run, and resident set size.
+// The cache is off so every stack reads the database. Client and server share the JVM, both runs use the same
+// client, so its share cancels out in the difference.
+// Args: [requests=20000] [lowConcurrency=50] [highConcurrency=1000] [customers=1000]
+public class WebStackComparison {
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int lowConcurrency = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int highConcurrency = args.length > 2 ? Integer.parseInt(args[2]) : 1_000;
+        int customers = args.length > 3 ? Integer.parseInt(args[3]) : 1_000;
+
+        Map<String, Map<String, Object>> stacks = new LinkedHashMap<>();
+        stacks.put("servlet", Map.of("spring.threads.virtual.enabled", false));
+        // Same ten database connections as the other stacks rather than the carrier-capped H2 pool
+        stacks.put("servlet-vt", Map.of("spring.threads.virtual.enabled", true,
+                "customer.threads.cap-h2-pool-to-carriers", false));
+        stacks.put("reactive", Map.of("spring.r2dbc.url",
+                "r2dbc:pool:h2:mem:///stack-reactive?options=DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"));
+
+        List<String> report = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Object>> stack : stacks.entrySet()) {
+            String name = stack.getKey();
+            Map<String, Object> properties = new HashMap<>(stack.getValue());
+            properties.put("customer.cache.enabled", false);
+            properties.put("customer.name-index.enabled", false);
+            String[] profiles = "reactive".equals(name) ? new String[]{"dev", "reactive"} : new String[]{"dev"};
+            try (LoadTestApp app = LoadTestApp.start("stack-" + name, properties, profiles)) {
+                List<String> ids = app.seedThroughCreates("customer", customers);
+                // Unreported pass for class loading and JIT warm-up
+                run(app, ids, requests / 4, lowConcurrency);
+
+                Sample low = run(app, ids, requests, lowConcurrency);
+                Sample high = run(app, ids, requests, highConcurrency);
+                int extraConnections = highConcurrency - lowConcurrency;
+                report.add(String.format("%-10s %5d %10.0f %8.2f %8d %12.1f %12.1f %6d", name, lowConcurrency,
+                        low.throughput, low.p99Millis, low.threads, low.liveHeapKb / 1024.0, low.rssKb / 1024.0,
+                        low.errors));
+                report.add(String.format("%-10s %5d %10.0f %8.2f %8d %12.1f %12.1f %6d %10.1f %10.1f", name,
+                        highConcurrency, high.throughput, high.p99Millis, high.threads, high.liveHeapKb / 1024.0,
+                        high.rssKb / 1024.0, high.errors, (double) (high.liveHeapKb - low.liveHeapKb) / extraConnections,
+                        (double) (high.rssKb - low.rssKb) / extraConnections));
+            }
+        }
+        System.out.printf("%n%-10s %5s %10s %8s %8s %12s %12s %6s %10s %10s%n", "stack", "conns", "req/s", "p99 ms",
+                "threads", "live heap MB", "RSS MB", "errors", "heap KB/c", "RSS KB/c");
+        report.forEach(System.out::println);
+    }
+
+    private record Sample(double throughput, double p99Millis, int threads, long liveHeapKb, long rssKb, int errors) {
+    }
+
+    private static Sample run(LoadTestApp app, List<String> ids, int requests, int concurrency) throws Exception {
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        long[] latencies = new long[requests];
+        long[] liveHeapKb = new long[1];
+        long[] rssKb = new long[1];
+        int[] errors = new int[1];
+        Semaphore inFlight = new Semaphore(concurrency);
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < requests; i++) {
+                inFlight.acquire();
+                if (i == requests / 2) {
+                    // Every connection is busy here, so what survives a GC is what they hold on to
+                    System.gc();
+                    Runtime runtime = Runtime.getRuntime();
+                    liveHeapKb[0] = (runtime.totalMemory() - runtime.freeMemory()) / 1024;
+                    rssKb[0] = residentSetKb();
+                }
+                int request = i;
+                executor.submit(() -> {
+                    String id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(
+                                HttpRequest.newBuilder(app.uri("/api/customers/" + id)).GET().build(),
+                                HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            synchronized (errors) {
+                                errors[0]++;
+                            }
+                        }
+                    } catch (Exception ex) {
+                        synchronized (errors) {
+                            errors[0]++;
+                        }
+                    } finally {
+                        latencies[request] = System.nanoTime() - sent;
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Arrays.sort(latencies);
+        return new Sample(requests / seconds, latencies[(int) (requests * 0.99)] / 1e6, threads.getPeakThreadCount(),
+                liveHeapKb[0], rssKb[0], errors[0]);
+    }
+
+    private static long residentSetKb() throws Exception {
+        Path status = Path.of("/proc/self/status");
+        if (!Files.exists(status)) {
+            return 0;
+        }
+        return Files.readAllLines(status).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")))
+                .findFirst()
+                .orElse(0);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.customer.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+// Create throughput of synchronous saves against the write-behind queue, acknowledging on commit and on enqueue.
+// Runs against the file-backed H2 database of the prod profile, where every commit is a write to disk.
+// Args: [creates=20000] [concurrency=64] [queueCapacity=10000]
+public class WriteModeComparison {
+
+    public static void main(String[] args) throws Exception {
+        int creates = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int queueCapacity = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+
+        Path dataDir = Files.createTempDirectory("customer-write-mode");
+        Map<String, Map<String, Object>> modes = new LinkedHashMap<>();
+        modes.put("sync", Map.of());
+        modes.put("commit", Map.of("customer.write-behind.enabled", true, "customer.write-behind.ack", "commit",
+                "customer.write-behind.queue-capacity", queueCapacity));
+        modes.put("enqueue", Map.of("customer.write-behind.enabled", true, "customer.write-behind.ack", "enqueue",
+                "customer.write-behind.queue-capacity", queueCapacity));
+
+        // Unreported pass, so class loading and JIT warm-up do not count against whichever mode runs first
+        try (LoadTestApp app = LoadTestApp.start("write-warmup", Map.of(), "prod")) {
+            run(app, "warmup", creates / 4, concurrency);
+        }
+
+        List<String> report = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Object>> mode : modes.entrySet()) {
+            Map<String, Object> properties = new HashMap<>(mode.getValue());
+            properties.put("spring.datasource.url", "jdbc:h2:file:" + dataDir.resolve(mode.getKey())
+                    + ";CACHE_SIZE=65536;QUERY_CACHE_SIZE=64;DB_CLOSE_ON_EXIT=FALSE");
+            try (LoadTestApp app = LoadTestApp.start("write-" + mode.getKey(), properties, "prod")) {
+                report.add(String.format("%-10s %s", mode.getKey(), run(app, mode.getKey(), creates, concurrency)));
+            }
+        }
+        System.out.printf("%n%-10s %12s %10s %10s %10s %8s%n", "mode", "creates/s", "p50 ms", "p99 ms", "429s",
+                "errors");
+        report.forEach(System.out::println);
+    }
+
+    // Closed loop of creates with unique names, so every request is an insert
+    private static String run(LoadTestApp app, String prefix, int creates, int concurrency) throws Exception {
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        long[] latencies = new long[creates];
+        int[] outcomes = new int[2];
+        Semaphore inFlight = new Semaphore(concurrency);
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < creates; i++) {
+                inFlight.acquire();
+                int request = i;
+                executor.submit(() -> {
+                    HttpRequest httpRequest = HttpRequest.newBuilder(app.uri("/api/customers"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(String.format(
+                                    "{\"firstName\":\"%1$sFirst%2$d\",\"lastName\":\"%1$sLast%2$d\","
+                                            + "\"emailAddress\":\"%1$s%2$d@example.com\"}", prefix, request)))
+                            .build();
+                    long sent = System.nanoTime();
+                    try {
+                        int status = client.send(httpRequest, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        if (status == 429 || (status != 201 && status != 202)) {
+                            synchronized (outcomes) {
+                                outcomes[status == 429 ? 0 : 1]++;
+                            }
+                        }
+                    } catch (Exception ex) {
+                        synchronized (outcomes) {
+                            outcomes[1]++;
+                        }
+                    } finally {
+                        latencies[request] = System.nanoTime() - sent;
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Arrays.sort(latencies);
+        return String.format("%12.0f %10.2f %10.2f %10d %8d", creates / seconds, latencies[creates / 2] / 1e6,
+                latencies[(int) (creates * 0.99)] / 1e6, outcomes[0], outcomes[1]);
+    }
+}
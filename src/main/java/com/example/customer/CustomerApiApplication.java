@@ -1,9 +1,18 @@
 package com.example.customer;
 
+import com.example.customer.repository.ReactiveCustomerRepository;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
+// Customer is also an @Entity, JPA would otherwise claim the R2DBC repository too
+@EnableJpaRepositories(excludeFilters = @ComponentScan.Filter(
+		type = FilterType.ASSIGNABLE_TYPE, classes = ReactiveCustomerRepository.class))
 public class CustomerApiApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,85 @@
+package com.example.customer;
+
+import com.example.customer.service.CustomerTransferService;
+import com.example.customer.service.ImportReport;
+import com.example.customer.service.TransferFormat;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Bulk import and export straight against the configured database, without the web server or an HTTP upload:
+//   java -Dloader.main=com.example.customer.CustomerTransferCli -jar customer-api.jar import customers.csv \
+//       [--format=ndjson|csv] [--spring.datasource.url=...]
+// A file of - reads standard input or writes standard output. Rejected records and progress go to standard error,
+// the exit code is 1 when any record was rejected.
+public class CustomerTransferCli {
+
+    public static void main(String[] args) throws IOException {
+        List<String> positional = new ArrayList<>();
+        List<String> springArgs = new ArrayList<>();
+        String formatName = null;
+        for (String arg : args) {
+            if (arg.startsWith("--format=")) {
+                formatName = arg.substring("--format=".length());
+            } else if (arg.startsWith("--")) {
+                springArgs.add(arg);
+            } else {
+                positional.add(arg);
+            }
+        }
+        if (positional.size() != 2 || !List.of("import", "export").contains(positional.get(0))) {
+            System.err.println("Usage: CustomerTransferCli import|export <file|-> [--format=ndjson|csv]");
+            System.exit(2);
+        }
+        boolean export = positional.get(0).equals("export");
+        String file = positional.get(1);
+        if (formatName == null && file.equals("-")) {
+            formatName = "ndjson";
+        }
+        TransferFormat format = formatName != null ? TransferFormat.of(formatName) : TransferFormat.ofFileName(file);
+
+        // Console logging then goes to standard error, standard output carries only the export
+        PrintStream stdout = System.out;
+        System.setOut(System.err);
+
+        // Nothing searches by name here, no need to load every customer into the index first
+        if (springArgs.stream().noneMatch(arg -> arg.startsWith("--customer.name-index.enabled="))) {
+            springArgs.add("--customer.name-index.enabled=false");
+        }
+
+        int status;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(CustomerApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(springArgs.toArray(String[]::new))) {
+            CustomerTransferService transferService = context.getBean(CustomerTransferService.class);
+            if (export) {
+                try (OutputStream output = file.equals("-") ? stdout : Files.newOutputStream(Path.of(file))) {
+                    long exported = transferService.exportCustomers(output, format);
+                    System.err.printf("Exported %d customers%n", exported);
+                }
+                status = 0;
+            } else {
+                try (InputStream input = file.equals("-") ? System.in : Files.newInputStream(Path.of(file))) {
+                    ImportReport.Progress done = transferService.importCustomers(input, format, CustomerTransferCli::print);
+                    status = done.failed() == 0 ? 0 : 1;
+                }
+            }
+        }
+        System.exit(status);
+    }
+
+    private static void print(ImportReport report) {
+        if (report instanceof ImportReport.LineFailed failed) {
+            System.err.printf("Line %d: %d %s%n", failed.line(), failed.status(), failed.message());
+        } else if (report instanceof ImportReport.Progress progress) {
+            System.err.printf("%d records, %d imported, %d rejected%s%n", progress.records(), progress.imported(),
+                    progress.failed(), progress.done() ? ", done" : "");
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.customer.cache;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+// Tells every replica that cached copies of a customer older than the given version are stale
+public record CacheInvalidation(UUID id, long version) {
+
+    public static final long DELETED = Long.MAX_VALUE;
+
+    static final int ENCODED_LENGTH = 24;
+
+    public boolean isDeletion() {
+        return version == DELETED;
+    }
+
+    public byte[] encode() {
+        return ByteBuffer.allocate(ENCODED_LENGTH)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .putLong(version)
+                .array();
+    }
+
+    public static CacheInvalidation decode(byte[] data, int offset, int length) {
+        if (length != ENCODED_LENGTH) {
+            throw new IllegalArgumentException("Invalid cache invalidation length: " + length);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data, offset, length);
+        return new CacheInvalidation(new UUID(buffer.getLong(), buffer.getLong()), buffer.getLong());
+    }
+}
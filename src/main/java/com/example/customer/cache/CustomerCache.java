@@ -0,0 +1,152 @@
+package com.example.customer.cache;
+
+import com.example.customer.config.CustomerCacheProperties;
+import com.example.customer.repository.entity.Customer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+// Size-bounded, W-TinyLFU evicting cache of customers keyed by id, kept coherent across replicas
+// by version-stamped invalidations broadcast over the configured transport
+@Component
+public class CustomerCache {
+    private static final Logger logger = LoggerFactory.getLogger(CustomerCache.class);
+
+    public static final String CACHE_NAME = "customers";
+
+    private final boolean enabled;
+    private final Cache<UUID, Customer> cache;
+    // Highest invalidated version per id: cached copies below it are stale and must not be stored again
+    private final Cache<UUID, Long> invalidatedVersions;
+    private final InvalidationTransport transport;
+
+    public CustomerCache(CustomerCacheProperties properties, MeterRegistry meterRegistry, InvalidationTransport transport) {
+        this.enabled = properties.enabled();
+        this.transport = transport;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.timeToLive())
+                .recordStats()
+                .build();
+        // Anything older than the time-to-live has expired from the cache anyway
+        this.invalidatedVersions = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.timeToLive())
+                .build();
+        if (enabled) {
+            // Exposes cache.gets (hit/miss), cache.puts, cache.evictions and cache.size through Actuator
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+            transport.subscribe(this::apply);
+        } else {
+            logger.info("Customer cache is disabled");
+        }
+    }
+
+    public Optional<Customer> get(UUID id) {
+        if (!enabled || isPendingInvalidation(id)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.getIfPresent(id));
+    }
+
+    public void put(Customer customer) {
+        UUID id = customer.getId();
+        if (!enabled || id == null || isPendingInvalidation(id)) {
+            return;
+        }
+        long version = versionOf(customer);
+        // Checked under the entry lock so a concurrent invalidation either sees this entry or is seen by it
+        cache.asMap().compute(id, (key, existing) -> {
+            Long invalidated = invalidatedVersions.getIfPresent(key);
+            if (invalidated != null && version < invalidated) {
+                return existing;
+            }
+            return existing != null && versionOf(existing) > version ? existing : customer;
+        });
+    }
+
+    // Applies an invalidation from any replica, a late one never evicts a newer entry
+    public void apply(CacheInvalidation invalidation) {
+        if (!enabled) {
+            return;
+        }
+        UUID id = invalidation.id();
+        invalidatedVersions.asMap().merge(id, invalidation.version(), Math::max);
+        cache.asMap().computeIfPresent(id, (key, existing) ->
+                versionOf(existing) >= invalidation.version() ? existing : null);
+    }
+
+    // Broadcasts once the surrounding transaction commits, so a rolled back write keeps the entry.
+    // Until then the writing transaction itself bypasses the cache for that id.
+    public void invalidateAfterCommit(Customer updated) {
+        afterCommit(updated.getId(), updated);
+    }
+
+    public void invalidateDeletedAfterCommit(UUID id) {
+        afterCommit(id, null);
+    }
+
+    private void afterCommit(UUID id, Customer updated) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingInvalidations().put(id, updated);
+        } else {
+            broadcast(id, updated);
+        }
+    }
+
+    private void broadcast(UUID id, Customer updated) {
+        // The version is read after commit, once the flush has bumped it
+        CacheInvalidation invalidation = new CacheInvalidation(id,
+                updated == null ? CacheInvalidation.DELETED : versionOf(updated));
+        apply(invalidation);
+        transport.publish(invalidation);
+    }
+
+    private boolean isPendingInvalidation(UUID id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        Map<?, ?> pending = (Map<?, ?>) TransactionSynchronizationManager.getResource(this);
+        return pending != null && pending.containsKey(id);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<UUID, Customer> pendingInvalidations() {
+        Map<UUID, Customer> pending = (Map<UUID, Customer>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<UUID, Customer> writes = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, writes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    writes.forEach(CustomerCache.this::broadcast);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CustomerCache.this);
+                }
+            });
+            pending = writes;
+        }
+        return pending;
+    }
+
+    private static long versionOf(Customer customer) {
+        return customer.getVersion() == null ? -1 : customer.getVersion();
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.customer.cache;
+
+import com.example.customer.config.CustomerCacheProperties;
+import com.example.customer.repository.entity.Customer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Bounded index of the unique keys of recently created customers, so repeated submissions are rejected
+// without a database round-trip. It only ever holds keys known to be taken; misses still go to the database.
+@Component
+public class CustomerKeyIndex {
+
+    private final boolean enabled;
+    private final ConcurrentMap<String, UUID> owners = new ConcurrentHashMap<>();
+    private final Cache<UUID, List<String>> keysById;
+
+    public CustomerKeyIndex(CustomerCacheProperties properties, InvalidationTransport transport) {
+        this.enabled = properties.enabled();
+        this.keysById = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.timeToLive())
+                .executor(Runnable::run)
+                .removalListener((UUID id, List<String> keys, RemovalCause cause) -> {
+                    if (keys != null) {
+                        keys.forEach(key -> owners.remove(key, id));
+                    }
+                })
+                .build();
+        if (enabled) {
+            // An update or delete on any replica may have released the keys
+            transport.subscribe(invalidation -> remove(invalidation.id()));
+        }
+    }
+
+    // Returns the conflict message when another customer is known to hold the name or email
+    public String findConflict(Customer customer) {
+        if (!enabled) {
+            return null;
+        }
+        if (isTaken(firstNameKey(customer.getFirstName())) || isTaken(lastNameKey(customer.getLastName()))) {
+            return "Customer with the same name already exists";
+        }
+        if (isTaken(emailKey(customer.getEmailAddress()))) {
+            return "Customer with email " + customer.getEmailAddress() + " already exists";
+        }
+        return null;
+    }
+
+    public void addAfterCommit(Customer created) {
+        if (enabled) {
+            UUID id = created.getId();
+            List<String> keys = keysOf(created);
+            afterCommit(() -> {
+                keysById.put(id, keys);
+                keys.forEach(key -> owners.put(key, id));
+            });
+        }
+    }
+
+    public void removeAfterCommit(UUID id) {
+        if (enabled) {
+            afterCommit(() -> remove(id));
+        }
+    }
+
+    public void remove(UUID id) {
+        keysById.invalidate(id);
+    }
+
+    private boolean isTaken(String key) {
+        UUID owner = owners.get(key);
+        // Expired owners may linger in the reverse map until Caffeine's next maintenance cycle
+        return owner != null && keysById.getIfPresent(owner) != null;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // One key per unique constraint: the first name, the last name, then the email
+    public static List<String> keysOf(Customer customer) {
+        return List.of(firstNameKey(customer.getFirstName()), lastNameKey(customer.getLastName()),
+                emailKey(customer.getEmailAddress()));
+    }
+
+    // The first and last name are unique on their own in the database, so each gets its own key
+    private static String firstNameKey(String firstName) {
+        return "f:" + firstName;
+    }
+
+    private static String lastNameKey(String lastName) {
+        return "l:" + lastName;
+    }
+
+    private static String emailKey(String emailAddress) {
+        return "e:" + emailAddress;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.customer.cache;
+
+import java.util.function.Consumer;
+
+// Broadcasts cache invalidations to every replica, including the publishing one
+public interface InvalidationTransport extends AutoCloseable {
+
+    void publish(CacheInvalidation invalidation);
+
+    void subscribe(Consumer<CacheInvalidation> listener);
+
+    @Override
+    default void close() {
+    }
+}
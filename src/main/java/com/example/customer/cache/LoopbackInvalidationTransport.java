@@ -0,0 +1,21 @@
+package com.example.customer.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// In-memory transport for a single replica, or several caches sharing one JVM in tests
+public class LoopbackInvalidationTransport implements InvalidationTransport {
+
+    private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        listeners.forEach(listener -> listener.accept(invalidation));
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.customer.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.*;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// UDP multicast transport: every replica joined to the group receives every invalidation
+public class MulticastInvalidationTransport implements InvalidationTransport {
+    private static final Logger logger = LoggerFactory.getLogger(MulticastInvalidationTransport.class);
+
+    private final InetSocketAddress group;
+    private final NetworkInterface networkInterface;
+    private final MulticastSocket socket;
+    private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+    private final Thread receiver;
+    private volatile boolean running = true;
+
+    public MulticastInvalidationTransport(String groupAddress, int port, int timeToLive, String interfaceName) {
+        try {
+            this.group = new InetSocketAddress(InetAddress.getByName(groupAddress), port);
+            this.networkInterface = interfaceName == null || interfaceName.isBlank()
+                    ? null
+                    : NetworkInterface.getByName(interfaceName);
+            this.socket = new MulticastSocket(port);
+            socket.setTimeToLive(timeToLive);
+            if (networkInterface != null) {
+                socket.setNetworkInterface(networkInterface);
+            }
+            socket.joinGroup(group, networkInterface);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to join cache invalidation group " + groupAddress + ":" + port, ex);
+        }
+        this.receiver = Thread.ofPlatform().daemon().name("cache-invalidation-receiver").start(this::receive);
+        logger.info("Joined cache invalidation group {}", group);
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        byte[] data = invalidation.encode();
+        try {
+            socket.send(new DatagramPacket(data, data.length, group));
+        } catch (IOException ex) {
+            // Other replicas fall back to the cache time-to-live for this entry
+            logger.error("Unable to publish cache invalidation for customer {}", invalidation.id(), ex);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            socket.leaveGroup(group, networkInterface);
+        } catch (IOException ex) {
+            logger.warn("Unable to leave cache invalidation group {}", group, ex);
+        }
+        socket.close();
+    }
+
+    private void receive() {
+        byte[] buffer = new byte[64];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        while (running) {
+            try {
+                packet.setLength(buffer.length);
+                socket.receive(packet);
+                CacheInvalidation invalidation = CacheInvalidation.decode(packet.getData(), packet.getOffset(), packet.getLength());
+                listeners.forEach(listener -> listener.accept(invalidation));
+            } catch (SocketException ex) {
+                if (running) {
+                    logger.error("Cache invalidation socket failed", ex);
+                }
+                return;
+            } catch (Exception ex) {
+                logger.warn("Dropping malformed cache invalidation", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.customer.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// UDP unicast transport for networks that drop multicast, as most Kubernetes pod networks do. Each invalidation is sent
+// to every address the peer names resolve to, typically one headless service listing all replicas, which are resolved
+// again every refresh interval. The publisher applies its own invalidations directly; a copy it may also send itself
+// is harmless, applying an invalidation twice changes nothing.
+public class UnicastInvalidationTransport implements InvalidationTransport {
+    private static final Logger logger = LoggerFactory.getLogger(UnicastInvalidationTransport.class);
+
+    private final List<String> peers;
+    private final int port;
+    private final DatagramSocket socket;
+    private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+    private final Thread receiver;
+    private final Thread resolver;
+    private volatile List<InetSocketAddress> peerAddresses;
+    private volatile boolean running = true;
+
+    // Peers are host names or addresses, each optionally with its own :port
+    public UnicastInvalidationTransport(List<String> peers, int port, Duration refreshInterval) {
+        if (peers == null || peers.isEmpty()) {
+            throw new IllegalArgumentException("customer.cache.invalidation.peers is required for the unicast transport");
+        }
+        this.peers = List.copyOf(peers);
+        this.port = port;
+        try {
+            this.socket = new DatagramSocket(port);
+        } catch (SocketException ex) {
+            throw new UncheckedIOException("Unable to bind cache invalidation port " + port, ex);
+        }
+        this.peerAddresses = resolve(List.of());
+        this.receiver = Thread.ofPlatform().daemon().name("cache-invalidation-receiver").start(this::receive);
+        this.resolver = Thread.ofPlatform().daemon().name("cache-invalidation-peers")
+                .start(() -> refresh(refreshInterval));
+        logger.info("Sending cache invalidations to {} on port {}", peers, port);
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        listeners.forEach(listener -> listener.accept(invalidation));
+        byte[] data = invalidation.encode();
+        for (InetSocketAddress peer : peerAddresses) {
+            try {
+                socket.send(new DatagramPacket(data, data.length, peer));
+            } catch (IOException ex) {
+                // That replica falls back to the cache time-to-live for this entry
+                logger.error("Unable to send cache invalidation for customer {} to {}", invalidation.id(), peer, ex);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        resolver.interrupt();
+        socket.close();
+    }
+
+    private void refresh(Duration refreshInterval) {
+        while (running) {
+            try {
+                Thread.sleep(refreshInterval);
+            } catch (InterruptedException ex) {
+                return;
+            }
+            peerAddresses = resolve(peerAddresses);
+        }
+    }
+
+    // A name that does not resolve keeps its last addresses, a DNS hiccup should not cut replicas off
+    private List<InetSocketAddress> resolve(List<InetSocketAddress> previous) {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (String peer : peers) {
+            int separator = peer.lastIndexOf(':');
+            boolean hasPort = separator > 0 && peer.indexOf(':') == separator;
+            String host = hasPort ? peer.substring(0, separator) : peer;
+            int peerPort = hasPort ? Integer.parseInt(peer.substring(separator + 1)) : port;
+            try {
+                for (InetAddress address : InetAddress.getAllByName(host)) {
+                    addresses.add(new InetSocketAddress(address, peerPort));
+                }
+            } catch (UnknownHostException ex) {
+                logger.warn("Unable to resolve cache invalidation peer {}", host);
+                previous.stream()
+                        .filter(address -> host.equals(address.getHostString()) && address.getPort() == peerPort)
+                        .forEach(addresses::add);
+            }
+        }
+        if (!addresses.equals(previous)) {
+            logger.info("Cache invalidation peers: {}", addresses);
+        }
+        return List.copyOf(addresses);
+    }
+
+    private void receive() {
+        byte[] buffer = new byte[64];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        while (running) {
+            try {
+                packet.setLength(buffer.length);
+                socket.receive(packet);
+                CacheInvalidation invalidation = CacheInvalidation.decode(packet.getData(), packet.getOffset(), packet.getLength());
+                listeners.forEach(listener -> listener.accept(invalidation));
+            } catch (SocketException ex) {
+                if (running) {
+                    logger.error("Cache invalidation socket failed", ex);
+                }
+                return;
+            } catch (Exception ex) {
+                logger.warn("Dropping malformed cache invalidation", ex);
+            }
+        }
+    }
+}
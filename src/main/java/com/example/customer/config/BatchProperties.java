@@ -0,0 +1,10 @@
+package com.example.customer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "customer.batch")
+public record BatchProperties(
+        @DefaultValue("10000") int maxSize,
+        @DefaultValue("500") int chunkSize) {
+}
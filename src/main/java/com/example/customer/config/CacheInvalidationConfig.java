@@ -0,0 +1,27 @@
+package com.example.customer.config;
+
+import com.example.customer.cache.InvalidationTransport;
+import com.example.customer.cache.LoopbackInvalidationTransport;
+import com.example.customer.cache.MulticastInvalidationTransport;
+import com.example.customer.cache.UnicastInvalidationTransport;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CacheInvalidationConfig {
+
+    @Bean
+    public InvalidationTransport invalidationTransport(CustomerCacheProperties properties) {
+        CustomerCacheProperties.Invalidation invalidation = properties.invalidation();
+        if (!properties.enabled()) {
+            return new LoopbackInvalidationTransport();
+        }
+        return switch (invalidation.transport()) {
+            case LOOPBACK -> new LoopbackInvalidationTransport();
+            case MULTICAST -> new MulticastInvalidationTransport(
+                    invalidation.group(), invalidation.port(), invalidation.timeToLive(), invalidation.networkInterface());
+            case UNICAST -> new UnicastInvalidationTransport(
+                    invalidation.peers(), invalidation.port(), invalidation.peerRefresh());
+        };
+    }
+}
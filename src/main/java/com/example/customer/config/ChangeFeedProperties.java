@@ -0,0 +1,22 @@
+package com.example.customer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "customer.changes")
+public record ChangeFeedProperties(
+        @DefaultValue("30s") Duration maxWait,
+        @DefaultValue("1s") Duration pollInterval,
+        @DefaultValue("7d") Duration retention,
+        @DefaultValue("false") boolean compact,
+        @DefaultValue("1h") Duration compactAfter,
+        @DefaultValue("1m") Duration cleanupInterval) {
+
+    // Longer waits are cut to the cap rather than rejected
+    public Duration resolveWait(int seconds) {
+        Duration requested = Duration.ofSeconds(seconds);
+        return requested.compareTo(maxWait) > 0 ? maxWait : requested;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.customer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "customer.cache")
+public record CustomerCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("10000") long maximumSize,
+        @DefaultValue("10m") Duration timeToLive,
+        @DefaultValue Invalidation invalidation) {
+
+    public enum Transport {
+        LOOPBACK, MULTICAST, UNICAST
+    }
+
+    public record Invalidation(
+            @DefaultValue("loopback") Transport transport,
+            @DefaultValue("239.255.42.99") String group,
+            @DefaultValue("4446") int port,
+            @DefaultValue("1") int timeToLive,
+            String networkInterface,
+            List<String> peers,
+            @DefaultValue("10s") Duration peerRefresh) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.customer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "customer.load-shedding")
+public record LoadSheddingProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("100") int initialLimit,
+        @DefaultValue("10") int minLimit,
+        @DefaultValue("400") int maxLimit,
+        @DefaultValue("2.0") double tolerance,
+        @DefaultValue("100ms") Duration window,
+        @DefaultValue("1s") Duration retryAfter,
+        @DefaultValue List<String> excludedPaths) {
+}
@@ -0,0 +1,20 @@
+package com.example.customer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "customer.name-index")
+public record NameIndexProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("0.5") double minSimilarity,
+        @DefaultValue("10") int defaultLimit,
+        @DefaultValue("100") int maxLimit) {
+
+    // Requested limits above the cap are clamped rather than rejected
+    public int resolveLimit(Integer requested) {
+        if (requested == null) {
+            return Math.min(defaultLimit, maxLimit);
+        }
+        return Math.min(requested, maxLimit);
+    }
+}
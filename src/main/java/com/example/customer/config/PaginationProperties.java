@@ -0,0 +1,18 @@
+package com.example.customer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "customer.pagination")
+public record PaginationProperties(
+        @DefaultValue("100") int defaultPageSize,
+        @DefaultValue("1000") int maxPageSize) {
+
+    // Requested sizes above the cap are clamped rather than rejected
+    public int resolvePageSize(Integer requested) {
+        if (requested == null) {
+            return Math.min(defaultPageSize, maxPageSize);
+        }
+        return Math.min(requested, maxPageSize);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.customer.config;
+
+import com.example.customer.ratelimit.AdaptiveConcurrencyLimit;
+import com.example.customer.ratelimit.ClientRateLimiter;
+import com.example.customer.ratelimit.RateLimitFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+// Rate limiting and load shedding for the servlet stack, each switched by its own enabled flag
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RateLimitConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "customer.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public ClientRateLimiter clientRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        ClientRateLimiter rateLimiter = new ClientRateLimiter(properties);
+        Gauge.builder("customer.rate.limit.clients", rateLimiter, ClientRateLimiter::clients)
+                .description("Clients with a budget in use on this replica")
+                .register(meterRegistry);
+        return rateLimiter;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "customer.load-shedding", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public AdaptiveConcurrencyLimit adaptiveConcurrencyLimit(LoadSheddingProperties properties,
+                                                             MeterRegistry meterRegistry) {
+        AdaptiveConcurrencyLimit concurrencyLimit = new AdaptiveConcurrencyLimit(properties);
+        Gauge.builder("customer.load.shedding.limit", concurrencyLimit, AdaptiveConcurrencyLimit::limit)
+                .description("Requests this replica currently admits at once")
+                .register(meterRegistry);
+        Gauge.builder("customer.load.shedding.in.flight", concurrencyLimit, AdaptiveConcurrencyLimit::inFlight)
+                .description("Admitted requests still running")
+                .register(meterRegistry);
+        return concurrencyLimit;
+    }
+
+    // Only /api/*, health probes and metrics scrapes are never limited. Ordered after the observation filter so
+    // rejected requests still show up in http.server.requests, and before everything else.
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(
+            ObjectProvider<ClientRateLimiter> rateLimiter, ObjectProvider<AdaptiveConcurrencyLimit> concurrencyLimit,
+            RateLimitProperties rateLimits, LoadSheddingProperties loadShedding,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver,
+            MeterRegistry meterRegistry) {
+        RateLimitFilter filter = new RateLimitFilter(rateLimiter.getIfAvailable(), concurrencyLimit.getIfAvailable(),
+                rateLimits.apiKeyHeader(), rateLimits.apiKeys(), loadShedding.excludedPaths(), loadShedding.retryAfter(),
+                exceptionResolver, meterRegistry);
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
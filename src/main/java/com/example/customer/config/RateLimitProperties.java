@@ -0,0 +1,24 @@
+package com.example.customer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Set;
+
+// Per-client request budgets, enforced by each replica on its own. A client is its API key header when the key is one of
+// apiKeys, its address otherwise.
+@ConfigurationProperties(prefix = "customer.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("X-API-Key") String apiKeyHeader,
+        @DefaultValue Set<String> apiKeys,
+        @DefaultValue Budget reads,
+        @DefaultValue Budget writes,
+        @DefaultValue("100000") long maxClients,
+        @DefaultValue("10m") Duration idleTimeout) {
+
+    // Sustained requests per second, and how many may arrive at once after a quiet period
+    public record Budget(@DefaultValue("100") double perSecond, @DefaultValue("200") int burst) {
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.customer.config;
+
+import com.example.customer.repository.ReactiveCustomerRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.r2dbc.config.AbstractR2dbcConfiguration;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+// Active with spring.main.web-application-type=reactive (the reactive profile). Boot's R2DBC auto-configuration is
+// excluded in application.yml: its ReactiveTransactionManager would stand next to the JPA one and leave every
+// @Transactional ambiguous. The R2DBC transaction manager is only reachable through the TransactionalOperator.
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableConfigurationProperties({R2dbcProperties.class, DataSourceProperties.class})
+@EnableR2dbcRepositories(basePackageClasses = ReactiveCustomerRepository.class)
+public class ReactiveStackConfig extends AbstractR2dbcConfiguration {
+
+    private final R2dbcProperties properties;
+
+    public ReactiveStackConfig(R2dbcProperties properties) {
+        this.properties = properties;
+    }
+
+    // Pooled with r2dbc:pool: URLs, e.g. r2dbc:pool:postgresql://db:5432/customers
+    @Bean
+    @Override
+    public ConnectionFactory connectionFactory() {
+        return ConnectionFactoryBuilder.withUrl(properties.getUrl())
+                .username(properties.getUsername())
+                .password(properties.getPassword())
+                .build();
+    }
+
+    // Boot backs off its own pool once a ConnectionFactory exists. Flyway and the JPA beans shared with the servlet
+    // stack still need one, built the way Boot builds it.
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    // Netty rather than Tomcat, which Boot prefers when both are on the classpath
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public TransactionalOperator transactionalOperator(ConnectionFactory connectionFactory) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+}
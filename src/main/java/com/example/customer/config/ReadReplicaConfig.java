@@ -0,0 +1,93 @@
+package com.example.customer.config;
+
+import com.example.customer.datasource.ReadYourWritesFilter;
+import com.example.customer.datasource.ReplicaLagMonitor;
+import com.example.customer.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+// Active once customer.read-replica.url is set. Writes and anything outside a transaction use the primary pool
+// (spring.datasource.*), read-only transactions are served by the replica pool.
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "customer.read-replica", name = "url")
+public class ReadReplicaConfig {
+
+    // Built the way Boot builds its own pool, which backs off once this configuration declares a DataSource
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    // Same timeouts as the primary pool, only the connection settings and size differ
+    @Bean
+    public HikariDataSource replicaDataSource(ReadReplicaProperties properties,
+                                              @Qualifier("primaryDataSource") HikariDataSource primary) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setJdbcUrl(properties.url());
+        dataSource.setUsername(properties.username());
+        dataSource.setPassword(properties.password());
+        dataSource.setReadOnly(true);
+        dataSource.setMaximumPoolSize(properties.poolSize());
+        dataSource.setMinimumIdle(properties.poolSize());
+        dataSource.setConnectionTimeout(primary.getConnectionTimeout());
+        dataSource.setMaxLifetime(primary.getMaxLifetime());
+        dataSource.setKeepaliveTime(primary.getKeepaliveTime());
+        // Started even if the replica is down, the lag monitor keeps reads on the primary until it answers
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaLagMonitor replicaLagMonitor(ReadReplicaProperties properties,
+                                               @Qualifier("primaryDataSource") HikariDataSource primary,
+                                               @Qualifier("replicaDataSource") HikariDataSource replica,
+                                               MeterRegistry meterRegistry) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(primary, replica, properties.maxLag());
+        Gauge.builder("customer.replica.lag", monitor, ReplicaLagMonitor::lagSeconds)
+                .description("Seconds the read replica trails the primary, NaN while it is unreachable")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        return monitor.start(properties.lagCheckInterval());
+    }
+
+    // JPA transactions fetch their connection at begin, before the read-only flag is known. The lazy proxy defers
+    // that to the first statement and then takes read-only transactions to the routing source.
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primary,
+                                 @Qualifier("replicaDataSource") HikariDataSource replica,
+                                 ReplicaLagMonitor lagMonitor, MeterRegistry meterRegistry) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, replica, lagMonitor, meterRegistry));
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReadReplicaProperties properties) {
+        return new ReadYourWritesFilter(properties.readYourWritesWindow());
+    }
+
+    // Boot applies it to applicationTaskExecutor, which also runs the MVC async bodies of /stream and /export
+    @Bean
+    public TaskDecorator readYourWritesTaskDecorator() {
+        return ReadYourWritesFilter::propagatePin;
+    }
+}
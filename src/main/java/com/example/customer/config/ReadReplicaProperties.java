@@ -0,0 +1,18 @@
+package com.example.customer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+// Read replica behind read-only transactions, active once a url is set
+@ConfigurationProperties(prefix = "customer.read-replica")
+public record ReadReplicaProperties(
+        String url,
+        String username,
+        String password,
+        @DefaultValue("10") int poolSize,
+        @DefaultValue("1s") Duration maxLag,
+        @DefaultValue("250ms") Duration lagCheckInterval,
+        @DefaultValue("5s") Duration readYourWritesWindow) {
+}
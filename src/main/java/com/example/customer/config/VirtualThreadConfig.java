@@ -0,0 +1,46 @@
+package com.example.customer.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Active with spring.threads.virtual.enabled=true, Tomcat and the MVC async executor then run on virtual threads
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    // H2 executes every statement inside synchronized blocks, which pin the virtual thread to its carrier.
+    // Keeping the pool below the carrier count leaves carriers free for requests that never touch the
+    // database; the remaining virtual threads park in Hikari's queue, which does not pin.
+    @Bean
+    static BeanPostProcessor h2PoolCarrierCap(
+            @Value("${customer.threads.cap-h2-pool-to-carriers:true}") boolean capPoolToCarriers) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (capPoolToCarriers && bean instanceof HikariDataSource dataSource
+                        && dataSource.getJdbcUrl() != null && dataSource.getJdbcUrl().startsWith("jdbc:h2:")) {
+                    int carriers = Integer.getInteger("jdk.virtualThreadScheduler.parallelism",
+                            Runtime.getRuntime().availableProcessors());
+                    int cap = Math.max(1, carriers - 1);
+                    if (dataSource.getMaximumPoolSize() > cap) {
+                        logger.info("Capping H2 connection pool from {} to {} connections for {} virtual thread carriers",
+                                dataSource.getMaximumPoolSize(), cap, carriers);
+                        dataSource.setMaximumPoolSize(cap);
+                        if (dataSource.getMinimumIdle() > cap) {
+                            dataSource.setMinimumIdle(cap);
+                        }
+                    }
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.customer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "customer.write-behind")
+public record WriteBehindProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("commit") Ack ack,
+        @DefaultValue("10000") int queueCapacity,
+        @DefaultValue("500") int maxBatchSize,
+        @DefaultValue("2ms") Duration maxDelay) {
+
+    // When a create is acknowledged: once queued (lost if the process dies first) or once its batch committed
+    public enum Ack {
+        ENQUEUE, COMMIT
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.customer.controller;
+
+import com.example.customer.repository.entity.Customer;
+import com.example.customer.service.BatchItemResult;
+import com.example.customer.service.CustomerBatchService;
+import datadog.trace.api.Trace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/customers/batch")
+public class CustomerBatchController {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerBatchController.class);
+
+    private final CustomerBatchService batchService;
+
+    public CustomerBatchController(CustomerBatchService batchService) {
+        this.batchService = batchService;
+    }
+
+    @PostMapping
+    @Trace
+    public ResponseEntity<List<BatchItemResult>> createCustomers(@RequestBody List<Customer> customers) {
+        logger.info("Creating {} customers in bulk", customers.size());
+        return ResponseEntity.ok(batchService.saveCustomers(customers));
+    }
+
+    @PutMapping
+    @Trace
+    public ResponseEntity<List<BatchItemResult>> updateCustomers(@RequestBody List<Customer> customers) {
+        logger.info("Updating {} customers in bulk", customers.size());
+        return ResponseEntity.ok(batchService.updateCustomers(customers));
+    }
+
+    @DeleteMapping
+    @Trace
+    public ResponseEntity<List<BatchItemResult>> deleteCustomers(@RequestBody List<UUID> ids) {
+        logger.info("Deleting {} customers in bulk", ids.size());
+        return ResponseEntity.ok(batchService.deleteCustomers(ids));
+    }
+}
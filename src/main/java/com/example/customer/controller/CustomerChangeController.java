@@ -0,0 +1,68 @@
+package com.example.customer.controller;
+
+import com.example.customer.config.ChangeFeedProperties;
+import com.example.customer.config.PaginationProperties;
+import com.example.customer.exception.custom.ValidationException;
+import com.example.customer.repository.entity.CustomerChange;
+import com.example.customer.service.CustomerChangeService;
+import datadog.trace.api.Trace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Change feed for consumers that keep a copy of the customers: read from an offset, resume from X-Next-Offset
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/customers/changes")
+public class CustomerChangeController {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerChangeController.class);
+
+    public static final String NEXT_OFFSET_HEADER = "X-Next-Offset";
+
+    private final CustomerChangeService changeService;
+    private final PaginationProperties pagination;
+    private final ChangeFeedProperties properties;
+
+    public CustomerChangeController(CustomerChangeService changeService, PaginationProperties pagination,
+                                    ChangeFeedProperties properties) {
+        this.changeService = changeService;
+        this.pagination = pagination;
+        this.properties = properties;
+    }
+
+    // Waits up to wait seconds when nothing is newer than after. Without after the feed starts at the latest offset,
+    // which is where a consumer about to copy GET /api/customers starts following.
+    @GetMapping
+    @Trace
+    public CompletableFuture<ResponseEntity<List<CustomerChange>>> getChanges(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "0") int wait) {
+        logger.debug("Fetching changes after offset: {}", after);
+
+        if (after != null && after < 0) {
+            throw new ValidationException("After must not be negative");
+        }
+        if (limit != null && limit < 1) {
+            throw new ValidationException("Limit must be greater than zero");
+        }
+        if (wait < 0) {
+            throw new ValidationException("Wait must not be negative");
+        }
+        int pageSize = pagination.resolvePageSize(limit);
+        long from = after != null ? after : changeService.getLatestOffset();
+
+        return changeService.awaitChanges(from, pageSize, properties.resolveWait(wait)).thenApply(changes ->
+                ResponseEntity.ok()
+                        .header(NEXT_OFFSET_HEADER, String.valueOf(changes.isEmpty()
+                                ? from
+                                : changes.get(changes.size() - 1).getOffset()))
+                        .body(changes));
+    }
+}
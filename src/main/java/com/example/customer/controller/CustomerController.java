@@ -1,93 +1,315 @@
 package com.example.customer.controller;
 
+import com.example.customer.config.NameIndexProperties;
+import com.example.customer.config.PaginationProperties;
 import com.example.customer.exception.custom.CustomerNotFoundException;
 import com.example.customer.exception.custom.InvalidIdFormatException;
+import com.example.customer.exception.custom.PreconditionFailedException;
+import com.example.customer.exception.custom.ValidationException;
+import com.example.customer.exception.custom.VersionConflictException;
 import com.example.customer.repository.entity.Customer;
+import com.example.customer.search.NameMatch;
+import com.example.customer.service.CustomerSearch;
 import com.example.customer.service.CustomerService;
+import com.example.customer.service.WriteQueueStatus;
+import com.example.customer.utils.CustomerUtils;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import datadog.trace.api.Trace;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 
+// Under the reactive profile ReactiveCustomerController serves /api/customers instead
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/customers")
 public class CustomerController {
 
     private static final Logger logger = LoggerFactory.getLogger(CustomerController.class);
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
     private final CustomerService service;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter streamWriter;
+    private final PaginationProperties pagination;
+    private final NameIndexProperties nameIndex;
 
-    public CustomerController(CustomerService service) {
+    public CustomerController(CustomerService service, ObjectMapper objectMapper, PaginationProperties pagination,
+                              NameIndexProperties nameIndex) {
         this.service = service;
+        this.objectMapper = objectMapper;
+        // Let the generator buffer rows instead of flushing the socket after every customer
+        this.streamWriter = objectMapper.writerFor(Customer.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.pagination = pagination;
+        this.nameIndex = nameIndex;
     }
 
     @GetMapping
     @Trace
-    public List<Customer> getAllCustomers() {
-        logger.info("Fetching all customers");
-        List<Customer> customers = service.getAllCustomers();
-        return customers;
+    public ResponseEntity<List<Customer>> getAllCustomers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        logger.debug("Fetching customers page after cursor: {}", cursor);
+
+        if (limit != null && limit < 1) {
+            throw new ValidationException("Limit must be greater than zero");
+        }
+        int pageSize = pagination.resolvePageSize(limit);
+        UUID after = cursor == null ? null : parseCursor(cursor);
+
+        // Read the table version before the page, a write in between can only make the tag older, never wrong
+        String etag = CustomerUtils.toETag(service.getCustomersVersion());
+        if (CustomerUtils.matchesAnyETag(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        List<Customer> customers = service.getCustomersPage(after, pageSize);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag);
+        if (customers.size() == pageSize) {
+            // A full page means there may be more rows after the last id
+            response.header(NEXT_CURSOR_HEADER, CustomerUtils.encodeCursor(customers.get(customers.size() - 1).getId()));
+        }
+        return response.body(customers);
     }
 
-    @GetMapping("/{id}")
+    @GetMapping("/search")
+    @Trace
+    public ResponseEntity<List<Customer>> searchCustomers(
+            @RequestParam(required = false) String firstName,
+            @RequestParam(required = false) String lastName,
+            @RequestParam(required = false) String emailAddress,
+            @RequestParam(required = false) String phoneNumber,
+            @RequestParam(defaultValue = "prefix") String match,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        logger.debug("Searching customers after cursor: {}", cursor);
+
+        if (!"prefix".equals(match) && !"exact".equals(match)) {
+            throw new ValidationException("Match must be 'prefix' or 'exact'");
+        }
+        CustomerSearch search = new CustomerSearch(blankToNull(firstName), blankToNull(lastName),
+                blankToNull(emailAddress), blankToNull(phoneNumber), "prefix".equals(match));
+        if (search.isEmpty()) {
+            // Without a filter this would be a full scan, GET /api/customers pages through everything
+            throw new ValidationException("At least one of firstName, lastName, emailAddress or phoneNumber is required");
+        }
+        if (limit != null && limit < 1) {
+            throw new ValidationException("Limit must be greater than zero");
+        }
+        int pageSize = pagination.resolvePageSize(limit);
+        UUID after = cursor == null ? null : parseCursor(cursor);
+
+        List<Customer> customers = service.searchCustomers(search, after, pageSize);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (customers.size() == pageSize) {
+            response.header(NEXT_CURSOR_HEADER, CustomerUtils.encodeCursor(customers.get(customers.size() - 1).getId()));
+        }
+        return response.body(customers);
+    }
+
+    // Typo-tolerant, ranked lookup by first and last name, served from the in-memory name index
+    @GetMapping("/search/fuzzy")
     @Trace
-    public ResponseEntity<Customer> getCustomerById(@PathVariable String id) {
-        logger.info("Fetching customer with ID: {}", id);
+    public ResponseEntity<List<NameMatch>> searchCustomersByName(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+        logger.debug("Fuzzy searching customers by name");
 
-        UUID uuid = UUID.fromString(id);
-        Optional<Customer> customer = service.getCustomerById(uuid);
-        if (customer.isPresent()) {
-            logger.info("Customer found: {}", customer.get());
-            return ResponseEntity.ok(customer.get());
-        } else {
-            logger.warn("Customer with ID {} not found", id);
-            return ResponseEntity.notFound().build();
+        if (q.isBlank()) {
+            throw new ValidationException("Query must not be blank");
+        }
+        if (limit != null && limit < 1) {
+            throw new ValidationException("Limit must be greater than zero");
         }
+        return ResponseEntity.ok(service.searchCustomersByName(q, nameIndex.resolveLimit(limit)));
+    }
+
+    @GetMapping("/stream")
+    @Trace
+    public ResponseEntity<StreamingResponseBody> streamAllCustomers() {
+        logger.info("Streaming all customers");
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                service.streamAllCustomers(customer -> {
+                    try {
+                        streamWriter.writeValue(generator, customer);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping("/{id}")
+    @Trace
+    public ResponseEntity<Customer> getCustomerById(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        logger.debug("Fetching customer with ID: {}", id);
 
+        UUID uuid = parseId(id);
+        Customer customer = service.getCustomerById(uuid)
+                .orElseThrow(() -> new CustomerNotFoundException("Customer with ID " + uuid + " not found"));
+        // Answered before the body is serialized, usually straight from the cache
+        String etag = CustomerUtils.toETag(customer.getVersion());
+        if (CustomerUtils.matchesAnyETag(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(customer);
     }
 
     @PostMapping
     @Trace
     public ResponseEntity<Customer> createCustomer(@RequestBody Customer customer) {
-        logger.info("Creating a new customer: {}", customer);
+        logger.debug("Creating a new customer");
         Customer savedCustomer = service.saveCustomer(customer);
-        logger.info("Customer created successfully with ID: {}", savedCustomer.getId());
-        return ResponseEntity.status(HttpStatus.CREATED).body(savedCustomer);
+        if (savedCustomer.getVersion() == null) {
+            // Queued by the write-behind path and not committed yet, so there is no version to tag
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .location(URI.create("/api/customers/" + savedCustomer.getId()))
+                    .body(savedCustomer);
+        }
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .eTag(CustomerUtils.toETag(savedCustomer.getVersion()))
+                .body(savedCustomer);
+    }
+
+    @GetMapping("/write-queue")
+    public WriteQueueStatus getWriteQueueStatus() {
+        return service.getWriteQueueStatus();
     }
 
     @PutMapping("/{id}")
     @Trace
     public ResponseEntity<Customer> updateCustomer(
             @PathVariable String id,
-            @RequestBody Customer customerUpdateRequest) {
-        logger.info("Updating customer with ID: {}", id);
+            @RequestBody Customer customerUpdateRequest,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        logger.debug("Updating customer with ID: {}", id);
+
+        UUID uuid = parseId(id);
+        Customer updatedCustomer = preconditioned(ifMatch, version -> {
+            if (ifMatch != null) {
+                customerUpdateRequest.setVersion(version);
+            }
+            return service.updateCustomer(uuid, customerUpdateRequest);
+        });
+        return ResponseEntity.ok().eTag(CustomerUtils.toETag(updatedCustomer.getVersion())).body(updatedCustomer);
+    }
 
-        UUID uuid = UUID.fromString(id);
-        Customer updatedCustomer = service.updateCustomer(uuid, customerUpdateRequest);
-        return ResponseEntity.ok(updatedCustomer);
+    @PatchMapping(value = "/{id}", consumes = {MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    @Trace
+    public ResponseEntity<Customer> patchCustomer(
+            @PathVariable String id,
+            @RequestBody Map<String, Object> patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        logger.debug("Patching customer with ID: {}", id);
 
+        UUID uuid = parseId(id);
+        Customer patchedCustomer = preconditioned(ifMatch, version -> {
+            Map<String, Object> effectivePatch = new HashMap<>(patch);
+            if (version != null) {
+                effectivePatch.put("version", version);
+            }
+            return service.patchCustomer(uuid, effectivePatch);
+        });
+        return ResponseEntity.ok().eTag(CustomerUtils.toETag(patchedCustomer.getVersion())).body(patchedCustomer);
     }
 
     @DeleteMapping("/{id}")
     @Trace
-    public ResponseEntity<Void> deleteCustomer(@PathVariable String id) {
-        logger.info("Deleting customer with ID: {}", id);
+    public ResponseEntity<Void> deleteCustomer(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        logger.debug("Deleting customer with ID: {}", id);
 
-        UUID uuid = UUID.fromString(id);
-        Optional<Customer> customer = service.getCustomerById(uuid);
+        // A missing customer surfaces as CustomerNotFoundException from the single DELETE
+        UUID uuid = parseId(id);
+        preconditioned(ifMatch, version -> {
+            service.deleteCustomer(uuid, version);
+            return null;
+        });
+        return ResponseEntity.noContent().build();
+    }
+
+    // The versions an If-Match list allows, or a single null (no expected version) when there is no header
+    static List<Long> parseIfMatch(String ifMatch) {
+        if (ifMatch == null) {
+            return Collections.singletonList(null);
+        }
+        try {
+            return CustomerUtils.parseETagVersions(ifMatch);
+        } catch (IllegalArgumentException ex) {
+            throw new PreconditionFailedException("If-Match does not match the current version");
+        }
+    }
+
+    // A version mismatch is a 412 when the caller asked through If-Match, a 409 when it sent the version in the body.
+    // A missing customer has no current version for any If-Match to match, * included, so that is a 412 too.
+    // Each version in an If-Match list gets its own guarded write until one matches; a mismatched write changes nothing.
+    private static <T> T preconditioned(String ifMatch, Function<Long, T> write) {
+        List<Long> versions = parseIfMatch(ifMatch);
+        for (int i = 0; ; i++) {
+            try {
+                return write.apply(versions.get(i));
+            } catch (VersionConflictException | CustomerNotFoundException ex) {
+                if (ex instanceof VersionConflictException && i + 1 < versions.size()) {
+                    continue;
+                }
+                if (ifMatch == null) {
+                    throw ex;
+                }
+                throw new PreconditionFailedException(ex.getMessage());
+            }
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
 
-        if (customer.isPresent()) {
-            service.deleteCustomer(uuid);
-            return ResponseEntity.noContent().build();
-        } else {
-            return ResponseEntity.notFound().build();
+    // Junk ids are common bot traffic: rejected as a 400 without UUID.fromString's exception
+    static UUID parseId(String id) {
+        UUID uuid = CustomerUtils.parseUuid(id);
+        if (uuid == null) {
+            throw new InvalidIdFormatException("Invalid ID format: " + id);
         }
+        return uuid;
+    }
 
+    static UUID parseCursor(String cursor) {
+        try {
+            return CustomerUtils.decodeCursor(cursor);
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Invalid cursor: {}", cursor);
+            throw new InvalidIdFormatException("Invalid cursor: " + cursor);
+        }
     }
 }
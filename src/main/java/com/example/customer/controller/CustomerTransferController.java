@@ -0,0 +1,87 @@
+package com.example.customer.controller;
+
+import com.example.customer.service.CustomerTransferService;
+import com.example.customer.service.ImportReport;
+import com.example.customer.service.TransferFormat;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import datadog.trace.api.Trace;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// Bulk NDJSON or CSV import and export for migrations and backfills, see also CustomerTransferCli
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/customers")
+public class CustomerTransferController {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerTransferController.class);
+
+    private final CustomerTransferService transferService;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter reportWriter;
+
+    public CustomerTransferController(CustomerTransferService transferService, ObjectMapper objectMapper) {
+        this.transferService = transferService;
+        this.objectMapper = objectMapper;
+        this.reportWriter = objectMapper.writerFor(ImportReport.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    // Runs on the request thread rather than as async work, a large import can outlast spring.mvc.async's timeout.
+    // Progress is written while the body is still being read, clients should read the response as they upload.
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Trace
+    public void importCustomers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                HttpServletRequest request, HttpServletResponse response) throws IOException {
+        TransferFormat format = TransferFormat.of(MediaType.parseMediaType(contentType));
+        logger.info("Importing customers as {}", format);
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            // Reports are separated by the newline below, not the default space
+            generator.setRootValueSeparator(null);
+            transferService.importCustomers(request.getInputStream(), format, report -> {
+                try {
+                    reportWriter.writeValue(generator, report);
+                    generator.writeRaw('\n');
+                    // Rejected records go out with the next progress report
+                    if (report instanceof ImportReport.Progress) {
+                        generator.flush();
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        }
+    }
+
+    @GetMapping("/export")
+    @Trace
+    public ResponseEntity<StreamingResponseBody> exportCustomers(@RequestParam(defaultValue = "ndjson") String format) {
+        TransferFormat transferFormat = TransferFormat.of(format);
+        logger.info("Exporting customers as {}", transferFormat);
+
+        StreamingResponseBody body = outputStream -> transferService.exportCustomers(outputStream, transferFormat);
+        return ResponseEntity.ok()
+                .contentType(transferFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("customers" + transferFormat.extension()).build().toString())
+                .body(body);
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.customer.controller;
+
+import com.example.customer.config.PaginationProperties;
+import com.example.customer.exception.custom.CustomerNotFoundException;
+import com.example.customer.exception.custom.PreconditionFailedException;
+import com.example.customer.exception.custom.ValidationException;
+import com.example.customer.exception.custom.VersionConflictException;
+import com.example.customer.repository.entity.Customer;
+import com.example.customer.service.ReactiveCustomerService;
+import com.example.customer.utils.CustomerUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+// CustomerController's contract on WebFlux, for the reactive profile. Search, fuzzy search, batch, the
+// write-behind queue and the change feed are servlet-only and not mapped here.
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/customers")
+public class ReactiveCustomerController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveCustomerController.class);
+
+    private final ReactiveCustomerService service;
+    private final PaginationProperties pagination;
+
+    public ReactiveCustomerController(ReactiveCustomerService service, PaginationProperties pagination) {
+        this.service = service;
+        this.pagination = pagination;
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<List<Customer>>> getAllCustomers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        logger.debug("Fetching customers page after cursor: {}", cursor);
+
+        if (limit != null && limit < 1) {
+            throw new ValidationException("Limit must be greater than zero");
+        }
+        int pageSize = pagination.resolvePageSize(limit);
+        UUID after = cursor == null ? null : CustomerController.parseCursor(cursor);
+
+        // Read the table version before the page, a write in between can only make the tag older, never wrong
+        return service.getCustomersVersion().flatMap(version -> {
+            String etag = CustomerUtils.toETag(version);
+            if (CustomerUtils.matchesAnyETag(ifNoneMatch, etag)) {
+                return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<List<Customer>>build());
+            }
+            return service.getCustomersPage(after, pageSize).map(customers -> {
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag);
+                if (customers.size() == pageSize) {
+                    response.header(CustomerController.NEXT_CURSOR_HEADER,
+                            CustomerUtils.encodeCursor(customers.get(customers.size() - 1).getId()));
+                }
+                return response.body(customers);
+            });
+        });
+    }
+
+    // A JSON array, or one customer per line or event. Rows are read as the connection drains them.
+    @GetMapping(value = "/stream",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Customer> streamAllCustomers() {
+        logger.info("Streaming all customers");
+        return service.streamAllCustomers();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Customer>> getCustomerById(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        logger.debug("Fetching customer with ID: {}", id);
+
+        UUID uuid = CustomerController.parseId(id);
+        return service.getCustomerById(uuid).map(customer -> {
+            String etag = CustomerUtils.toETag(customer.getVersion());
+            if (CustomerUtils.matchesAnyETag(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            return ResponseEntity.ok().eTag(etag).body(customer);
+        });
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Customer>> createCustomer(@RequestBody Customer customer) {
+        logger.debug("Creating a new customer");
+        return service.saveCustomer(customer).map(savedCustomer -> ResponseEntity.status(HttpStatus.CREATED)
+                .eTag(CustomerUtils.toETag(savedCustomer.getVersion()))
+                .body(savedCustomer));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Customer>> updateCustomer(
+            @PathVariable String id,
+            @RequestBody Customer customerUpdateRequest,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        logger.debug("Updating customer with ID: {}", id);
+
+        UUID uuid = CustomerController.parseId(id);
+        return preconditioned(ifMatch, version -> {
+                    if (ifMatch != null) {
+                        customerUpdateRequest.setVersion(version);
+                    }
+                    return service.updateCustomer(uuid, customerUpdateRequest);
+                })
+                .map(updatedCustomer -> ResponseEntity.ok()
+                        .eTag(CustomerUtils.toETag(updatedCustomer.getVersion()))
+                        .body(updatedCustomer));
+    }
+
+    @PatchMapping(value = "/{id}", consumes = {CustomerController.MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Mono<ResponseEntity<Customer>> patchCustomer(
+            @PathVariable String id,
+            @RequestBody Map<String, Object> patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        logger.debug("Patching customer with ID: {}", id);
+
+        UUID uuid = CustomerController.parseId(id);
+        return preconditioned(ifMatch, version -> {
+                    Map<String, Object> effectivePatch = new HashMap<>(patch);
+                    if (version != null) {
+                        effectivePatch.put("version", version);
+                    }
+                    return service.patchCustomer(uuid, effectivePatch);
+                })
+                .map(patchedCustomer -> ResponseEntity.ok()
+                        .eTag(CustomerUtils.toETag(patchedCustomer.getVersion()))
+                        .body(patchedCustomer));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteCustomer(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        logger.debug("Deleting customer with ID: {}", id);
+
+        UUID uuid = CustomerController.parseId(id);
+        return preconditioned(ifMatch, version -> service.deleteCustomer(uuid, version))
+                .then(Mono.just(ResponseEntity.noContent().build()));
+    }
+
+    // A version mismatch is a 412 when the caller asked through If-Match, a 409 when it sent the version in the body.
+    // A missing customer has no current version for any If-Match to match, * included, so that is a 412 too.
+    // Each version in an If-Match list gets its own guarded write until one matches; a mismatched write changes nothing.
+    private static <T> Mono<T> preconditioned(String ifMatch, Function<Long, Mono<T>> write) {
+        List<Long> versions = CustomerController.parseIfMatch(ifMatch);
+        Mono<T> attempt = Mono.defer(() -> write.apply(versions.get(versions.size() - 1)));
+        for (int i = versions.size() - 2; i >= 0; i--) {
+            Long version = versions.get(i);
+            Mono<T> next = attempt;
+            attempt = Mono.defer(() -> write.apply(version)).onErrorResume(VersionConflictException.class, ex -> next);
+        }
+        if (ifMatch == null) {
+            return attempt;
+        }
+        return attempt.onErrorMap(ex -> ex instanceof VersionConflictException || ex instanceof CustomerNotFoundException,
+                ex -> new PreconditionFailedException(ex.getMessage()));
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.customer.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+// Pins a client's reads to the primary for a window after its last write, so it sees its own changes even while
+// the replica catches up. The client session is a cookie stamped with the time of the last write. The window only
+// has to cover the write itself plus the replica's maximum lag: after that the replica either has the write or is
+// too far behind to be used at all.
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    static final String COOKIE = "customer-last-write";
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private final Duration window;
+
+    public ReadYourWritesFilter(Duration window) {
+        this.window = window;
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PINNED.get() != null;
+    }
+
+    // Async work started by a pinned request stays pinned: StreamingResponseBody and Callable results are submitted
+    // from the request thread but read the database on an executor thread. Registered as the executor's TaskDecorator.
+    public static Runnable propagatePin(Runnable task) {
+        if (!isPinnedToPrimary()) {
+            return task;
+        }
+        return () -> {
+            PINNED.set(Boolean.TRUE);
+            try {
+                task.run();
+            } finally {
+                PINNED.remove();
+            }
+        };
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        boolean pinned = wroteWithinWindow(request, now);
+        if (isWrite(request.getMethod())) {
+            // Stamped before the write runs, the response is not committed yet
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE, Long.toString(now))
+                    .path("/")
+                    .maxAge(window)
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build()
+                    .toString());
+            pinned = true;
+        }
+        if (!pinned) {
+            chain.doFilter(request, response);
+            return;
+        }
+        PINNED.set(Boolean.TRUE);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            PINNED.remove();
+        }
+    }
+
+    // Checked here as well as through Max-Age, for clients that keep cookies past their expiry
+    private boolean wroteWithinWindow(HttpServletRequest request, long now) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return now - Long.parseLong(cookie.getValue()) < window.toMillis();
+                } catch (NumberFormatException ex) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isWrite(String method) {
+        return switch (method) {
+            case "POST", "PUT", "PATCH", "DELETE" -> true;
+            default -> false;
+        };
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.customer.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+// Estimates how far the replica trails the primary from the count of committed changes, which every committed write
+// raises by one. Each check samples the primary's count, then finds the newest sample the replica has reached: the
+// replica holds every write committed before that sample was taken. Works the same for any database that
+// replicates the change feed tables, without vendor-specific replay positions.
+public class ReplicaLagMonitor implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private static final String VERSION_QUERY = """
+            select t.version + (select count(*) from customer_change c where c.change_offset is null)
+            from table_version t where t.name = 'customer_change_offset'""";
+    // A replica this far behind is unusable long before the oldest samples matter
+    private static final int MAX_SAMPLES = 1_000;
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long maxLagNanos;
+    // {sampledAt, version} of primary versions the replica has not reached yet, only touched by the checking thread
+    private final Deque<long[]> primarySamples = new ArrayDeque<>();
+    private volatile long caughtUpAt;
+    private volatile boolean caughtUpOnce;
+    private volatile boolean reachable;
+    private volatile boolean running = true;
+    private Thread checker;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, Duration maxLag) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagNanos = maxLag.toNanos();
+    }
+
+    public ReplicaLagMonitor start(Duration checkInterval) {
+        checker = Thread.ofPlatform().name("replica-lag-monitor").daemon().start(() -> {
+            while (running) {
+                check();
+                try {
+                    Thread.sleep(checkInterval);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+            }
+        });
+        return this;
+    }
+
+    // Until the first successful check the replica counts as unusable, so startup reads go to the primary
+    public boolean isUsable() {
+        return reachable && caughtUpOnce && System.nanoTime() - caughtUpAt <= maxLagNanos;
+    }
+
+    public double lagSeconds() {
+        return reachable && caughtUpOnce ? (System.nanoTime() - caughtUpAt) / 1e9 : Double.NaN;
+    }
+
+    // A failed replica connection takes it out of rotation until the next successful check
+    public void markUnreachable(SQLException ex) {
+        if (reachable) {
+            logger.warn("Read replica unreachable, reading from the primary: {}", ex.getMessage());
+        }
+        reachable = false;
+    }
+
+    void check() {
+        try {
+            long sampledAt = System.nanoTime();
+            primarySamples.addLast(new long[]{sampledAt, version(primary)});
+            if (primarySamples.size() > MAX_SAMPLES) {
+                primarySamples.removeFirst();
+            }
+            long replicaVersion = version(replica);
+            while (!primarySamples.isEmpty() && primarySamples.peekFirst()[1] <= replicaVersion) {
+                caughtUpAt = primarySamples.removeFirst()[0];
+                caughtUpOnce = true;
+            }
+            boolean wasReachable = reachable;
+            reachable = true;
+            if (!wasReachable) {
+                logger.info("Read replica reachable, {} s behind the primary", lagSeconds());
+            }
+        } catch (SQLException ex) {
+            markUnreachable(ex);
+        }
+    }
+
+    private static long version(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(VERSION_QUERY);
+             ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() ? resultSet.getLong(1) : 0;
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        if (checker != null) {
+            checker.interrupt();
+            checker.join(1_000);
+        }
+    }
+}
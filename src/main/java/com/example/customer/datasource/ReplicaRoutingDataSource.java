@@ -0,0 +1,57 @@
+package com.example.customer.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+// Source of connections for read-only transactions: the replica, unless the client is within its read-your-writes
+// window, the replica trails the primary by more than the allowed lag, or it cannot be reached
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaLagMonitor lagMonitor;
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.lagMonitor = lagMonitor;
+        this.replicaReads = readCounter(meterRegistry, "replica");
+        this.primaryReads = readCounter(meterRegistry, "primary");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!ReadYourWritesFilter.isPinnedToPrimary() && lagMonitor.isUsable()) {
+            try {
+                Connection connection = replica.getConnection();
+                replicaReads.increment();
+                return connection;
+            } catch (SQLException ex) {
+                lagMonitor.markUnreachable(ex);
+            }
+        }
+        primaryReads.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Credentials are configured per pool, use getConnection()");
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("customer.read.connections")
+                .description("Connections handed to read-only transactions, by the database that served them")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.customer.exception.base;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.http.HttpStatus;
+
+// RFC 7807 problem details. "about:blank" means the status code says it all, so the title is its reason phrase.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ApiError(String type, String title, int status, String detail, String instance) {
+
+    public static final String ABOUT_BLANK = "about:blank";
+
+    public static ApiError of(HttpStatus status, String detail, String instance) {
+        return new ApiError(ABOUT_BLANK, status.getReasonPhrase(), status.value(), detail, instance);
+    }
+}
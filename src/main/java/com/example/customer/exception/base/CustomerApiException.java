@@ -0,0 +1,23 @@
+package com.example.customer.exception.base;
+
+import org.springframework.http.HttpStatus;
+
+// Base for errors the API answers with a problem response. These are expected outcomes, so by default they skip
+// filling in the stack trace, which dominates the cost of throwing; suppression is never used either.
+public abstract class CustomerApiException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    protected CustomerApiException(HttpStatus status, String message) {
+        this(status, message, false);
+    }
+
+    protected CustomerApiException(HttpStatus status, String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
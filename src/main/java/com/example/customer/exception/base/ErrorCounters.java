@@ -0,0 +1,30 @@
+package com.example.customer.exception.base;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// One counter per handled exception type and response status, exposed as customer_api_errors_total.
+// Framework exceptions such as ResponseStatusException carry different statuses, so both key the registered counter.
+class ErrorCounters {
+    private final MeterRegistry meterRegistry;
+    private final Map<Key, Counter> counters = new ConcurrentHashMap<>();
+
+    ErrorCounters(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    void increment(Exception ex, HttpStatus status) {
+        counters.computeIfAbsent(new Key(ex.getClass(), status), key -> Counter.builder("customer.api.errors")
+                        .tag("exception", key.type().getSimpleName())
+                        .tag("status", String.valueOf(key.status().value()))
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private record Key(Class<?> type, HttpStatus status) {
+    }
+}
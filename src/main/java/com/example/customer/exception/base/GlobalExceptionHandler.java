@@ -1,75 +1,105 @@
 package com.example.customer.exception.base;
 
 
-import com.example.customer.exception.custom.*;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.ConversionNotSupportedException;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.validation.BindException;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.ErrorResponseException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
-import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
-
 @RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class GlobalExceptionHandler {
+    private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
-    @ExceptionHandler(CustomerNotFoundException.class)
-    public ResponseEntity<Map<String, Object>> handleCustomerNotFoundException(CustomerNotFoundException ex) {
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("timestamp", LocalDateTime.now());
-        errorResponse.put("message", ex.getMessage());
-        errorResponse.put("status", HttpStatus.NOT_FOUND.value());
+    // Bound to the one body type up front, so errors skip converter negotiation and serializer lookup
+    private static final ObjectWriter PROBLEM_WRITER = new ObjectMapper().writerFor(ApiError.class);
 
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
-    }
+    private final ErrorCounters errorCounters;
 
-    @ExceptionHandler(ValidationException.class)
-    public ResponseEntity<Map<String, Object>> handleValidationException(ValidationException ex) {
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("timestamp", LocalDateTime.now());
-        errorResponse.put("message", ex.getMessage());
-        errorResponse.put("status", HttpStatus.BAD_REQUEST.value());
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.errorCounters = new ErrorCounters(meterRegistry);
     }
 
-    @ExceptionHandler(DuplicateResourceException.class)
-    public ResponseEntity<Map<String, Object>> handleDuplicateResourceException(DuplicateResourceException ex) {
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("timestamp", LocalDateTime.now());
-        errorResponse.put("message", ex.getMessage());
-        errorResponse.put("status", HttpStatus.CONFLICT.value());
-        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    @ExceptionHandler(CustomerApiException.class)
+    public ResponseEntity<byte[]> handleCustomerApiException(CustomerApiException ex, HttpServletRequest request) {
+        errorCounters.increment(ex, ex.getStatus());
+        return problem(ApiError.of(ex.getStatus(), ex.getMessage(), request.getRequestURI()));
     }
 
-    @ExceptionHandler(InvalidIdFormatException.class)
-    public ResponseEntity<Map<String, Object>> handleInvalidIdFormatException(InvalidIdFormatException ex) {
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("timestamp", LocalDateTime.now());
-        errorResponse.put("message", ex.getMessage());
-        errorResponse.put("status", HttpStatus.BAD_REQUEST.value());
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    // The framework's own rejections: an unknown path or method, a missing or mistyped parameter, a body that does not
+    // parse. Junk and probing traffic ends up here, so these keep their 4xx status and are logged without a trace.
+    @ExceptionHandler({ServletException.class, ErrorResponseException.class, BindException.class,
+            TypeMismatchException.class, HttpMessageNotReadableException.class})
+    public ResponseEntity<byte[]> handleRequestException(Exception ex, HttpServletRequest request) {
+        ResponseEntity<byte[]> response = frameworkProblem(ex, request.getRequestURI());
+        if (response == null) {
+            return handleGeneralException(ex, request);
+        }
+        HttpStatus status = HttpStatus.valueOf(response.getStatusCode().value());
+        errorCounters.increment(ex, status);
+        if (status.is5xxServerError()) {
+            logger.warn("Request {} {} failed: {}", request.getMethod(), request.getRequestURI(), ex.getMessage());
+        } else {
+            logger.debug("Rejected {} {}: {}", request.getMethod(), request.getRequestURI(), ex.getMessage());
+        }
+        return response;
     }
 
-    @ExceptionHandler(DatabaseAccessException.class)
-    public ResponseEntity<Map<String, Object>> handleDatabaseAccessException(DatabaseAccessException ex) {
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("timestamp", LocalDateTime.now());
-        errorResponse.put("message", ex.getMessage());
-        errorResponse.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<byte[]> handleGeneralException(Exception ex, HttpServletRequest request) {
+        errorCounters.increment(ex, HttpStatus.INTERNAL_SERVER_ERROR);
+        logger.error("Unexpected error handling {} {}", request.getMethod(), request.getRequestURI(), ex);
+        return problem(ApiError.of(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred",
+                request.getRequestURI()));
     }
 
+    static ResponseEntity<byte[]> problem(ApiError error) {
+        return problem(error, HttpHeaders.EMPTY);
+    }
 
-    @ExceptionHandler(Exception.class)
-    public ResponseEntity<Map<String, Object>> handleGeneralException(Exception ex) {
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("timestamp", LocalDateTime.now());
-        errorResponse.put("message", "An unexpected error occurred");
-        errorResponse.put("details", ex.getMessage());
-        errorResponse.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
+    static ResponseEntity<byte[]> problem(ApiError error, HttpHeaders headers) {
+        try {
+            return ResponseEntity.status(error.status())
+                    .headers(headers)
+                    .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                    .body(PROBLEM_WRITER.writeValueAsBytes(error));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize error response", ex);
+        }
+    }
 
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+    // Status, detail and headers (Allow, Accept) the framework put on the exception; null when it is not a client
+    // error the framework describes, such as a ServletException wrapping a failure or a missing converter
+    static ResponseEntity<byte[]> frameworkProblem(Exception ex, String instance) {
+        if (ex instanceof ErrorResponse errorResponse) {
+            return problem(ApiError.of(HttpStatus.valueOf(errorResponse.getStatusCode().value()),
+                    errorResponse.getBody().getDetail(), instance), errorResponse.getHeaders());
+        }
+        if (ex instanceof TypeMismatchException mismatch && !(ex instanceof ConversionNotSupportedException)) {
+            return problem(ApiError.of(HttpStatus.BAD_REQUEST, "Invalid value for " + mismatch.getPropertyName(),
+                    instance));
+        }
+        // The parser's message names internal types, only say what was wrong
+        if (ex instanceof HttpMessageNotReadableException) {
+            return problem(ApiError.of(HttpStatus.BAD_REQUEST, "Malformed request body", instance));
+        }
+        return null;
     }
 }
-
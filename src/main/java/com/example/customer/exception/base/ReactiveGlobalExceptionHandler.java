@@ -0,0 +1,53 @@
+package com.example.customer.exception.base;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.ErrorResponseException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+// GlobalExceptionHandler for the WebFlux stack: same problem bodies, statuses and error counters
+@RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveGlobalExceptionHandler {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveGlobalExceptionHandler.class);
+
+    private final ErrorCounters errorCounters;
+
+    public ReactiveGlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.errorCounters = new ErrorCounters(meterRegistry);
+    }
+
+    @ExceptionHandler(CustomerApiException.class)
+    public ResponseEntity<byte[]> handleCustomerApiException(CustomerApiException ex, ServerHttpRequest request) {
+        errorCounters.increment(ex, ex.getStatus());
+        return GlobalExceptionHandler.problem(ApiError.of(ex.getStatus(), ex.getMessage(), request.getPath().value()));
+    }
+
+    // WebFlux reports unknown paths, bad parameters and unreadable bodies as ResponseStatusExceptions
+    @ExceptionHandler(ErrorResponseException.class)
+    public ResponseEntity<byte[]> handleRequestException(ErrorResponseException ex, ServerHttpRequest request) {
+        ResponseEntity<byte[]> response = GlobalExceptionHandler.frameworkProblem(ex, request.getPath().value());
+        HttpStatus status = HttpStatus.valueOf(response.getStatusCode().value());
+        errorCounters.increment(ex, status);
+        if (status.is5xxServerError()) {
+            logger.warn("Request {} {} failed: {}", request.getMethod(), request.getPath().value(), ex.getMessage());
+        } else {
+            logger.debug("Rejected {} {}: {}", request.getMethod(), request.getPath().value(), ex.getMessage());
+        }
+        return response;
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<byte[]> handleGeneralException(Exception ex, ServerHttpRequest request) {
+        errorCounters.increment(ex, HttpStatus.INTERNAL_SERVER_ERROR);
+        logger.error("Unexpected error handling {} {}", request.getMethod(), request.getPath().value(), ex);
+        return GlobalExceptionHandler.problem(ApiError.of(HttpStatus.INTERNAL_SERVER_ERROR,
+                "An unexpected error occurred", request.getPath().value()));
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.customer.exception.custom;
+
+import com.example.customer.exception.base.CustomerApiException;
+import org.springframework.http.HttpStatus;
+
+public class ChangesExpiredException extends CustomerApiException {
+    public ChangesExpiredException(String message) {
+        super(HttpStatus.GONE, message);
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.customer.exception.custom;
 
-public class CustomerNotFoundException extends RuntimeException {
+import com.example.customer.exception.base.CustomerApiException;
+import org.springframework.http.HttpStatus;
+
+public class CustomerNotFoundException extends CustomerApiException {
     public CustomerNotFoundException(String message) {
-        super(message);
+        super(HttpStatus.NOT_FOUND, message);
     }
 }
-
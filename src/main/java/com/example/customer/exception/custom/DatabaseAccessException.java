@@ -1,8 +1,11 @@
 package com.example.customer.exception.custom;
 
-public class DatabaseAccessException extends RuntimeException {
+import com.example.customer.exception.base.CustomerApiException;
+import org.springframework.http.HttpStatus;
+
+public class DatabaseAccessException extends CustomerApiException {
+    // A genuine failure rather than an expected outcome, so it keeps its stack trace
     public DatabaseAccessException(String message) {
-        super(message);
+        super(HttpStatus.INTERNAL_SERVER_ERROR, message, true);
     }
 }
-
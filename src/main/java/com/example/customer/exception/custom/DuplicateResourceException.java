@@ -1,8 +1,10 @@
 package com.example.customer.exception.custom;
 
-public class DuplicateResourceException extends RuntimeException {
+import com.example.customer.exception.base.CustomerApiException;
+import org.springframework.http.HttpStatus;
+
+public class DuplicateResourceException extends CustomerApiException {
     public DuplicateResourceException(String message) {
-        super(message);
+        super(HttpStatus.CONFLICT, message);
     }
 }
-
@@ -1,8 +1,10 @@
 package com.example.customer.exception.custom;
 
-public class InvalidIdFormatException extends RuntimeException {
+import com.example.customer.exception.base.CustomerApiException;
+import org.springframework.http.HttpStatus;
+
+public class InvalidIdFormatException extends CustomerApiException {
     public InvalidIdFormatException(String message) {
-        super(message);
+        super(HttpStatus.BAD_REQUEST, message);
     }
 }
-
@@ -0,0 +1,10 @@
+package com.example.customer.exception.custom;
+
+import com.example.customer.exception.base.CustomerApiException;
+import org.springframework.http.HttpStatus;
+
+public class PreconditionFailedException extends CustomerApiException {
+    public PreconditionFailedException(String message) {
+        super(HttpStatus.PRECONDITION_FAILED, message);
+    }
+}
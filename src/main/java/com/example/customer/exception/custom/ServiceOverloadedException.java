@@ -0,0 +1,10 @@
+package com.example.customer.exception.custom;
+
+import com.example.customer.exception.base.CustomerApiException;
+import org.springframework.http.HttpStatus;
+
+public class ServiceOverloadedException extends CustomerApiException {
+    public ServiceOverloadedException(String message) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, message);
+    }
+}
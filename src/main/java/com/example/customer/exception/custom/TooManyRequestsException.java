@@ -0,0 +1,10 @@
+package com.example.customer.exception.custom;
+
+import com.example.customer.exception.base.CustomerApiException;
+import org.springframework.http.HttpStatus;
+
+public class TooManyRequestsException extends CustomerApiException {
+    public TooManyRequestsException(String message) {
+        super(HttpStatus.TOO_MANY_REQUESTS, message);
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.customer.exception.custom;
 
-public class ValidationException extends RuntimeException {
+import com.example.customer.exception.base.CustomerApiException;
+import org.springframework.http.HttpStatus;
+
+public class ValidationException extends CustomerApiException {
     public ValidationException(String message) {
-        super(message);
+        super(HttpStatus.BAD_REQUEST, message);
     }
 }
-
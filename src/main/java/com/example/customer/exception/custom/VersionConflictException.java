@@ -0,0 +1,10 @@
+package com.example.customer.exception.custom;
+
+import com.example.customer.exception.base.CustomerApiException;
+import org.springframework.http.HttpStatus;
+
+public class VersionConflictException extends CustomerApiException {
+    public VersionConflictException(String message) {
+        super(HttpStatus.CONFLICT, message);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.customer.logging;
+
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+public final class LogMarkers {
+
+    // Per-request success events, rate limited per logger by SamplingTurboFilter
+    public static final Marker SAMPLED = MarkerFactory.getMarker("SAMPLED");
+
+    private LogMarkers() {
+    }
+}
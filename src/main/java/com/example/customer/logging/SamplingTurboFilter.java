@@ -0,0 +1,55 @@
+package com.example.customer.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Lets through at most eventsPerSecond events marked SAMPLED per logger and second, drops the rest
+// before a LoggingEvent is created or its message formatted. Unmarked events are left alone.
+public class SamplingTurboFilter extends TurboFilter {
+
+    private final ConcurrentMap<String, Window> windows = new ConcurrentHashMap<>();
+    private int eventsPerSecond = 10;
+
+    public void setEventsPerSecond(int eventsPerSecond) {
+        this.eventsPerSecond = eventsPerSecond;
+    }
+
+    public int getEventsPerSecond() {
+        return eventsPerSecond;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (marker == null || !marker.contains(LogMarkers.SAMPLED) || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        Window window = windows.computeIfAbsent(logger.getName(), name -> new Window());
+        return window.tryAcquire(second, eventsPerSecond) ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private static final class Window {
+        private volatile long second = Long.MIN_VALUE;
+        private final AtomicInteger count = new AtomicInteger();
+
+        boolean tryAcquire(long now, int limit) {
+            if (now != second) {
+                synchronized (this) {
+                    if (now != second) {
+                        count.set(0);
+                        second = now;
+                    }
+                }
+            }
+            return count.incrementAndGet() <= limit;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.customer.ratelimit;
+
+import com.example.customer.config.LoadSheddingProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// How many requests may be in flight at once, adjusted from their latency like Netflix's gradient limit. Every window
+// compares the average latency against a slow moving average of past windows: while it stays within tolerance times
+// that baseline the limit grows by about its square root, as queueing raises it the limit shrinks by up to half.
+// The baseline follows sustained changes, so a slower but steady backend ends up with a stable, smaller limit.
+// Admitting is a CAS on the in-flight count; samples go to striped adders and one thread at a time folds a finished
+// window, the others do not wait for it.
+public class AdaptiveConcurrencyLimit {
+    // Weight of a window in the baseline, about the last 20 windows count
+    private static final double BASELINE_WEIGHT = 0.05;
+    // Weight of a new estimate in the limit, damps the swings of single windows
+    private static final double SMOOTHING = 0.2;
+    private static final int MIN_SAMPLES = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final long windowNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final LongAdder latencySum = new LongAdder();
+    private final LongAdder samples = new LongAdder();
+    private final ReentrantLock windowLock = new ReentrantLock();
+    private volatile int limit;
+    private volatile long windowEnd;
+    // Guarded by windowLock
+    private double estimate;
+    private double baseline;
+
+    public AdaptiveConcurrencyLimit(LoadSheddingProperties properties) {
+        this.minLimit = properties.minLimit();
+        this.maxLimit = properties.maxLimit();
+        this.tolerance = properties.tolerance();
+        this.windowNanos = properties.window().toNanos();
+        this.estimate = properties.initialLimit();
+        this.limit = properties.initialLimit();
+        this.windowEnd = System.nanoTime() + windowNanos;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                if (current + 1 > peakInFlight.get()) {
+                    peakInFlight.accumulateAndGet(current + 1, Math::max);
+                }
+                return true;
+            }
+        }
+    }
+
+    // Latency is only sampled for requests that finished on the thread that admitted them
+    public void release(long latencyNanos, boolean sample) {
+        release(latencyNanos, sample, System.nanoTime());
+    }
+
+    void release(long latencyNanos, boolean sample, long now) {
+        inFlight.decrementAndGet();
+        if (sample) {
+            latencySum.add(latencyNanos);
+            samples.increment();
+        }
+        if (now - windowEnd >= 0 && windowLock.tryLock()) {
+            try {
+                if (now - windowEnd >= 0) {
+                    windowEnd = now + windowNanos;
+                    update();
+                }
+            } finally {
+                windowLock.unlock();
+            }
+        }
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private void update() {
+        long count = samples.sumThenReset();
+        long sum = latencySum.sumThenReset();
+        int peak = peakInFlight.getAndSet(inFlight.get());
+        if (count < MIN_SAMPLES) {
+            return;
+        }
+        double latency = (double) sum / count;
+        if (baseline == 0) {
+            baseline = latency;
+        }
+        // Latency back well below the baseline, as after a burst of load: let the baseline catch up faster
+        if (baseline > 2 * latency) {
+            baseline *= 0.9;
+        }
+        baseline += (latency - baseline) * BASELINE_WEIGHT;
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * baseline / latency));
+        // Do not grow a limit the load never reached, it would not have been tested
+        if (gradient == 1.0 && peak < estimate / 2) {
+            return;
+        }
+        double target = estimate * gradient + Math.sqrt(estimate);
+        estimate = Math.max(minLimit, Math.min(maxLimit, estimate * (1 - SMOOTHING) + target * SMOOTHING));
+        limit = (int) estimate;
+    }
+}
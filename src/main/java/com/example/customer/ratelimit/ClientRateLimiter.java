@@ -0,0 +1,71 @@
+package com.example.customer.ratelimit;
+
+import com.example.customer.config.RateLimitProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Token buckets per client, kept as the generic cell rate algorithm: instead of a token count and a refill time,
+// each budget is one timestamp, the moment its bucket would be full again. Taking a token is a single compare-and-set
+// on that timestamp, so clients never contend on a lock and a client's own requests only retry the CAS.
+// Clients idle for idle-timeout are forgotten, which is the same as a full bucket; max-clients bounds the memory
+// an address sweep can take, evicting the least recently seen.
+public class ClientRateLimiter {
+    public enum Budget {
+        READ, WRITE
+    }
+
+    private final long[] intervals = new long[Budget.values().length];
+    private final long[] bursts = new long[Budget.values().length];
+    private final Cache<String, AtomicLongArray> clients;
+
+    public ClientRateLimiter(RateLimitProperties properties) {
+        configure(Budget.READ, properties.reads());
+        configure(Budget.WRITE, properties.writes());
+        this.clients = Caffeine.newBuilder()
+                .maximumSize(properties.maxClients())
+                .expireAfterAccess(properties.idleTimeout())
+                .executor(Runnable::run)
+                .build();
+    }
+
+    // 0 when the request may go ahead, otherwise the nanoseconds until the client's next token
+    public long tryAcquire(String client, Budget budget) {
+        return tryAcquire(client, budget, System.nanoTime());
+    }
+
+    long tryAcquire(String client, Budget budget, long now) {
+        AtomicLongArray fullAt = clients.get(client, key -> newBuckets(now));
+        int i = budget.ordinal();
+        while (true) {
+            long current = fullAt.get(i);
+            long next = Math.max(current, now) + intervals[i];
+            long wait = next - now - bursts[i];
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(i, current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public long clients() {
+        return clients.estimatedSize();
+    }
+
+    private void configure(Budget budget, RateLimitProperties.Budget limits) {
+        intervals[budget.ordinal()] = (long) (TimeUnit.SECONDS.toNanos(1) / limits.perSecond());
+        bursts[budget.ordinal()] = intervals[budget.ordinal()] * limits.burst();
+    }
+
+    private static AtomicLongArray newBuckets(long now) {
+        AtomicLongArray fullAt = new AtomicLongArray(Budget.values().length);
+        for (int i = 0; i < fullAt.length(); i++) {
+            fullAt.set(i, now);
+        }
+        return fullAt;
+    }
+}
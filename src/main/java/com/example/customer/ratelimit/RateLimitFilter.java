@@ -0,0 +1,162 @@
+package com.example.customer.ratelimit;
+
+import com.example.customer.exception.custom.ServiceOverloadedException;
+import com.example.customer.exception.custom.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Admission in front of the API: first the client's read or write budget (429), then the replica's adaptive
+// concurrency limit (503), both with Retry-After. Rejections go through the exception handler like any other error,
+// so clients get the usual problem response. Either check is skipped when its limiter is not configured.
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final ClientRateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final String apiKeyHeader;
+    private final Set<String> apiKeys;
+    private final List<String> excludedPaths;
+    private final long retryAfterSeconds;
+    private final HandlerExceptionResolver exceptionResolver;
+    private final Counter[] allowed = new Counter[ClientRateLimiter.Budget.values().length];
+    private final Counter[] limited = new Counter[ClientRateLimiter.Budget.values().length];
+    private final Counter admitted;
+    private final Counter shed;
+
+    public RateLimitFilter(ClientRateLimiter rateLimiter, AdaptiveConcurrencyLimit concurrencyLimit,
+                           String apiKeyHeader, Set<String> apiKeys, List<String> excludedPaths, Duration retryAfter,
+                           HandlerExceptionResolver exceptionResolver, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimit = concurrencyLimit;
+        this.apiKeyHeader = apiKeyHeader;
+        this.apiKeys = apiKeys;
+        this.excludedPaths = excludedPaths;
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+        this.exceptionResolver = exceptionResolver;
+        for (ClientRateLimiter.Budget budget : ClientRateLimiter.Budget.values()) {
+            allowed[budget.ordinal()] = decisions(meterRegistry, budget, "allowed");
+            limited[budget.ordinal()] = decisions(meterRegistry, budget, "limited");
+        }
+        this.admitted = shedding(meterRegistry, "admitted");
+        this.shed = shedding(meterRegistry, "shed");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (rateLimiter != null) {
+            ClientRateLimiter.Budget budget = budgetOf(request.getMethod());
+            long wait = rateLimiter.tryAcquire(clientOf(request), budget);
+            if (wait > 0) {
+                limited[budget.ordinal()].increment();
+                logger.debug("Rate limited {} {}", request.getMethod(), request.getRequestURI());
+                reject(request, response, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1),
+                        new TooManyRequestsException("Request rate limit exceeded, retry later"));
+                return;
+            }
+            allowed[budget.ordinal()].increment();
+        }
+
+        if (concurrencyLimit == null || isExcluded(request.getRequestURI())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!concurrencyLimit.tryAcquire()) {
+            shed.increment();
+            logger.debug("Shed {} {} at {} requests in flight", request.getMethod(), request.getRequestURI(),
+                    concurrencyLimit.limit());
+            reject(request, response, retryAfterSeconds,
+                    new ServiceOverloadedException("Service is overloaded, retry later"));
+            return;
+        }
+        admitted.increment();
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            // An async request has freed its thread, its latency is the work still ahead and says nothing here
+            concurrencyLimit.release(System.nanoTime() - start, !request.isAsyncStarted());
+        }
+    }
+
+    // A known API key rather than the address, so clients behind one NAT keep apart. Unknown keys are ignored: they
+    // cost nothing to make up, and each would otherwise get a full burst and push real clients out of the map.
+    // The address is the client's own behind a trusted proxy (forward-headers-strategy), IPv6 ones by their /64, the
+    // smallest block a host is usually given.
+    private String clientOf(HttpServletRequest request) {
+        String apiKey = request.getHeader(apiKeyHeader);
+        if (apiKey != null && apiKeys.contains(apiKey)) {
+            return "key:" + apiKey;
+        }
+        String address = request.getRemoteAddr();
+        return "ip:" + (address.indexOf(':') >= 0 ? ipv6Prefix(address) : address);
+    }
+
+    private static String ipv6Prefix(String address) {
+        try {
+            byte[] bytes = InetAddress.getByName(address).getAddress();
+            if (bytes.length == 16) {
+                return HexFormat.of().formatHex(bytes, 0, 8) + "::/64";
+            }
+        } catch (UnknownHostException ex) {
+            // Not a literal, keep it as it is
+        }
+        return address;
+    }
+
+    private boolean isExcluded(String path) {
+        for (String excluded : excludedPaths) {
+            if (path.startsWith(excluded)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long retryAfterSeconds,
+                        RuntimeException ex) {
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfterSeconds)));
+        exceptionResolver.resolveException(request, response, null, ex);
+    }
+
+    private static ClientRateLimiter.Budget budgetOf(String method) {
+        return switch (method) {
+            case "GET", "HEAD", "OPTIONS" -> ClientRateLimiter.Budget.READ;
+            default -> ClientRateLimiter.Budget.WRITE;
+        };
+    }
+
+    private static Counter decisions(MeterRegistry meterRegistry, ClientRateLimiter.Budget budget, String outcome) {
+        return Counter.builder("customer.rate.limit.requests")
+                .description("Requests checked against their client's budget")
+                .tag("budget", budget.name().toLowerCase(Locale.ROOT))
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static Counter shedding(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("customer.load.shedding.requests")
+                .description("Requests checked against the adaptive concurrency limit")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.customer.repository;
+
+import com.example.customer.repository.entity.CustomerChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+// Reads and clean-up of the change feed. Rows are appended by CustomerChangeLog over JDBC.
+public interface CustomerChangeRepository extends JpaRepository<CustomerChange, Long> {
+
+    List<CustomerChange> findByOffsetGreaterThanOrderByOffsetAsc(long offset, Limit limit);
+
+    @Query("select coalesce(max(c.offset), 0) from CustomerChange c")
+    long findLatestOffset();
+
+    // Every change committed so far: the offsets handed out plus the changes still waiting for one. It grows by one
+    // with each committed write and stays put while the sequencer numbers them, so it versions the table as a whole.
+    @Query(value = """
+            select t.version + (select count(*) from customer_change c where c.change_offset is null)
+            from table_version t where t.name = 'customer_change_offset'""", nativeQuery = true)
+    Optional<Long> countCommittedChanges();
+
+    @Query("select max(c.offset) from CustomerChange c where c.changedAt < :cutoff")
+    Optional<Long> findLatestOffsetBefore(Instant cutoff);
+
+    @Modifying
+    @Query("delete from CustomerChange c where c.offset <= :offset")
+    int deleteThrough(long offset);
+
+    // Leaves the latest change of every customer, so a consumer behind the cutoff still converges on the same state
+    @Modifying
+    @Query("""
+            delete from CustomerChange c where c.changedAt < :cutoff and exists (
+                select 1 from CustomerChange later where later.customerId = c.customerId and later.offset > c.offset)""")
+    int deleteSupersededBefore(Instant cutoff);
+}
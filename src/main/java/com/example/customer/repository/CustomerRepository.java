@@ -2,12 +2,79 @@ package com.example.customer.repository;
 
 
 import com.example.customer.repository.entity.Customer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-public interface CustomerRepository extends JpaRepository<Customer, UUID> {
-    boolean existsByEmailAddress(String emailAddress);
-    boolean existsByFirstNameAndLastName(String firstName, String lastName);
-}
+public interface CustomerRepository extends JpaRepository<Customer, UUID>, JpaSpecificationExecutor<Customer>,
+        CustomerUpdateReturning {
+    // Set-based duplicate lookup for bulk writes, one query per unique column and chunk. An OR across the columns
+    // cannot use any of the unique indexes on H2 and scanned the whole table for every chunk, making bulk imports
+    // quadratic.
+    default List<Customer> findDuplicateCandidates(Collection<String> emails, Collection<String> firstNames,
+                                                   Collection<String> lastNames) {
+        List<Customer> candidates = new ArrayList<>(findByEmailAddressIn(emails));
+        candidates.addAll(findByFirstNameIn(firstNames));
+        candidates.addAll(findByLastNameIn(lastNames));
+        return candidates;
+    }
+
+    List<Customer> findByEmailAddressIn(Collection<String> emails);
+
+    List<Customer> findByFirstNameIn(Collection<String> firstNames);
+
+    List<Customer> findByLastNameIn(Collection<String> lastNames);
+
+    @Query("select c.id from Customer c where c.id in :ids")
+    List<UUID> findExistingIds(Collection<UUID> ids);
+
+    // Single-statement writes, the affected row count tells whether the row existed (with the expected version).
+    // The persistence context is cleared afterwards so no stale managed copy outlives the statement.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Customer c set c.firstName = :#{#customer.firstName}, c.middleName = :#{#customer.middleName},
+                c.lastName = :#{#customer.lastName}, c.emailAddress = :#{#customer.emailAddress},
+                c.phoneNumber = :#{#customer.phoneNumber}, c.version = c.version + 1
+            where c.id = :id and (:version is null or c.version = :version)""")
+    int updateById(UUID id, Long version, Customer customer);
 
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Customer c where c.id = :id and (:version is null or c.version = :version)")
+    int deleteByIdReturningCount(UUID id, Long version);
+
+    // Keyset pagination: first page, then every page after the last id seen
+    List<Customer> findAllByOrderByIdAsc(Limit limit);
+    List<Customer> findByIdGreaterThanOrderByIdAsc(UUID id, Limit limit);
+
+    // Forward-only cursor over the whole table, must be consumed inside a transaction
+    @Query("select c from Customer c order by c.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Customer> streamAllByOrderByIdAsc();
+
+    // Same cursor, reading only what the in-memory name index needs and without managed entities
+    @Query("select c.id as id, c.version as version, c.firstName as firstName, c.lastName as lastName from Customer c")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<NameView> streamAllNames();
+
+    interface NameView {
+        UUID getId();
+        Long getVersion();
+        String getFirstName();
+        String getLastName();
+    }
+}
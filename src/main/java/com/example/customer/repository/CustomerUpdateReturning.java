@@ -0,0 +1,13 @@
+package com.example.customer.repository;
+
+import com.example.customer.repository.entity.Customer;
+
+import java.util.Optional;
+import java.util.UUID;
+
+// Repository fragment for the unconditional PUT: one UPDATE that also returns the version it wrote
+public interface CustomerUpdateReturning {
+
+    // Empty when the customer does not exist
+    Optional<Long> updateReturningVersion(UUID id, Customer customer);
+}
@@ -0,0 +1,49 @@
+package com.example.customer.repository;
+
+import com.example.customer.repository.entity.Customer;
+import jakarta.persistence.EntityManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+// Without an expected version the new one is not known up front. Reading it back would be a second statement, so
+// the UPDATE returns it: through a data change delta table on H2, RETURNING on PostgreSQL. Runs on the JPA
+// transaction's connection, flushing and clearing the persistence context like updateById.
+class CustomerUpdateReturningImpl implements CustomerUpdateReturning {
+    private static final String SET = "update customer set first_name = ?, middle_name = ?, last_name = ?, "
+            + "email_address = ?, phone_number = ?, version = version + 1 where id = ?";
+    static final String H2 = "select version from final table (" + SET + ")";
+    static final String RETURNING = SET + " returning version";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private volatile String sql;
+
+    CustomerUpdateReturningImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Optional<Long> updateReturningVersion(UUID id, Customer customer) {
+        entityManager.flush();
+        List<Long> versions = jdbcTemplate.queryForList(sql(), Long.class, customer.getFirstName(),
+                customer.getMiddleName(), customer.getLastName(), customer.getEmailAddress(), customer.getPhoneNumber(),
+                id);
+        entityManager.clear();
+        return versions.stream().findFirst();
+    }
+
+    private String sql() {
+        String current = sql;
+        if (current == null) {
+            current = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    "H2".equals(connection.getMetaData().getDatabaseProductName()) ? H2 : RETURNING);
+            sql = current;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.customer.repository;
+
+import com.example.customer.repository.entity.Customer;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+// Non-blocking counterpart of CustomerRepository for the reactive stack, same statements in SQL instead of JPQL
+public interface ReactiveCustomerRepository extends R2dbcRepository<Customer, UUID> {
+
+    // Single-statement writes, the affected row count tells whether the row existed (with the expected version)
+    @Modifying
+    @Query("""
+            update customer set first_name = :#{#customer.firstName}, middle_name = :#{#customer.middleName},
+                last_name = :#{#customer.lastName}, email_address = :#{#customer.emailAddress},
+                phone_number = :#{#customer.phoneNumber}, version = version + 1
+            where id = :id and (:version is null or version = :version)""")
+    Mono<Integer> updateById(UUID id, Long version, Customer customer);
+
+    @Modifying
+    @Query("delete from customer where id = :id and (:version is null or version = :version)")
+    Mono<Integer> deleteByIdReturningCount(UUID id, Long version);
+
+    @Query("select version from customer where id = :id")
+    Mono<Long> findVersionById(UUID id);
+
+    // Keyset pagination: first page, then every page after the last id seen
+    Flux<Customer> findAllByOrderByIdAsc(Limit limit);
+    Flux<Customer> findByIdGreaterThanOrderByIdAsc(UUID id, Limit limit);
+
+    // Rows are fetched as the subscriber requests them, so a slow client holds back the query, not the heap
+    Flux<Customer> streamAllByOrderByIdAsc();
+
+    // CustomerChangeRepository.countCommittedChanges, the collection ETag
+    @Query("""
+            select t.version + (select count(*) from customer_change c where c.change_offset is null)
+            from table_version t where t.name = 'customer_change_offset'""")
+    Mono<Long> countCommittedChanges();
+
+    // Without an offset, the change feed's sequencer numbers it after commit
+    @Modifying
+    @Query("""
+            insert into customer_change (customer_id, change_type, customer_version, payload)
+            values (:customerId, :type, :version, :payload)""")
+    Mono<Integer> appendChange(UUID customerId, String type, Long version, String payload);
+}
@@ -0,0 +1,19 @@
+package com.example.customer.repository;
+
+import com.example.customer.repository.entity.TableVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+public interface TableVersionRepository extends JpaRepository<TableVersion, String> {
+
+    @Query("select t.version from TableVersion t where t.name = :name")
+    Optional<Long> findVersion(String name);
+
+    // For values that only move forward, like the offset the change feed has expired through
+    @Modifying
+    @Query("update TableVersion t set t.version = :version where t.name = :name and t.version < :version")
+    int raise(String name, long version);
+}
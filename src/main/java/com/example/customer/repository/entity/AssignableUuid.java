@@ -0,0 +1,15 @@
+package com.example.customer.repository.entity;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Time-ordered UUIDv7 id (TimeOrderedUuids) that keeps an id the application assigned before persisting, see AssignableUuidGenerator
+@IdGeneratorType(AssignableUuidGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface AssignableUuid {
+}
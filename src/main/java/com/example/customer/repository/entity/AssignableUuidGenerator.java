@@ -0,0 +1,31 @@
+package com.example.customer.repository.entity;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+
+import java.util.EnumSet;
+
+import static org.hibernate.generator.EventTypeSets.INSERT_ONLY;
+
+// Write-behind creates hand out the id before the row is inserted, so an id already set on a new entity is kept.
+// Entities are new while their version is null, so an assigned id never turns a persist into a merge.
+public class AssignableUuidGenerator implements BeforeExecutionGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        Object assigned = session.getEntityPersister(null, owner).getIdentifier(owner, session);
+        return assigned != null ? assigned : TimeOrderedUuids.next();
+    }
+
+    @Override
+    public boolean allowAssignedIdentifiers() {
+        return true;
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return INSERT_ONLY;
+    }
+}
@@ -1,31 +1,72 @@
 package com.example.customer.repository.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
-import org.hibernate.annotations.UuidGenerator;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.springframework.data.annotation.ReadOnlyProperty;
 
 import java.util.UUID;
 
 
 @Entity
 @Data
+// UPDATE statements list only the columns that actually changed, see PATCH /api/customers/{id}
+@DynamicUpdate
+// Only the id and version, so a logged customer never leaks names or contact details
+@ToString(onlyExplicitlyIncluded = true)
+@Table(uniqueConstraints = {
+        @UniqueConstraint(name = Customer.UK_FIRST_NAME, columnNames = "firstName"),
+        @UniqueConstraint(name = Customer.UK_LAST_NAME, columnNames = "lastName"),
+        @UniqueConstraint(name = Customer.UK_EMAIL_ADDRESS, columnNames = "emailAddress")
+}, indexes = {
+        // First name, last name and email are already covered by the unique constraints' indexes
+        @Index(name = "idx_customer_email_address_lower", columnList = "emailAddressLower"),
+        @Index(name = "idx_customer_phone_number", columnList = "phoneNumber")
+})
 public class Customer {
+    // Named so constraint violations can be mapped back to the field that clashed
+    public static final String UK_FIRST_NAME = "uk_customer_first_name";
+    public static final String UK_LAST_NAME = "uk_customer_last_name";
+    public static final String UK_EMAIL_ADDRESS = "uk_customer_email_address";
+
+    // Spring Data's @Id maps the same field for the R2DBC repository of the reactive stack. Its @Version is left
+    // off, Spring Data JPA rejects it; the reactive service guards writes on the version in SQL instead.
     @Id
-    @GeneratedValue
-    @UuidGenerator
+    @org.springframework.data.annotation.Id
+    @AssignableUuid
+    // Bound as a native 16-byte uuid (binary(16) where the database has no uuid type), never as text
+    @JdbcTypeCode(SqlTypes.UUID)
+    @ToString.Include
     private UUID id;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String firstName;
 
     private String middleName;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String lastName;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String emailAddress;
 
     private String phoneNumber;
-}
 
+    // Maintained by the database, backs the case-insensitive email search. Not populated on freshly written entities.
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ReadOnlyProperty
+    @Column(insertable = false, updatable = false,
+            columnDefinition = "varchar(255) generated always as (lower(email_address))")
+    private String emailAddressLower;
+
+    // Bumped on every committed write, also used to order cache invalidations across replicas
+    @Version
+    @ToString.Include
+    private Long version;
+}
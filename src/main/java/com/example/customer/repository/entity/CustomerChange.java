@@ -0,0 +1,54 @@
+package com.example.customer.repository.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// One committed mutation of a customer in the change feed, appended by CustomerChangeLog without an offset. The
+// sequencer numbers it once committed, which is the only update it ever gets.
+@Entity
+@Data
+@NoArgsConstructor
+public class CustomerChange {
+
+    @Id
+    @Column(name = "change_id")
+    @JsonIgnore
+    private long id;
+
+    // Null until sequenced, the feed only reads changes that have one
+    @Column(name = "change_offset")
+    private Long offset;
+
+    @JdbcTypeCode(SqlTypes.UUID)
+    @Column(nullable = false)
+    private UUID customerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false)
+    private Type type;
+
+    // The version the change produced, null for a delete
+    private Long customerVersion;
+
+    // The customer as committed, as JSON. Written out as is rather than parsed and serialized again.
+    @JsonRawValue
+    @JsonProperty("customer")
+    private String payload;
+
+    @Column(nullable = false)
+    private Instant changedAt;
+
+    // Consumers apply CREATED and UPDATED alike as upserts, compaction may drop the CREATED of an updated customer
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+}
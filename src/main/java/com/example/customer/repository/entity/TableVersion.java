@@ -0,0 +1,25 @@
+package com.example.customer.repository.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One counter per table, bumped by every committed write so collection ETags cost a single-row read
+@Entity
+@Data
+@NoArgsConstructor
+public class TableVersion {
+
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private long version;
+
+    public TableVersion(String name, long version) {
+        this.name = name;
+        this.version = version;
+    }
+}
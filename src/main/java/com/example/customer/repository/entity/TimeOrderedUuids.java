@@ -0,0 +1,37 @@
+package com.example.customer.repository.entity;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+// UUIDv7 (RFC 9562): 48-bit Unix milliseconds, then a 12-bit counter and 62 random bits. New ids sort after older
+// ones, so inserts append to the right edge of the primary key index instead of splitting pages all over it, and
+// id order is creation order. The counter keeps ids from one instance strictly increasing within a millisecond;
+// once it runs out the timestamp is borrowed from the next millisecond.
+public final class TimeOrderedUuids {
+
+    // Same source as UUID.randomUUID, ids stay unguessable
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // Last (millisecond << 12 | counter) handed out
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private TimeOrderedUuids() {
+    }
+
+    public static UUID next() {
+        long now = System.currentTimeMillis() << 12;
+        long timeAndCounter = LAST.updateAndGet(last -> Math.max(last + 1, now));
+        long mostSigBits = (timeAndCounter >>> 12) << 16 | 0x7000L | (timeAndCounter & 0xFFFL);
+        long leastSigBits = RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    // The creation time encoded in a UUIDv7, for checks and diagnostics
+    public static long timestampMillis(UUID uuid) {
+        if (uuid.version() != 7) {
+            throw new IllegalArgumentException("Not a version 7 UUID: " + uuid);
+        }
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+}
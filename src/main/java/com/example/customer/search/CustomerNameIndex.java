@@ -0,0 +1,177 @@
+package com.example.customer.search;
+
+import com.example.customer.cache.CacheInvalidation;
+import com.example.customer.cache.InvalidationTransport;
+import com.example.customer.config.NameIndexProperties;
+import com.example.customer.repository.CustomerRepository;
+import com.example.customer.repository.entity.Customer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+// Typo-tolerant name lookup served from memory. Loaded from the database once the application is ready,
+// then kept current from this replica's committed writes and from other replicas' cache invalidations.
+@Component
+public class CustomerNameIndex {
+    private static final Logger logger = LoggerFactory.getLogger(CustomerNameIndex.class);
+
+    private final NameSearchIndex index = new NameSearchIndex();
+    private final NameIndexProperties properties;
+    private final CustomerRepository repository;
+    private final TransactionTemplate readOnlyTransaction;
+    // Recently deleted ids, so neither the initial load nor a late reload brings a deleted customer back
+    private final Cache<UUID, Boolean> deleted = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .build();
+    private final ExecutorService reloads = Executors.newVirtualThreadPerTaskExecutor();
+
+    public CustomerNameIndex(NameIndexProperties properties, CustomerRepository repository,
+                             PlatformTransactionManager transactionManager, InvalidationTransport transport,
+                             MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.repository = repository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        if (properties.enabled()) {
+            transport.subscribe(this::apply);
+            Gauge.builder("customer.name.index.customers", index, NameSearchIndex::size)
+                    .description("Customers held by the in-memory name index")
+                    .register(meterRegistry);
+            Gauge.builder("customer.name.index.memory", index, NameSearchIndex::estimatedBytes)
+                    .description("Estimated heap used by the in-memory name index")
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+            Gauge.builder("customer.name.index.memory.per.customer", index, CustomerNameIndex::bytesPerCustomer)
+                    .description("Estimated heap used by the in-memory name index per customer")
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+        } else {
+            logger.info("Customer name index is disabled");
+        }
+    }
+
+    // Built off the startup path; until it finishes, searches only see customers written since startup
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (properties.enabled()) {
+            Thread.ofVirtual().name("customer-name-index-load").start(this::loadAll);
+        }
+    }
+
+    public List<NameMatch> search(String query, int limit) {
+        if (!properties.enabled()) {
+            return List.of();
+        }
+        return index.search(query, properties.minSimilarity(), limit);
+    }
+
+    public void upsertAfterCommit(Customer customer) {
+        if (properties.enabled()) {
+            // Read once committed, when the flush has bumped the version
+            afterCommit(() -> upsert(customer.getId(), customer.getVersion(), customer.getFirstName(),
+                    customer.getLastName()));
+        }
+    }
+
+    public void removeAfterCommit(UUID id) {
+        if (properties.enabled()) {
+            afterCommit(() -> remove(id));
+        }
+    }
+
+    // Another replica changed a customer: deletions apply directly, anything newer than the indexed copy is re-read
+    void apply(CacheInvalidation invalidation) {
+        UUID id = invalidation.id();
+        if (invalidation.isDeletion()) {
+            remove(id);
+        } else if (index.version(id) < invalidation.version()) {
+            reloads.execute(() -> reload(id));
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        reloads.shutdownNow();
+    }
+
+    private void loadAll() {
+        long start = System.nanoTime();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<CustomerRepository.NameView> names = repository.streamAllNames()) {
+                    names.forEach(name -> upsert(name.getId(), name.getVersion(), name.getFirstName(),
+                            name.getLastName()));
+                }
+            });
+            logger.info("Customer name index loaded {} customers in {} ms, about {} bytes per customer",
+                    index.size(), (System.nanoTime() - start) / 1_000_000, bytesPerCustomer(index));
+        } catch (Exception ex) {
+            logger.error("Failed to load the customer name index", ex);
+        }
+    }
+
+    private void reload(UUID id) {
+        try {
+            repository.findById(id).ifPresentOrElse(
+                    customer -> upsert(id, customer.getVersion(), customer.getFirstName(), customer.getLastName()),
+                    () -> remove(id));
+        } catch (Exception ex) {
+            logger.warn("Failed to refresh customer {} in the name index", id, ex);
+        }
+    }
+
+    private void upsert(UUID id, Long version, String firstName, String lastName) {
+        if (deleted.getIfPresent(id) == null) {
+            index.upsert(id, version == null ? 0 : version, firstName, lastName);
+        }
+    }
+
+    private void remove(UUID id) {
+        deleted.put(id, Boolean.TRUE);
+        index.remove(id);
+    }
+
+    private static double bytesPerCustomer(NameSearchIndex index) {
+        int size = index.size();
+        return size == 0 ? 0 : (double) index.estimatedBytes() / size;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                // Ahead of the cache's broadcast, so the loopback invalidation finds the index already current
+                @Override
+                public int getOrder() {
+                    return Ordered.HIGHEST_PRECEDENCE;
+                }
+
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
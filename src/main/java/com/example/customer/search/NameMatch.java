@@ -0,0 +1,10 @@
+package com.example.customer.search;
+
+import java.util.Comparator;
+import java.util.UUID;
+
+// One ranked hit of the fuzzy name search, score is the trigram similarity between 0 and 1
+public record NameMatch(UUID id, String firstName, String lastName, double score) {
+
+    static final Comparator<NameMatch> BY_SCORE = Comparator.comparingDouble(NameMatch::score);
+}
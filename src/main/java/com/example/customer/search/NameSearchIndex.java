@@ -0,0 +1,422 @@
+package com.example.customer.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Trigram inverted index over customer names, ranked like pg_trgm similarity: shared / (query + name - shared).
+// Documents are numbered densely and in insertion order, so every posting list is a sorted int[] without boxing.
+// Updates and deletes only tombstone the old document; the index is compacted once tombstones outnumber live ones.
+public class NameSearchIndex {
+
+    // Longer queries are truncated, which also keeps per-document match counts within a byte
+    static final int MAX_QUERY_LENGTH = 64;
+    private static final int MIN_COMPACTION_TOMBSTONES = 1024;
+    private static final int SEED_LIMIT = 256;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<UUID, Integer> documents = new HashMap<>();
+    // Match counters reused across searches, one per concurrently running query
+    private final ConcurrentLinkedQueue<byte[]> scoreboards = new ConcurrentLinkedQueue<>();
+
+    private UUID[] ids = new UUID[1024];
+    private long[] versions = new long[1024];
+    private String[] firstNames = new String[1024];
+    private String[] lastNames = new String[1024];
+    private int[] trigramCounts = new int[1024];
+    private final BitSet live = new BitSet();
+    private int documentCount;
+    private int liveCount;
+    // Heap held by the live documents' ids and names, kept as they come and go
+    private long documentBytes;
+
+    // Indexes or re-indexes a customer, an older version than the one indexed is ignored
+    public void upsert(UUID id, long version, String firstName, String lastName) {
+        long[] trigrams = trigrams(firstName + ' ' + lastName, Integer.MAX_VALUE);
+        lock.writeLock().lock();
+        try {
+            Integer existing = documents.get(id);
+            if (existing != null) {
+                if (versions[existing] >= version) {
+                    return;
+                }
+                if (firstName.equals(firstNames[existing]) && lastName.equals(lastNames[existing])) {
+                    // Only other fields changed, the postings stay valid
+                    versions[existing] = version;
+                    return;
+                }
+                tombstone(existing);
+            }
+            int document = append(id, version, firstName, lastName, trigrams.length);
+            for (long trigram : trigrams) {
+                postings.computeIfAbsent(trigram, key -> new Postings()).add(document);
+            }
+            documents.put(id, document);
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = documents.remove(id);
+            if (existing != null) {
+                tombstone(existing);
+                compactIfSparse();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Version of the indexed copy, -1 when the customer is not indexed
+    public long version(UUID id) {
+        lock.readLock().lock();
+        try {
+            Integer document = documents.get(id);
+            return document == null ? -1 : versions[document];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<NameMatch> search(String query, double minSimilarity, int limit) {
+        long[] queryTrigrams = trigrams(query, MAX_QUERY_LENGTH);
+        if (queryTrigrams.length == 0 || limit < 1) {
+            return List.of();
+        }
+        int queryCount = queryTrigrams.length;
+
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>(queryCount);
+            for (long trigram : queryTrigrams) {
+                Postings list = postings.get(trigram);
+                if (list != null) {
+                    lists.add(list);
+                }
+            }
+            lists.sort((a, b) -> Integer.compare(a.size, b.size));
+
+            // A name sharing c trigrams scores at most c / query, so the k-th best score found among the names in
+            // both shortest lists tells how many trigrams any name still has to share to make the results
+            double threshold = Math.max(minSimilarity, seedThreshold(lists, queryCount, limit));
+            int required = Math.max(1, (int) Math.ceil(threshold * queryCount - 1e-9));
+            if (lists.size() < required) {
+                return List.of();
+            }
+
+            byte[] counts = borrowScoreboard();
+            int[] touched = new int[64];
+            int touchedCount = 0;
+            try {
+                // Every qualifying name occurs in at least one of the shortest (lists - required + 1) lists
+                int candidateLists = lists.size() - required + 1;
+                for (int i = 0; i < candidateLists; i++) {
+                    Postings list = lists.get(i);
+                    int[] docs = list.docs;
+                    for (int p = 0; p < list.size; p++) {
+                        int document = docs[p];
+                        if (counts[document] == 0) {
+                            if (touchedCount == touched.length) {
+                                touched = Arrays.copyOf(touched, touchedCount * 2);
+                            }
+                            touched[touchedCount++] = document;
+                        }
+                        counts[document]++;
+                    }
+                }
+
+                // The longer lists only add to those candidates. Candidates that can no longer reach the required
+                // count are dropped before each list, which is then scanned or probed, whichever touches less.
+                int[] candidates = Arrays.copyOf(touched, touchedCount);
+                int candidateCount = touchedCount;
+                for (int i = candidateLists; i < lists.size() && candidateCount > 0; i++) {
+                    int remaining = lists.size() - i;
+                    int kept = 0;
+                    for (int c = 0; c < candidateCount; c++) {
+                        int document = candidates[c];
+                        if ((counts[document] & 0xFF) + remaining >= required) {
+                            candidates[kept++] = document;
+                        } else {
+                            counts[document] = 0;
+                        }
+                    }
+                    candidateCount = kept;
+
+                    Postings list = lists.get(i);
+                    if ((long) candidateCount * (32 - Integer.numberOfLeadingZeros(list.size)) < list.size) {
+                        for (int c = 0; c < candidateCount; c++) {
+                            if (list.contains(candidates[c])) {
+                                counts[candidates[c]]++;
+                            }
+                        }
+                    } else {
+                        int[] docs = list.docs;
+                        for (int p = 0; p < list.size; p++) {
+                            if (counts[docs[p]] != 0) {
+                                counts[docs[p]]++;
+                            }
+                        }
+                    }
+                }
+
+                PriorityQueue<NameMatch> top = new PriorityQueue<>(limit + 1, NameMatch.BY_SCORE);
+                for (int c = 0; c < candidateCount; c++) {
+                    int document = candidates[c];
+                    int shared = counts[document] & 0xFF;
+                    if (shared < required || !live.get(document)) {
+                        continue;
+                    }
+                    double score = similarity(queryCount, document, shared);
+                    if (score >= minSimilarity && (top.size() < limit || score > top.peek().score())) {
+                        top.add(new NameMatch(ids[document], firstNames[document], lastNames[document], score));
+                        if (top.size() > limit) {
+                            top.poll();
+                        }
+                    }
+                }
+                List<NameMatch> matches = new ArrayList<>(top);
+                matches.sort(NameMatch.BY_SCORE.reversed());
+                return matches;
+            } finally {
+                for (int i = 0; i < touchedCount; i++) {
+                    counts[touched[i]] = 0;
+                }
+                scoreboards.offer(counts);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Exact scores of up to SEED_LIMIT names found in both of the shortest lists, 0 unless that yields a full page
+    private double seedThreshold(List<Postings> lists, int queryCount, int limit) {
+        if (lists.size() < 2) {
+            return 0;
+        }
+        PriorityQueue<Double> scores = new PriorityQueue<>(limit + 1);
+        Postings first = lists.get(0);
+        Postings second = lists.get(1);
+        int seeded = 0;
+        for (int a = 0, b = 0; a < first.size && b < second.size && seeded < SEED_LIMIT; ) {
+            int document = first.docs[a];
+            if (document < second.docs[b]) {
+                a++;
+            } else if (document > second.docs[b]) {
+                b++;
+            } else {
+                a++;
+                b++;
+                if (!live.get(document)) {
+                    continue;
+                }
+                seeded++;
+                int shared = 2;
+                for (int i = 2; i < lists.size(); i++) {
+                    if (lists.get(i).contains(document)) {
+                        shared++;
+                    }
+                }
+                scores.add(similarity(queryCount, document, shared));
+                if (scores.size() > limit) {
+                    scores.poll();
+                }
+            }
+        }
+        return scores.size() == limit ? scores.peek() : 0;
+    }
+
+    private double similarity(int queryCount, int document, int shared) {
+        return (double) shared / (queryCount + trigramCounts[document] - shared);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Rough heap footprint of the index, assuming compressed oops
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (Postings list : postings.values()) {
+                // HashMap entry, boxed key, Postings object and its int[]
+                bytes += 32 + 16 + 24 + 16 + 4L * list.docs.length;
+            }
+            // Document arrays sized by capacity, the live bit set and the lazily grown scoreboards
+            bytes += (long) ids.length * (4 + 8 + 4 + 4 + 4) + ids.length / 8;
+            for (byte[] counts : scoreboards) {
+                bytes += 16 + counts.length;
+            }
+            return bytes + documentBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int append(UUID id, long version, String firstName, String lastName, int trigramCount) {
+        if (documentCount == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+            firstNames = Arrays.copyOf(firstNames, capacity);
+            lastNames = Arrays.copyOf(lastNames, capacity);
+            trigramCounts = Arrays.copyOf(trigramCounts, capacity);
+        }
+        int document = documentCount++;
+        ids[document] = id;
+        versions[document] = version;
+        firstNames[document] = firstName;
+        lastNames[document] = lastName;
+        trigramCounts[document] = trigramCount;
+        live.set(document);
+        liveCount++;
+        documentBytes += documentBytes(firstName, lastName);
+        return document;
+    }
+
+    private void tombstone(int document) {
+        live.clear(document);
+        liveCount--;
+        documentBytes -= documentBytes(firstNames[document], lastNames[document]);
+        ids[document] = null;
+        firstNames[document] = null;
+        lastNames[document] = null;
+    }
+
+    // Renumbers the live documents in order, so the posting lists stay sorted while dropping the tombstones
+    private void compactIfSparse() {
+        int tombstones = documentCount - liveCount;
+        if (tombstones < MIN_COMPACTION_TOMBSTONES || tombstones <= liveCount) {
+            return;
+        }
+        int[] renumbered = new int[documentCount];
+        int next = 0;
+        for (int document = 0; document < documentCount; document++) {
+            if (live.get(document)) {
+                renumbered[document] = next;
+                ids[next] = ids[document];
+                versions[next] = versions[document];
+                firstNames[next] = firstNames[document];
+                lastNames[next] = lastNames[document];
+                trigramCounts[next] = trigramCounts[document];
+                documents.put(ids[next], next);
+                next++;
+            } else {
+                renumbered[document] = -1;
+            }
+        }
+        Arrays.fill(ids, next, documentCount, null);
+        Arrays.fill(firstNames, next, documentCount, null);
+        Arrays.fill(lastNames, next, documentCount, null);
+        live.clear();
+        live.set(0, next);
+        documentCount = next;
+        postings.values().removeIf(list -> list.renumber(renumbered) == 0);
+        // Frees the scoreboards sized for the old document count
+        scoreboards.clear();
+    }
+
+    private byte[] borrowScoreboard() {
+        byte[] counts;
+        while ((counts = scoreboards.poll()) != null) {
+            if (counts.length >= documentCount) {
+                return counts;
+            }
+        }
+        return new byte[ids.length];
+    }
+
+    // Distinct trigrams of the normalized words, each padded like pg_trgm: two spaces in front, one behind
+    static long[] trigrams(String text, int maxLength) {
+        String normalized = normalize(text.length() > maxLength ? text.substring(0, maxLength) : text);
+        long[] trigrams = new long[normalized.length() * 3 + 3];
+        int count = 0;
+        for (String word : normalized.split(" ")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                long trigram = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+                trigrams[count++] = trigram;
+            }
+        }
+        return Arrays.stream(trigrams, 0, count).distinct().toArray();
+    }
+
+    // Lower case without accents, anything but letters and digits separates words
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            normalized.append(Character.isLetterOrDigit(c) ? c : ' ');
+        }
+        return normalized.toString().toLowerCase(Locale.ROOT);
+    }
+
+    // UUID, both name strings and the id map entry with its boxed document number
+    private static long documentBytes(String firstName, String lastName) {
+        return 32 + stringBytes(firstName) + stringBytes(lastName) + 32 + 16;
+    }
+
+    private static long stringBytes(String value) {
+        // Object header, hash and coder fields, then the Latin-1 or UTF-16 byte[]
+        return 24 + 16 + (long) value.length() * (value.chars().allMatch(c -> c < 256) ? 1 : 2);
+    }
+
+    // Sorted, append-only document numbers sharing one trigram
+    private static final class Postings {
+        int[] docs = new int[4];
+        int size;
+
+        void add(int document) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size + (size >> 1) + 1);
+            }
+            docs[size++] = document;
+        }
+
+        boolean contains(int document) {
+            return Arrays.binarySearch(docs, 0, size, document) >= 0;
+        }
+
+        int renumber(int[] renumbered) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int document = renumbered[docs[i]];
+                if (document >= 0) {
+                    docs[kept++] = document;
+                }
+            }
+            size = kept;
+            if (docs.length > 2 * kept + 4) {
+                docs = Arrays.copyOf(docs, kept);
+            }
+            return kept;
+        }
+    }
+}
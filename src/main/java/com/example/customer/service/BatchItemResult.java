@@ -0,0 +1,17 @@
+package com.example.customer.service;
+
+import org.springframework.http.HttpStatus;
+
+import java.util.UUID;
+
+// Outcome of one record of a bulk request, index is its position in the request body
+public record BatchItemResult(int index, UUID id, int status, String message) {
+
+    public static BatchItemResult success(int index, UUID id, HttpStatus status) {
+        return new BatchItemResult(index, id, status.value(), null);
+    }
+
+    public static BatchItemResult failure(int index, UUID id, HttpStatus status, String message) {
+        return new BatchItemResult(index, id, status.value(), message);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.customer.service;
+
+import com.example.customer.repository.entity.Customer;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface CustomerBatchService {
+    List<BatchItemResult> saveCustomers(List<Customer> customers);
+    List<BatchItemResult> importCustomers(List<Customer> customers);
+    List<BatchItemResult> updateCustomers(List<Customer> customers);
+    List<BatchItemResult> deleteCustomers(List<UUID> ids);
+}
@@ -0,0 +1,383 @@
+package com.example.customer.service;
+
+import com.example.customer.cache.CustomerCache;
+import com.example.customer.cache.CustomerKeyIndex;
+import com.example.customer.config.BatchProperties;
+import com.example.customer.exception.custom.ValidationException;
+import com.example.customer.repository.CustomerRepository;
+import com.example.customer.repository.entity.Customer;
+import com.example.customer.repository.entity.CustomerChange;
+import com.example.customer.search.CustomerNameIndex;
+import datadog.trace.api.Trace;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+@Service
+public class CustomerBatchServiceImpl implements CustomerBatchService {
+    private static final Logger logger = LoggerFactory.getLogger(CustomerBatchServiceImpl.class);
+
+    private final CustomerRepository repository;
+    private final CustomerCache cache;
+    private final CustomerKeyIndex keyIndex;
+    private final CustomerValidator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final BatchProperties properties;
+    private final CustomerNameIndex nameIndex;
+    private final CustomerChangeLog changeLog;
+
+    public CustomerBatchServiceImpl(CustomerRepository repository, CustomerCache cache, CustomerKeyIndex keyIndex,
+                                    CustomerValidator validator, PlatformTransactionManager transactionManager,
+                                    BatchProperties properties, CustomerNameIndex nameIndex,
+                                    CustomerChangeLog changeLog) {
+        this.repository = repository;
+        this.cache = cache;
+        this.keyIndex = keyIndex;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.nameIndex = nameIndex;
+        this.changeLog = changeLog;
+    }
+
+    @Override
+    @Trace
+    @Timed("customer.batch")
+    public List<BatchItemResult> saveCustomers(List<Customer> customers) {
+        checkBatchSize(customers.size());
+        return create(customers, false);
+    }
+
+    // No batch size limit: the import hands over one chunk at a time
+    @Override
+    @Trace
+    @Timed("customer.batch")
+    public List<BatchItemResult> importCustomers(List<Customer> customers) {
+        return create(customers, true);
+    }
+
+    @Override
+    @Trace
+    @Timed("customer.batch")
+    public List<BatchItemResult> updateCustomers(List<Customer> customers) {
+        checkBatchSize(customers.size());
+        BatchItemResult[] results = new BatchItemResult[customers.size()];
+        Set<UUID> batchIds = new HashSet<>();
+
+        for (int start = 0; start < customers.size(); start += properties.chunkSize()) {
+            int end = Math.min(start + properties.chunkSize(), customers.size());
+
+            Map<UUID, Integer> accepted = new LinkedHashMap<>();
+            for (int i = start; i < end; i++) {
+                Customer customer = customers.get(i);
+                String failure = customer.getId() == null ? "ID is required" : validationFailure(customer);
+                if (failure != null) {
+                    results[i] = BatchItemResult.failure(i, customer.getId(), HttpStatus.BAD_REQUEST, failure);
+                } else if (!batchIds.add(customer.getId())) {
+                    results[i] = BatchItemResult.failure(i, customer.getId(), HttpStatus.CONFLICT, "Duplicate ID in batch");
+                } else {
+                    accepted.put(customer.getId(), i);
+                }
+            }
+            if (!accepted.isEmpty()) {
+                updateChunk(customers, accepted, results);
+            }
+        }
+        logger.info("Bulk update processed {} customers", customers.size());
+        return Arrays.asList(results);
+    }
+
+    @Override
+    @Trace
+    @Timed("customer.batch")
+    public List<BatchItemResult> deleteCustomers(List<UUID> ids) {
+        checkBatchSize(ids.size());
+        BatchItemResult[] results = new BatchItemResult[ids.size()];
+        Set<UUID> batchIds = new HashSet<>();
+
+        for (int start = 0; start < ids.size(); start += properties.chunkSize()) {
+            int end = Math.min(start + properties.chunkSize(), ids.size());
+
+            Map<UUID, Integer> accepted = new LinkedHashMap<>();
+            for (int i = start; i < end; i++) {
+                UUID id = ids.get(i);
+                if (id == null) {
+                    results[i] = BatchItemResult.failure(i, null, HttpStatus.BAD_REQUEST, "ID is required");
+                } else if (!batchIds.add(id)) {
+                    results[i] = BatchItemResult.failure(i, id, HttpStatus.CONFLICT, "Duplicate ID in batch");
+                } else {
+                    accepted.put(id, i);
+                }
+            }
+            if (accepted.isEmpty()) {
+                continue;
+            }
+
+            try {
+                // One select and one delete statement per chunk
+                Set<UUID> deleted = transactionTemplate.execute(status -> {
+                    List<UUID> existing = repository.findExistingIds(accepted.keySet());
+                    repository.deleteAllByIdInBatch(existing);
+                    existing.forEach(id -> {
+                        cache.invalidateDeletedAfterCommit(id);
+                        keyIndex.removeAfterCommit(id);
+                        nameIndex.removeAfterCommit(id);
+                        changeLog.appendDeletedBeforeCommit(id);
+                    });
+                    return new HashSet<>(existing);
+                });
+                accepted.forEach((id, i) -> results[i] = deleted.contains(id)
+                        ? BatchItemResult.success(i, id, HttpStatus.NO_CONTENT)
+                        : BatchItemResult.failure(i, id, HttpStatus.NOT_FOUND, "Customer with ID " + id + " not found"));
+            } catch (Exception ex) {
+                logger.error("Error while bulk deleting {} customers", accepted.size(), ex);
+                accepted.forEach((id, i) -> results[i] = BatchItemResult.failure(i, id,
+                        HttpStatus.INTERNAL_SERVER_ERROR, "Error accessing the database."));
+            }
+        }
+        logger.info("Bulk delete processed {} customers", ids.size());
+        return Arrays.asList(results);
+    }
+
+    // Helper Methods
+
+    // Imports keep the id a record carries, so customers moved between environments keep their ids and importing the
+    // same file twice reports conflicts instead of creating copies. Every other create gets a generated id.
+    private List<BatchItemResult> create(List<Customer> customers, boolean keepIds) {
+        BatchItemResult[] results = new BatchItemResult[customers.size()];
+        Set<String> batchFirstNames = new HashSet<>();
+        Set<String> batchLastNames = new HashSet<>();
+        Set<String> batchEmails = new HashSet<>();
+        Set<UUID> batchIds = new HashSet<>();
+
+        for (int start = 0; start < customers.size(); start += properties.chunkSize()) {
+            int end = Math.min(start + properties.chunkSize(), customers.size());
+
+            // Validation and in-batch duplicates in a single pass over the chunk
+            List<Integer> accepted = new ArrayList<>();
+            for (int i = start; i < end; i++) {
+                Customer customer = customers.get(i);
+                if (!keepIds) {
+                    customer.setId(null);
+                }
+                // A null version keeps the create a persist, never a merge
+                customer.setVersion(null);
+                UUID id = customer.getId();
+                String failure = validationFailure(customer);
+                String knownConflict;
+                if (failure != null) {
+                    results[i] = BatchItemResult.failure(i, id, HttpStatus.BAD_REQUEST, failure);
+                } else if (id != null && !batchIds.add(id)) {
+                    results[i] = BatchItemResult.failure(i, id, HttpStatus.CONFLICT, "Duplicate ID in batch");
+                } else if ((knownConflict = keyIndex.findConflict(customer)) != null) {
+                    results[i] = BatchItemResult.failure(i, id, HttpStatus.CONFLICT, knownConflict);
+                } else if (batchFirstNames.contains(customer.getFirstName())
+                        || batchLastNames.contains(customer.getLastName())) {
+                    results[i] = BatchItemResult.failure(i, id, HttpStatus.CONFLICT, "Customer with the same name already exists");
+                } else if (!batchEmails.add(customer.getEmailAddress())) {
+                    results[i] = BatchItemResult.failure(i, id, HttpStatus.CONFLICT,
+                            "Customer with email " + customer.getEmailAddress() + " already exists");
+                } else {
+                    batchFirstNames.add(customer.getFirstName());
+                    batchLastNames.add(customer.getLastName());
+                    accepted.add(i);
+                }
+            }
+            if (accepted.isEmpty()) {
+                continue;
+            }
+
+            // Duplicates against the table with one lookup for the whole chunk, and one for the kept ids.
+            // Each name is unique on its own, so a clash on either one would fail the chunk's flush.
+            Set<String> existingFirstNames = new HashSet<>();
+            Set<String> existingLastNames = new HashSet<>();
+            Set<String> existingEmails = new HashSet<>();
+            repository.findDuplicateCandidates(
+                    accepted.stream().map(i -> customers.get(i).getEmailAddress()).toList(),
+                    accepted.stream().map(i -> customers.get(i).getFirstName()).toList(),
+                    accepted.stream().map(i -> customers.get(i).getLastName()).toList()
+            ).forEach(existing -> {
+                existingFirstNames.add(existing.getFirstName());
+                existingLastNames.add(existing.getLastName());
+                existingEmails.add(existing.getEmailAddress());
+            });
+            List<UUID> keptIds = accepted.stream().map(i -> customers.get(i).getId()).filter(Objects::nonNull).toList();
+            Set<UUID> existingIds = keptIds.isEmpty() ? Set.of() : new HashSet<>(repository.findExistingIds(keptIds));
+
+            List<Integer> toInsert = new ArrayList<>();
+            for (int i : accepted) {
+                Customer customer = customers.get(i);
+                UUID id = customer.getId();
+                if (id != null && existingIds.contains(id)) {
+                    results[i] = BatchItemResult.failure(i, id, HttpStatus.CONFLICT, "Customer with ID " + id + " already exists");
+                } else if (existingFirstNames.contains(customer.getFirstName())
+                        || existingLastNames.contains(customer.getLastName())) {
+                    results[i] = BatchItemResult.failure(i, id, HttpStatus.CONFLICT, "Customer with the same name already exists");
+                } else if (existingEmails.contains(customer.getEmailAddress())) {
+                    results[i] = BatchItemResult.failure(i, id, HttpStatus.CONFLICT,
+                            "Customer with email " + customer.getEmailAddress() + " already exists");
+                } else {
+                    toInsert.add(i);
+                }
+            }
+            insertChunk(customers, toInsert, results);
+        }
+        logger.info("Bulk create processed {} customers", customers.size());
+        return Arrays.asList(results);
+    }
+
+    private void insertChunk(List<Customer> customers, List<Integer> indexes, BatchItemResult[] results) {
+        if (indexes.isEmpty()) {
+            return;
+        }
+        List<Customer> chunk = indexes.stream().map(customers::get).toList();
+        // Null unless an import kept it, restored before each retry since a failed flush leaves generated ids behind
+        Map<Integer, UUID> requestedIds = new HashMap<>();
+        indexes.forEach(i -> requestedIds.put(i, customers.get(i).getId()));
+        try {
+            // Flushed as JDBC batches of hibernate.jdbc.batch_size inserts
+            transactionTemplate.executeWithoutResult(status -> {
+                repository.saveAll(chunk);
+                repository.flush();
+                chunk.forEach(customer -> changeLog.appendBeforeCommit(CustomerChange.Type.CREATED, customer));
+            });
+            for (int i : indexes) {
+                keyIndex.addAfterCommit(customers.get(i));
+                nameIndex.upsertAfterCommit(customers.get(i));
+                results[i] = BatchItemResult.success(i, customers.get(i).getId(), HttpStatus.CREATED);
+            }
+        } catch (Exception ex) {
+            // A constraint hit by one row rolled back the chunk, retry row by row to isolate it
+            logger.warn("Bulk insert of {} customers failed, retrying row by row", chunk.size(), ex);
+            for (int i : indexes) {
+                Customer customer = customers.get(i);
+                UUID requestedId = requestedIds.get(i);
+                customer.setId(requestedId);
+                customer.setVersion(null);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        repository.saveAndFlush(customer);
+                        changeLog.appendBeforeCommit(CustomerChange.Type.CREATED, customer);
+                    });
+                    keyIndex.addAfterCommit(customer);
+                    nameIndex.upsertAfterCommit(customer);
+                    results[i] = BatchItemResult.success(i, customer.getId(), HttpStatus.CREATED);
+                } catch (DataIntegrityViolationException rowEx) {
+                    customer.setId(requestedId);
+                    results[i] = BatchItemResult.failure(i, requestedId, HttpStatus.CONFLICT,
+                            CustomerServiceImpl.toDuplicateResourceException(customer, rowEx).getMessage());
+                } catch (Exception rowEx) {
+                    logger.error("Error while saving customer at index {}", i, rowEx);
+                    customer.setId(requestedId);
+                    results[i] = BatchItemResult.failure(i, requestedId, HttpStatus.INTERNAL_SERVER_ERROR, "Error accessing the database.");
+                }
+            }
+        }
+    }
+
+    private void updateChunk(List<Customer> customers, Map<UUID, Integer> indexes, BatchItemResult[] results) {
+        try {
+            // One select for the chunk, then dirty checking flushes batched updates. Each UPDATE is guarded by the
+            // version read here, so a write committed since then fails the chunk into the row by row retry below.
+            Map<UUID, HttpStatus> outcomes = transactionTemplate.execute(status -> {
+                Map<UUID, HttpStatus> found = new HashMap<>();
+                for (Customer existing : repository.findAllById(indexes.keySet())) {
+                    Customer changes = customers.get(indexes.get(existing.getId()));
+                    if (isStale(existing, changes)) {
+                        found.put(existing.getId(), HttpStatus.CONFLICT);
+                        continue;
+                    }
+                    applyChanges(existing, changes);
+                    cache.invalidateAfterCommit(existing);
+                    keyIndex.removeAfterCommit(existing.getId());
+                    nameIndex.upsertAfterCommit(existing);
+                    changeLog.appendBeforeCommit(CustomerChange.Type.UPDATED, existing);
+                    found.put(existing.getId(), HttpStatus.OK);
+                }
+                repository.flush();
+                return found;
+            });
+            indexes.forEach((id, i) -> results[i] = updateResult(i, id, customers.get(i), outcomes.get(id)));
+        } catch (Exception ex) {
+            logger.warn("Bulk update of {} customers failed, retrying row by row", indexes.size(), ex);
+            indexes.forEach((id, i) -> {
+                try {
+                    HttpStatus outcome = transactionTemplate.execute(status -> repository.findById(id).map(existing -> {
+                        if (isStale(existing, customers.get(i))) {
+                            return HttpStatus.CONFLICT;
+                        }
+                        applyChanges(existing, customers.get(i));
+                        cache.invalidateAfterCommit(existing);
+                        keyIndex.removeAfterCommit(id);
+                        nameIndex.upsertAfterCommit(existing);
+                        repository.flush();
+                        changeLog.appendBeforeCommit(CustomerChange.Type.UPDATED, existing);
+                        return HttpStatus.OK;
+                    }).orElse(null));
+                    results[i] = updateResult(i, id, customers.get(i), outcome);
+                } catch (ObjectOptimisticLockingFailureException rowEx) {
+                    results[i] = updateResult(i, id, customers.get(i), HttpStatus.CONFLICT);
+                } catch (DataIntegrityViolationException rowEx) {
+                    results[i] = BatchItemResult.failure(i, id, HttpStatus.CONFLICT,
+                            CustomerServiceImpl.toDuplicateResourceException(customers.get(i), rowEx).getMessage());
+                } catch (Exception rowEx) {
+                    logger.error("Error while updating customer with ID: {}", id, rowEx);
+                    results[i] = BatchItemResult.failure(i, id, HttpStatus.INTERNAL_SERVER_ERROR, "Error accessing the database.");
+                }
+            });
+        }
+    }
+
+    // Like a single PUT, an item carrying a version only applies to that version; one without it overwrites
+    private static boolean isStale(Customer existing, Customer changes) {
+        return changes.getVersion() != null && !changes.getVersion().equals(existing.getVersion());
+    }
+
+    // Outcome is null when the customer does not exist
+    private static BatchItemResult updateResult(int index, UUID id, Customer changes, HttpStatus outcome) {
+        if (outcome == null) {
+            return BatchItemResult.failure(index, id, HttpStatus.NOT_FOUND, "Customer with ID " + id + " not found");
+        }
+        if (outcome == HttpStatus.CONFLICT) {
+            logger.warn("Customer with ID {} was modified concurrently, expected version {}", id, changes.getVersion());
+            return BatchItemResult.failure(index, id, HttpStatus.CONFLICT, changes.getVersion() != null
+                    ? "Customer with ID " + id + " was modified, expected version " + changes.getVersion()
+                    : "Customer with ID " + id + " was modified concurrently");
+        }
+        return BatchItemResult.success(index, id, outcome);
+    }
+
+    private void applyChanges(Customer existing, Customer changes) {
+        existing.setFirstName(changes.getFirstName());
+        existing.setMiddleName(changes.getMiddleName());
+        existing.setLastName(changes.getLastName());
+        existing.setEmailAddress(changes.getEmailAddress());
+        existing.setPhoneNumber(changes.getPhoneNumber());
+    }
+
+    private String validationFailure(Customer customer) {
+        try {
+            validator.validate(customer);
+            return null;
+        } catch (ValidationException ex) {
+            return ex.getMessage();
+        }
+    }
+
+    private void checkBatchSize(int size) {
+        if (size == 0) {
+            throw new ValidationException("Batch must contain at least one item");
+        }
+        if (size > properties.maxSize()) {
+            throw new ValidationException("Batch cannot contain more than " + properties.maxSize() + " items");
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.customer.service;
+
+import com.example.customer.repository.entity.Customer;
+import com.example.customer.repository.entity.CustomerChange;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Transactional outbox behind the change feed. Changes recorded in a transaction are inserted as one JDBC batch right
+// before it commits, without an offset and without any lock shared between writers. assignOffsets numbers them once
+// they are committed, one sequencer transaction at a time under the customer_change_offset row lock, so a change that
+// commits late still gets an offset above every one a consumer has already read.
+@Component
+public class CustomerChangeLog {
+    static final String INSERT = "insert into customer_change (customer_id, change_type, customer_version, payload) "
+            + "values (?, ?, ?, ?)";
+    static final String OFFSETS = "customer_change_offset";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectWriter payloadWriter;
+    // Released by every commit that appended changes, so this replica numbers them and wakes its consumers at once
+    private final Semaphore appended = new Semaphore(0);
+
+    public CustomerChangeLog(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.payloadWriter = objectMapper.writerFor(Customer.class);
+    }
+
+    // Serialized when the transaction commits, so the payload carries the version the flush produced
+    public void appendBeforeCommit(CustomerChange.Type type, Customer customer) {
+        pending().add(new PendingChange(type, customer.getId(), customer));
+    }
+
+    public void appendDeletedBeforeCommit(UUID id) {
+        pending().add(new PendingChange(CustomerChange.Type.DELETED, id, null));
+    }
+
+    // True when a local commit appended changes within the timeout
+    public boolean awaitAppend(Duration timeout) throws InterruptedException {
+        boolean signalled = appended.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        appended.drainPermits();
+        return signalled;
+    }
+
+    // For writers that append over their own connection, like the reactive stack, once their transaction committed
+    public void signalAppended() {
+        appended.release();
+    }
+
+    // Numbers up to limit committed changes in the order they are found, must run in its own transaction. The row lock
+    // makes concurrent sequencers on other replicas wait, and each statement after it sees what they committed.
+    public int assignOffsets(int limit) {
+        Long last = jdbcTemplate.queryForObject("select version from table_version where name = ? for update",
+                Long.class, OFFSETS);
+        List<Long> pending = jdbcTemplate.queryForList("select change_id from customer_change "
+                + "where change_offset is null order by change_id fetch first ? rows only", Long.class, limit);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        long[] next = {last};
+        jdbcTemplate.batchUpdate("update customer_change set change_offset = ? where change_id = ?", pending,
+                pending.size(), (statement, changeId) -> {
+                    statement.setLong(1, ++next[0]);
+                    statement.setLong(2, changeId);
+                });
+        jdbcTemplate.update("update table_version set version = ? where name = ?", next[0], OFFSETS);
+        return pending.size();
+    }
+
+    public String payloadOf(Customer customer) {
+        try {
+            return payloadWriter.writeValueAsString(customer);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Customer " + customer.getId() + " could not be serialized", ex);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<PendingChange> pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Customer changes can only be recorded inside a transaction");
+        }
+        List<PendingChange> changes = (List<PendingChange>) TransactionSynchronizationManager.getResource(this);
+        if (changes != null) {
+            return changes;
+        }
+        List<PendingChange> newChanges = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, newChanges);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                jdbcTemplate.batchUpdate(INSERT, newChanges, newChanges.size(), (statement, change) -> {
+                    statement.setObject(1, change.customerId());
+                    statement.setString(2, change.type().name());
+                    if (change.customer() == null) {
+                        statement.setNull(3, Types.BIGINT);
+                        statement.setNull(4, Types.VARCHAR);
+                    } else {
+                        statement.setLong(3, change.customer().getVersion());
+                        statement.setString(4, payloadOf(change.customer()));
+                    }
+                });
+            }
+
+            @Override
+            public void afterCommit() {
+                appended.release();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResource(CustomerChangeLog.this);
+            }
+        });
+        return newChanges;
+    }
+
+    private record PendingChange(CustomerChange.Type type, UUID customerId, Customer customer) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.customer.service;
+
+import com.example.customer.repository.entity.CustomerChange;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public interface CustomerChangeService {
+    long getLatestOffset();
+    List<CustomerChange> getChanges(long after, int limit);
+    CompletableFuture<List<CustomerChange>> awaitChanges(long after, int limit, Duration wait);
+}
@@ -0,0 +1,222 @@
+package com.example.customer.service;
+
+import com.example.customer.config.ChangeFeedProperties;
+import com.example.customer.exception.base.CustomerApiException;
+import com.example.customer.exception.custom.ChangesExpiredException;
+import com.example.customer.exception.custom.DatabaseAccessException;
+import com.example.customer.logging.LogMarkers;
+import com.example.customer.repository.CustomerChangeRepository;
+import com.example.customer.repository.TableVersionRepository;
+import com.example.customer.repository.entity.CustomerChange;
+import datadog.trace.api.Trace;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+// Reads of the change feed, plus one background thread that numbers committed changes, answers long-polls and applies
+// retention. A waiting request holds no thread: the feed thread completes it once a commit on this replica signals new
+// changes, or at the next poll interval for commits made by other replicas. Every replica runs the sequencer, a change
+// is numbered by whichever gets to it first.
+@Service
+public class CustomerChangeServiceImpl implements CustomerChangeService {
+    private static final Logger logger = LoggerFactory.getLogger(CustomerChangeServiceImpl.class);
+
+    static final String EXPIRED_THROUGH = "customer_change_expired";
+    // Changes numbered per sequencer transaction, it runs again at once while there are more
+    static final int SEQUENCE_BATCH = 1_000;
+
+    private final CustomerChangeRepository repository;
+    private final TableVersionRepository tableVersionRepository;
+    private final CustomerChangeLog changeLog;
+    private final ChangeFeedProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTemplate;
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+    private Thread feed;
+
+    public CustomerChangeServiceImpl(CustomerChangeRepository repository, TableVersionRepository tableVersionRepository,
+                                     CustomerChangeLog changeLog, ChangeFeedProperties properties,
+                                     PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.tableVersionRepository = tableVersionRepository;
+        this.changeLog = changeLog;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        Gauge.builder("customer.changes.waiting", waiters, Queue::size)
+                .description("Change feed requests waiting for the next change")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        feed = Thread.ofPlatform().name("customer-change-feed").daemon().start(this::run);
+    }
+
+    @Override
+    @Trace
+    @Timed("customer.service")
+    public long getLatestOffset() {
+        try {
+            // Changes committed before this call are numbered up to the offset it returns, not after it
+            assignOffsets();
+            return readOnlyTemplate.execute(status -> repository.findLatestOffset());
+        } catch (Exception ex) {
+            logger.error("Error while reading the latest change offset", ex);
+            throw new DatabaseAccessException("Error accessing the database.");
+        }
+    }
+
+    @Override
+    @Trace
+    @Timed("customer.service")
+    public List<CustomerChange> getChanges(long after, int limit) {
+        List<CustomerChange> changes = readOnlyTemplate.execute(status -> read(after, limit));
+        logger.info(LogMarkers.SAMPLED, "Successfully fetched {} changes after offset {}", changes.size(), after);
+        return changes;
+    }
+
+    // Completes at once when there are changes after the offset, otherwise with the next ones or empty after wait
+    @Override
+    @Trace
+    @Timed("customer.service")
+    public CompletableFuture<List<CustomerChange>> awaitChanges(long after, int limit, Duration wait) {
+        // Registered before the first read: a commit after the read still wakes it through the feed thread
+        Waiter waiter = new Waiter(after, limit, new CompletableFuture<>());
+        waiters.add(waiter);
+        try {
+            List<CustomerChange> changes = getChanges(after, limit);
+            if (!changes.isEmpty() || wait.isZero()) {
+                waiters.remove(waiter);
+                waiter.result().complete(changes);
+                return waiter.result();
+            }
+        } catch (RuntimeException ex) {
+            waiters.remove(waiter);
+            throw ex;
+        }
+        waiter.result().completeOnTimeout(List.of(), wait.toNanos(), TimeUnit.NANOSECONDS)
+                .whenComplete((changes, ex) -> waiters.remove(waiter));
+        return waiter.result();
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        if (feed != null) {
+            feed.interrupt();
+            feed.join(1_000);
+        }
+        waiters.forEach(waiter -> waiter.result().complete(List.of()));
+    }
+
+    // Helper Methods
+
+    private List<CustomerChange> read(long after, int limit) {
+        List<CustomerChange> changes;
+        long expiredThrough;
+        try {
+            changes = repository.findByOffsetGreaterThanOrderByOffsetAsc(after, Limit.of(limit));
+            // Read after the page, so retention that committed before the page was read is always seen here
+            expiredThrough = tableVersionRepository.findVersion(EXPIRED_THROUGH).orElse(0L);
+        } catch (Exception ex) {
+            logger.error("Error while fetching changes after offset {}", after, ex);
+            throw new DatabaseAccessException("Error accessing the database.");
+        }
+        if (after < expiredThrough) {
+            logger.warn("Changes after offset {} expired, retained from offset {}", after, expiredThrough);
+            throw new ChangesExpiredException("Changes after offset " + after
+                    + " have expired, resync from GET /api/customers");
+        }
+        return changes;
+    }
+
+    private void run() {
+        long nextCleanup = System.nanoTime();
+        while (running) {
+            try {
+                changeLog.awaitAppend(properties.pollInterval());
+                assignOffsets();
+                if (!waiters.isEmpty()) {
+                    wakeWaiters();
+                }
+                if (System.nanoTime() - nextCleanup >= 0) {
+                    cleanUp();
+                    nextCleanup = System.nanoTime() + properties.cleanupInterval().toNanos();
+                }
+            } catch (InterruptedException ex) {
+                return;
+            } catch (Exception ex) {
+                logger.error("Change feed maintenance failed", ex);
+            }
+        }
+    }
+
+    private void assignOffsets() {
+        int assigned;
+        do {
+            assigned = transactionTemplate.execute(status -> changeLog.assignOffsets(SEQUENCE_BATCH));
+        } while (assigned == SEQUENCE_BATCH);
+    }
+
+    private void wakeWaiters() {
+        long latest = readOnlyTemplate.execute(status -> repository.findLatestOffset());
+        for (Waiter waiter : waiters) {
+            if (waiter.result().isDone() || waiter.after() >= latest) {
+                continue;
+            }
+            try {
+                List<CustomerChange> changes = readOnlyTemplate.execute(status -> read(waiter.after(), waiter.limit()));
+                // Empty when a lagging replica serves the read, the next poll tries again
+                if (!changes.isEmpty()) {
+                    waiter.result().complete(changes);
+                }
+            } catch (CustomerApiException ex) {
+                waiter.result().completeExceptionally(ex);
+            }
+        }
+    }
+
+    // Retention drops everything through the newest change older than the cutoff and remembers that offset, so
+    // consumers still behind it get a 410 instead of silently missing changes. Compaction only drops changes a later
+    // one of the same customer supersedes, a consumer reading past them ends up with the same customers.
+    private void cleanUp() {
+        Instant now = Instant.now();
+        int expired = transactionTemplate.execute(status -> {
+            Optional<Long> through = repository.findLatestOffsetBefore(now.minus(properties.retention()));
+            if (through.isEmpty()) {
+                return 0;
+            }
+            tableVersionRepository.raise(EXPIRED_THROUGH, through.get());
+            return repository.deleteThrough(through.get());
+        });
+        int compacted = properties.compact()
+                ? transactionTemplate.execute(status -> repository.deleteSupersededBefore(now.minus(properties.compactAfter())))
+                : 0;
+        if (expired > 0 || compacted > 0) {
+            logger.info("Change feed expired {} and compacted {} changes", expired, compacted);
+        }
+    }
+
+    private record Waiter(long after, int limit, CompletableFuture<List<CustomerChange>> result) {
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.customer.service;
+
+import com.example.customer.repository.entity.Customer;
+import com.example.customer.utils.CustomerUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+// RFC 4180 CSV of customers. Quoted fields may hold commas, doubled quotes and line breaks, an empty field is null.
+// The reader takes its columns from the header row and ignores the ones it does not know. It keeps the id, so an
+// export imported elsewhere keeps its customers' ids; the version is ignored, it starts over in the new database.
+final class CustomerCsv {
+    static final List<String> COLUMNS = List.of(
+            "id", "version", "firstName", "middleName", "lastName", "emailAddress", "phoneNumber");
+
+    // A quoted field this long almost always means an unbalanced quote swallowing the rest of the file
+    static final int MAX_FIELD_LENGTH = 65_536;
+
+    private CustomerCsv() {
+    }
+
+    static void writeHeader(Writer writer) throws IOException {
+        writer.write(String.join(",", COLUMNS));
+        writer.write("\r\n");
+    }
+
+    static void write(Writer writer, Customer customer) throws IOException {
+        writeField(writer, customer.getId() == null ? null : customer.getId().toString());
+        writer.write(',');
+        writeField(writer, customer.getVersion() == null ? null : customer.getVersion().toString());
+        writer.write(',');
+        writeField(writer, customer.getFirstName());
+        writer.write(',');
+        writeField(writer, customer.getMiddleName());
+        writer.write(',');
+        writeField(writer, customer.getLastName());
+        writer.write(',');
+        writeField(writer, customer.getEmailAddress());
+        writer.write(',');
+        writeField(writer, customer.getPhoneNumber());
+        writer.write("\r\n");
+    }
+
+    private static void writeField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+                return;
+            }
+        }
+        writer.write(value);
+    }
+
+    // One record, line is where it starts. Either the parsed customer or why the record was rejected.
+    record Row(long line, Customer customer, String error) {
+    }
+
+    static final class Reader {
+        private final java.io.Reader in;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder field = new StringBuilder();
+        private final List<BiConsumer<Customer, String>> setters = new ArrayList<>();
+        private int position;
+        private int limit;
+        private long line = 1;
+        private String error;
+        private boolean finished;
+
+        Reader(java.io.Reader in) throws IOException {
+            this.in = in;
+            List<String> header = readFields();
+            if (header == null) {
+                return;
+            }
+            for (int i = 0; i < header.size(); i++) {
+                String column = header.get(i) == null ? "" : header.get(i).strip();
+                // Byte order mark of spreadsheet exports
+                if (i == 0 && column.startsWith("\uFEFF")) {
+                    column = column.substring(1);
+                }
+                setters.add(setterOf(column));
+            }
+        }
+
+        // Null at the end of the input
+        Row next() throws IOException {
+            while (true) {
+                long start = line;
+                List<String> fields = readFields();
+                if (fields == null) {
+                    return null;
+                }
+                if (error != null) {
+                    String failure = error;
+                    error = null;
+                    return new Row(start, null, failure);
+                }
+                if (fields.size() == 1 && fields.get(0) == null) {
+                    continue;
+                }
+                if (fields.size() > setters.size()) {
+                    return new Row(start, null, "Expected at most " + setters.size() + " fields, found " + fields.size());
+                }
+                Customer customer = new Customer();
+                try {
+                    for (int i = 0; i < fields.size(); i++) {
+                        if (setters.get(i) != null && fields.get(i) != null) {
+                            setters.get(i).accept(customer, fields.get(i));
+                        }
+                    }
+                } catch (IllegalArgumentException ex) {
+                    return new Row(start, null, ex.getMessage());
+                }
+                return new Row(start, customer, null);
+            }
+        }
+
+        private static BiConsumer<Customer, String> setterOf(String column) {
+            return switch (column) {
+                case "id" -> (customer, value) -> customer.setId(parseId(value));
+                case "firstName" -> Customer::setFirstName;
+                case "middleName" -> Customer::setMiddleName;
+                case "lastName" -> Customer::setLastName;
+                case "emailAddress" -> Customer::setEmailAddress;
+                case "phoneNumber" -> Customer::setPhoneNumber;
+                default -> null;
+            };
+        }
+
+        private static UUID parseId(String value) {
+            UUID id = CustomerUtils.parseUuid(value.strip());
+            if (id == null) {
+                throw new IllegalArgumentException("Invalid ID format: " + value);
+            }
+            return id;
+        }
+
+        // The fields of the next record, null at the end of the input. Sets error instead when it is malformed.
+        private List<String> readFields() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            field.setLength(0);
+            boolean quoted = false;
+            boolean wasQuoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1 || field.length() > MAX_FIELD_LENGTH) {
+                        // Where the record really ends cannot be told any more, nothing after it is read
+                        error = c == -1 ? "Unterminated quoted field"
+                                : "Quoted field longer than " + MAX_FIELD_LENGTH + " characters, is a quote unbalanced?";
+                        finished = true;
+                        return fields;
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') {
+                            quoted = false;
+                            continue;
+                        }
+                    } else if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                } else if (c == '"' && field.isEmpty() && !wasQuoted) {
+                    quoted = true;
+                    wasQuoted = true;
+                } else if (c == ',') {
+                    fields.add(valueOf(field));
+                    field.setLength(0);
+                    wasQuoted = false;
+                } else if (c == '\n' || c == -1) {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    fields.add(valueOf(field));
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        private static String valueOf(StringBuilder field) {
+            return field.isEmpty() ? null : field.toString();
+        }
+
+        private int read() throws IOException {
+            if (finished) {
+                return -1;
+            }
+            if (position == limit) {
+                int read = in.read(buffer);
+                if (read <= 0) {
+                    finished = true;
+                    return -1;
+                }
+                position = 0;
+                limit = read;
+            }
+            return buffer[position++];
+        }
+    }
+}
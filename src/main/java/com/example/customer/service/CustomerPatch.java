@@ -0,0 +1,77 @@
+package com.example.customer.service;
+
+import com.example.customer.exception.custom.ValidationException;
+import com.example.customer.repository.entity.Customer;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+// A parsed JSON Merge Patch (RFC 7396) for a customer: absent members stay as they are, null clears a field
+final class CustomerPatch {
+
+    private record Field(Function<Customer, String> getter, BiConsumer<Customer, String> setter) {
+    }
+
+    private static final Map<String, Field> FIELDS = Map.of(
+            "firstName", new Field(Customer::getFirstName, Customer::setFirstName),
+            "middleName", new Field(Customer::getMiddleName, Customer::setMiddleName),
+            "lastName", new Field(Customer::getLastName, Customer::setLastName),
+            "emailAddress", new Field(Customer::getEmailAddress, Customer::setEmailAddress),
+            "phoneNumber", new Field(Customer::getPhoneNumber, Customer::setPhoneNumber));
+
+    private final Map<Field, String> changes;
+    private final Long expectedVersion;
+
+    private CustomerPatch(Map<Field, String> changes, Long expectedVersion) {
+        this.changes = changes;
+        this.expectedVersion = expectedVersion;
+    }
+
+    static CustomerPatch of(UUID id, Map<String, Object> patch) {
+        Map<Field, String> changes = new LinkedHashMap<>();
+        Long expectedVersion = null;
+        for (Map.Entry<String, Object> member : patch.entrySet()) {
+            String name = member.getKey();
+            Object value = member.getValue();
+            if (name.equals("id")) {
+                if (value != null && !id.toString().equals(value.toString())) {
+                    throw new ValidationException("Customer ID cannot be changed");
+                }
+            } else if (name.equals("version")) {
+                if (!(value instanceof Number number)) {
+                    throw new ValidationException("version must be a number");
+                }
+                expectedVersion = number.longValue();
+            } else {
+                Field field = FIELDS.get(name);
+                if (field == null) {
+                    throw new ValidationException("Unknown field: " + name);
+                }
+                if (value != null && !(value instanceof String)) {
+                    throw new ValidationException(name + " must be a string");
+                }
+                changes.put(field, (String) value);
+            }
+        }
+        return new CustomerPatch(changes, expectedVersion);
+    }
+
+    Long expectedVersion() {
+        return expectedVersion;
+    }
+
+    boolean changes(Customer customer) {
+        return changes.entrySet().stream()
+                .anyMatch(change -> !Objects.equals(change.getKey().getter().apply(customer), change.getValue()));
+    }
+
+    // Only calls setters for values that differ, so dirty checking sees exactly the patched columns
+    void applyTo(Customer customer) {
+        changes.forEach((field, value) -> {
+            if (!Objects.equals(field.getter().apply(customer), value)) {
+                field.setter().accept(customer, value);
+            }
+        });
+    }
+}
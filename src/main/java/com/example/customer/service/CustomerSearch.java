@@ -0,0 +1,81 @@
+package com.example.customer.service;
+
+import com.example.customer.repository.entity.Customer;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+// Filters of GET /api/customers/search. Only the given fields end up in the WHERE clause, and each of them is
+// backed by an index, so every combination is an index lookup rather than a scan.
+public record CustomerSearch(String firstName, String lastName, String emailAddress, String phoneNumber,
+                             boolean prefix) {
+
+    public boolean isEmpty() {
+        return firstName == null && lastName == null && emailAddress == null && phoneNumber == null;
+    }
+
+    Specification<Customer> toSpecification(UUID after) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            addMatch(predicates, cb, root.get("firstName"), firstName);
+            addMatch(predicates, cb, root.get("lastName"), lastName);
+            // Case-insensitive, against the lower-cased column maintained by the database
+            addMatch(predicates, cb, root.get("emailAddressLower"),
+                    emailAddress == null ? null : emailAddress.toLowerCase(Locale.ROOT));
+            addMatch(predicates, cb, root.get("phoneNumber"), phoneNumber);
+            if (after != null) {
+                predicates.add(cb.greaterThan(root.get("id"), after));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    // A prefix is matched as a half-open range rather than LIKE, so it stays an index range scan with bind parameters.
+    // The range only holds the prefixed values in code point order, which H2 uses and PostgreSQL gets from the "C"
+    // collation on the searched columns (V4 migration).
+    private void addMatch(List<Predicate> predicates, CriteriaBuilder cb, Path<String> path, String value) {
+        if (value == null) {
+            return;
+        }
+        if (prefix) {
+            predicates.add(cb.greaterThanOrEqualTo(path, value));
+            String upperBound = successor(value);
+            if (upperBound != null) {
+                predicates.add(cb.lessThan(path, upperBound));
+            }
+        } else {
+            predicates.add(cb.equal(path, value));
+        }
+    }
+
+    // The smallest value above every value with the prefix: the prefix with its last code point incremented, after
+    // dropping trailing ones that cannot be. Null when there is none, then the range is open-ended.
+    static String successor(String prefix) {
+        int end = prefix.length();
+        while (end > 0) {
+            int last = prefix.codePointBefore(end);
+            int start = end - Character.charCount(last);
+            int next = nextCodePoint(last);
+            if (next >= 0) {
+                return new StringBuilder(start + 2).append(prefix, 0, start).appendCodePoint(next).toString();
+            }
+            end = start;
+        }
+        return null;
+    }
+
+    private static int nextCodePoint(int codePoint) {
+        int next = codePoint + 1;
+        // Surrogates never stand alone in a valid string, skip past them
+        if (next >= Character.MIN_SURROGATE && next <= Character.MAX_SURROGATE) {
+            next = Character.MAX_SURROGATE + 1;
+        }
+        return next <= Character.MAX_CODE_POINT ? next : -1;
+    }
+}
@@ -1,15 +1,28 @@
 package com.example.customer.service;
 
 import com.example.customer.repository.entity.Customer;
+import com.example.customer.search.NameMatch;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface CustomerService {
-    List<Customer> getAllCustomers();
+    long getCustomersVersion();
+    List<Customer> getCustomersPage(UUID after, int limit);
+    List<Customer> searchCustomers(CustomerSearch search, UUID after, int limit);
+    List<NameMatch> searchCustomersByName(String query, int limit);
+    void streamAllCustomers(Consumer<Customer> consumer);
     Optional<Customer> getCustomerById(UUID id);
     Customer saveCustomer(Customer customer);
     Customer updateCustomer(UUID id, Customer customer);
-    void deleteCustomer(UUID id);
+    Customer patchCustomer(UUID id, Map<String, Object> patch);
+    void deleteCustomer(UUID id, Long expectedVersion);
+    WriteQueueStatus getWriteQueueStatus();
+
+    default void deleteCustomer(UUID id) {
+        deleteCustomer(id, null);
+    }
 }
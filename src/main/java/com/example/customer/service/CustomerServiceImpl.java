@@ -1,48 +1,167 @@
 package com.example.customer.service;
 
+import com.example.customer.cache.CustomerCache;
+import com.example.customer.cache.CustomerKeyIndex;
 import com.example.customer.exception.custom.*;
+import com.example.customer.logging.LogMarkers;
 import com.example.customer.repository.CustomerRepository;
 import com.example.customer.repository.entity.Customer;
+import com.example.customer.repository.entity.CustomerChange;
+import com.example.customer.search.CustomerNameIndex;
+import com.example.customer.search.NameMatch;
 import datadog.trace.api.Trace;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class CustomerServiceImpl implements CustomerService {
     private static final Logger logger = LoggerFactory.getLogger(CustomerServiceImpl.class);
 
     private final CustomerRepository repository;
+    private final EntityManager entityManager;
+    private final CustomerCache cache;
+    private final CustomerKeyIndex keyIndex;
+    private final CustomerValidator validator;
+    private final CustomerTableVersion tableVersion;
+    private final CustomerNameIndex nameIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final CustomerWriteQueue writeQueue;
+    private final CustomerChangeLog changeLog;
 
-    public CustomerServiceImpl(CustomerRepository repository) {
+    public CustomerServiceImpl(CustomerRepository repository, EntityManager entityManager, CustomerCache cache,
+                               CustomerKeyIndex keyIndex, CustomerValidator validator,
+                               CustomerTableVersion tableVersion, CustomerNameIndex nameIndex,
+                               PlatformTransactionManager transactionManager, CustomerWriteQueue writeQueue,
+                               CustomerChangeLog changeLog) {
         this.repository = repository;
+        this.entityManager = entityManager;
+        this.cache = cache;
+        this.keyIndex = keyIndex;
+        this.validator = validator;
+        this.tableVersion = tableVersion;
+        this.nameIndex = nameIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.writeQueue = writeQueue;
+        this.changeLog = changeLog;
     }
 
     @Override
+    @Transactional(readOnly = true)
     @Trace
-    public List<Customer> getAllCustomers() {
+    @Timed("customer.service")
+    public long getCustomersVersion() {
+        return tableVersion.current();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Trace
+    @Timed("customer.service")
+    public List<Customer> getCustomersPage(UUID after, int limit) {
+        try {
+            List<Customer> customers = after == null
+                    ? repository.findAllByOrderByIdAsc(Limit.of(limit))
+                    : repository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit));
+            logger.info(LogMarkers.SAMPLED, "Successfully fetched {} customers", customers.size());
+            return customers;
+        } catch (Exception ex) {
+            logger.error("Error while fetching customers page after {}", after, ex);
+            throw new DatabaseAccessException("Error accessing the database.");
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Trace
+    @Timed("customer.service")
+    public List<Customer> searchCustomers(CustomerSearch search, UUID after, int limit) {
         try {
-            List<Customer> customers = repository.findAll();
-            logger.info("Successfully fetched {} customers", customers.size());
+            // Keyset pagination like getCustomersPage, without the count query a Page would need
+            List<Customer> customers = repository.findBy(search.toSpecification(after),
+                    query -> query.sortBy(Sort.by("id")).limit(limit).all());
+            logger.info(LogMarkers.SAMPLED, "Search matched {} customers", customers.size());
             return customers;
         } catch (Exception ex) {
-            logger.error("Error while fetching all customers", ex);
+            logger.error("Error while searching customers after {}", after, ex);
+            throw new DatabaseAccessException("Error accessing the database.");
+        }
+    }
+
+    @Override
+    public WriteQueueStatus getWriteQueueStatus() {
+        return writeQueue.status();
+    }
+
+    @Override
+    @Trace
+    @Timed("customer.service")
+    public List<NameMatch> searchCustomersByName(String query, int limit) {
+        List<NameMatch> matches = nameIndex.search(query, limit);
+        logger.info(LogMarkers.SAMPLED, "Name search matched {} customers", matches.size());
+        return matches;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Trace
+    @Timed("customer.service")
+    public void streamAllCustomers(Consumer<Customer> consumer) {
+        long count = 0;
+        try (Stream<Customer> customers = repository.streamAllByOrderByIdAsc()) {
+            for (Customer customer : (Iterable<Customer>) customers::iterator) {
+                consumer.accept(customer);
+                // Detach each row once written so the persistence context stays flat
+                entityManager.detach(customer);
+                count++;
+            }
+        } catch (UncheckedIOException ex) {
+            // The consumer failed to write, typically because the client went away
+            logger.warn("Streaming customers aborted after {} rows", count);
+            throw ex;
+        } catch (Exception ex) {
+            logger.error("Error while streaming customers after {} rows", count, ex);
             throw new DatabaseAccessException("Error accessing the database.");
         }
+        logger.info("Successfully streamed {} customers", count);
     }
 
+    // Not @Transactional: a cache hit needs no connection, and findById runs in its own read-only transaction
     @Override
     @Trace
+    @Timed("customer.service")
     public Optional<Customer> getCustomerById(UUID uuid) {
+        Optional<Customer> cached = cache.get(uuid);
+        if (cached.isPresent()) {
+            logger.info(LogMarkers.SAMPLED, "Customer with ID {} found in cache", uuid);
+            return cached;
+        }
 
         Optional<Customer> customer = repository.findById(uuid);
         if (customer.isPresent()) {
-            logger.info("Customer with ID {} found", uuid);
+            cache.put(customer.get());
+            logger.info(LogMarkers.SAMPLED, "Customer with ID {} found", uuid);
         } else {
             logger.warn("Customer with ID {} not found", uuid);
         }
@@ -52,108 +171,217 @@ public class CustomerServiceImpl implements CustomerService {
 
     }
 
+    // Not @Transactional: a write-behind create must not hold a connection while its batch is pending
     @Override
-    @Transactional
     @Trace
+    @Timed("customer.service")
     public Customer saveCustomer(Customer customer) {
-        validateCustomer(customer);
-
-        if (repository.existsByFirstNameAndLastName(customer.getFirstName(), customer.getLastName())) {
-            logger.warn("Duplicate customer with name: {} {}", customer.getFirstName(), customer.getLastName());
-            throw new DuplicateResourceException("Customer with the same name already exists");
-        } else if (repository.existsByEmailAddress(customer.getEmailAddress())) {
-            logger.warn("Duplicate customer with email: {}", customer.getEmailAddress());
-            throw new DuplicateResourceException("Customer with email " + customer.getEmailAddress() + " already exists");
-        } else {
-            try {
-                Customer savedCustomer = repository.save(customer);
-                logger.info("Customer saved successfully with ID: {}", savedCustomer.getId());
-                return savedCustomer;
-            } catch (Exception ex) {
-                logger.error("Error while saving customer: {}", customer, ex);
-                throw new DatabaseAccessException("Error accessing the database.");
+        validator.validate(customer);
+
+        String knownConflict = keyIndex.findConflict(customer);
+        if (knownConflict != null) {
+            logger.warn("Duplicate customer rejected from key index");
+            throw new DuplicateResourceException(knownConflict);
+        }
+
+        if (writeQueue.isEnabled()) {
+            CompletableFuture<Customer> committed = writeQueue.enqueue(customer);
+            if (!writeQueue.acksOnCommit()) {
+                // Accepted, not written yet: the version stays null until the row exists
+                logger.info(LogMarkers.SAMPLED, "Customer with ID {} queued for saving", customer.getId());
+                return customer;
             }
+            Customer savedCustomer = awaitCommit(committed);
+            logger.info(LogMarkers.SAMPLED, "Customer saved successfully with ID: {}", savedCustomer.getId());
+            return savedCustomer;
         }
 
+        // Ids are always generated, never taken from the request
+        customer.setId(null);
+        customer.setVersion(null);
+        return transactionTemplate.execute(status -> insert(customer));
     }
 
     @Override
     @Transactional
     @Trace
+    @Timed("customer.service")
     public Customer updateCustomer(UUID uuid, Customer customer) {
-        validateCustomer(customer);
+        validator.validate(customer);
+
+        // One UPDATE either way: guarded by the version when the caller sent one, otherwise returning the new one
+        Long expectedVersion = customer.getVersion();
+        Long newVersion;
+        try {
+            if (expectedVersion != null) {
+                newVersion = repository.updateById(uuid, expectedVersion, customer) == 0 ? null : expectedVersion + 1;
+            } else {
+                newVersion = repository.updateReturningVersion(uuid, customer).orElse(null);
+            }
+        } catch (DataIntegrityViolationException ex) {
+            logger.warn("Duplicate customer rejected by constraint on update of {}", uuid);
+            throw toDuplicateResourceException(customer, ex);
+        } catch (Exception ex) {
+            logger.error("Error while updating customer with ID: {}", uuid, ex);
+            throw new DatabaseAccessException("Error accessing the database.");
+        }
 
-        if (!repository.existsById(uuid)) {
+        if (newVersion == null) {
+            // Only the failure path pays for telling a missing row from a stale version
+            if (expectedVersion != null && repository.existsById(uuid)) {
+                logger.warn("Customer with ID {} was modified concurrently, expected version {}", uuid, expectedVersion);
+                throw new VersionConflictException("Customer with ID " + uuid + " was modified, expected version "
+                        + expectedVersion);
+            }
             logger.warn("Customer with ID {} not found for update", uuid);
             throw new CustomerNotFoundException("Customer with ID " + uuid + " not found");
-        } else {
-            try {
-                // Check if the customer exists
-                Customer existingCustomer = getCustomerById(uuid).get();
-                logger.info("Updating fields for customer with ID: {}", uuid);
-
-                // Update fields that can be changed
-                existingCustomer.setFirstName(customer.getFirstName());
-                existingCustomer.setMiddleName(customer.getMiddleName());
-                existingCustomer.setLastName(customer.getLastName());
-                existingCustomer.setEmailAddress(customer.getEmailAddress());
-                existingCustomer.setPhoneNumber(customer.getPhoneNumber());
-
-                Customer updatedCustomer = repository.save(existingCustomer);
-                logger.info("Customer with ID {} updated successfully", uuid);
-                return updatedCustomer;
-            } catch (Exception ex) {
-                logger.error("Error while updating customer with ID: {}", uuid, ex);
-                throw new DatabaseAccessException("Error accessing the database.");
-            }
         }
 
+        Customer updatedCustomer = new Customer();
+        updatedCustomer.setId(uuid);
+        updatedCustomer.setFirstName(customer.getFirstName());
+        updatedCustomer.setMiddleName(customer.getMiddleName());
+        updatedCustomer.setLastName(customer.getLastName());
+        updatedCustomer.setEmailAddress(customer.getEmailAddress());
+        updatedCustomer.setPhoneNumber(customer.getPhoneNumber());
+        updatedCustomer.setVersion(newVersion);
 
+        cache.invalidateAfterCommit(updatedCustomer);
+        keyIndex.removeAfterCommit(uuid);
+        nameIndex.upsertAfterCommit(updatedCustomer);
+        changeLog.appendBeforeCommit(CustomerChange.Type.UPDATED, updatedCustomer);
+        logger.info(LogMarkers.SAMPLED, "Customer with ID {} updated successfully", uuid);
+        return updatedCustomer;
     }
 
     @Override
-    @Transactional
     @Trace
-    public void deleteCustomer(UUID uuid) {
+    @Timed("customer.service")
+    public Customer patchCustomer(UUID uuid, Map<String, Object> patch) {
+        CustomerPatch customerPatch = CustomerPatch.of(uuid, patch);
 
-        if (!repository.existsById(uuid)) {
-            logger.warn("Customer with ID {} not found for deletion", uuid);
-            throw new CustomerNotFoundException("Customer with ID " + uuid + " not found");
+        // A patch that changes nothing is answered from the cache without opening a transaction
+        Optional<Customer> cached = cache.get(uuid);
+        if (cached.isPresent() && !customerPatch.changes(cached.get())) {
+            checkVersion(uuid, customerPatch.expectedVersion(), cached.get());
+            logger.debug("Patch for customer with ID {} changes nothing", uuid);
+            return cached.get();
         }
+        return transactionTemplate.execute(status -> patch(uuid, customerPatch));
+    }
 
+    @Override
+    @Transactional
+    @Trace
+    @Timed("customer.service")
+    public void deleteCustomer(UUID uuid, Long expectedVersion) {
+        int deleted;
         try {
-            repository.deleteById(uuid);
-            logger.info("Customer with ID {} deleted successfully", uuid);
+            deleted = repository.deleteByIdReturningCount(uuid, expectedVersion);
         } catch (Exception ex) {
             logger.error("Error while deleting customer with ID: {}", uuid, ex);
             throw new DatabaseAccessException("Error accessing the database.");
         }
+
+        if (deleted == 0) {
+            if (expectedVersion != null && repository.existsById(uuid)) {
+                logger.warn("Customer with ID {} was modified concurrently, expected version {}", uuid, expectedVersion);
+                throw new VersionConflictException("Customer with ID " + uuid + " was modified, expected version "
+                        + expectedVersion);
+            }
+            logger.warn("Customer with ID {} not found for deletion", uuid);
+            throw new CustomerNotFoundException("Customer with ID " + uuid + " not found");
+        }
+        cache.invalidateDeletedAfterCommit(uuid);
+        keyIndex.removeAfterCommit(uuid);
+        nameIndex.removeAfterCommit(uuid);
+        changeLog.appendDeletedBeforeCommit(uuid);
+        logger.info(LogMarkers.SAMPLED, "Customer with ID {} deleted successfully", uuid);
     }
 
     // Helper Methods
 
-    private UUID parseUUID(String id) {
+    private Customer patch(UUID uuid, CustomerPatch customerPatch) {
+        Customer existingCustomer = repository.findById(uuid).orElseThrow(() -> {
+            logger.warn("Customer with ID {} not found for patch", uuid);
+            return new CustomerNotFoundException("Customer with ID " + uuid + " not found");
+        });
+        checkVersion(uuid, customerPatch.expectedVersion(), existingCustomer);
+        if (!customerPatch.changes(existingCustomer)) {
+            logger.debug("Patch for customer with ID {} changes nothing", uuid);
+            return existingCustomer;
+        }
+
+        // Dirty checking plus @DynamicUpdate writes only the patched columns, guarded by the version
+        customerPatch.applyTo(existingCustomer);
+        validator.validate(existingCustomer);
+        try {
+            repository.flush();
+        } catch (DataIntegrityViolationException ex) {
+            logger.warn("Duplicate customer rejected by constraint on patch of {}", uuid);
+            throw toDuplicateResourceException(existingCustomer, ex);
+        } catch (OptimisticLockingFailureException ex) {
+            logger.warn("Customer with ID {} was modified concurrently during patch", uuid);
+            throw new VersionConflictException("Customer with ID " + uuid + " was modified concurrently");
+        }
+
+        cache.invalidateAfterCommit(existingCustomer);
+        keyIndex.removeAfterCommit(uuid);
+        nameIndex.upsertAfterCommit(existingCustomer);
+        changeLog.appendBeforeCommit(CustomerChange.Type.UPDATED, existingCustomer);
+        logger.info(LogMarkers.SAMPLED, "Customer with ID {} patched successfully", uuid);
+        return existingCustomer;
+    }
+
+    // A single insert, the unique constraints detect duplicates atomically
+    private Customer insert(Customer customer) {
         try {
-            return UUID.fromString(id);
-        } catch (IllegalArgumentException ex) {
-            logger.error("Invalid UUID format for string: {}", id, ex);
-            throw new InvalidIdFormatException("Invalid ID format: " + id);
+            Customer savedCustomer = repository.saveAndFlush(customer);
+            keyIndex.addAfterCommit(savedCustomer);
+            nameIndex.upsertAfterCommit(savedCustomer);
+            changeLog.appendBeforeCommit(CustomerChange.Type.CREATED, savedCustomer);
+            logger.info(LogMarkers.SAMPLED, "Customer saved successfully with ID: {}", savedCustomer.getId());
+            return savedCustomer;
+        } catch (DataIntegrityViolationException ex) {
+            DuplicateResourceException duplicate = toDuplicateResourceException(customer, ex);
+            logger.warn("Duplicate customer rejected by constraint");
+            throw duplicate;
+        } catch (Exception ex) {
+            logger.error("Error while saving customer", ex);
+            throw new DatabaseAccessException("Error accessing the database.");
         }
     }
 
-    private void validateCustomer(Customer customer) {
-        if (customer.getFirstName() == null || customer.getFirstName().isBlank()) {
-            logger.error("Validation failed: First name is required");
-            throw new ValidationException("First name is required");
+    private static Customer awaitCommit(CompletableFuture<Customer> committed) {
+        try {
+            return committed.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
         }
-        if (customer.getLastName() == null || customer.getLastName().isBlank()) {
-            logger.error("Validation failed: Last name is required");
-            throw new ValidationException("Last name is required");
+    }
+
+    static DuplicateResourceException toDuplicateResourceException(Customer customer, DataIntegrityViolationException ex) {
+        // Without Hibernate's parsed constraint name (R2DBC), the driver message still names the constraint
+        String constraint = (ex.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                ? violation.getConstraintName()
+                : String.valueOf(ex.getMessage())).toLowerCase(Locale.ROOT);
+        if (constraint.contains(Customer.UK_EMAIL_ADDRESS)) {
+            return new DuplicateResourceException("Customer with email " + customer.getEmailAddress() + " already exists");
+        }
+        if (constraint.contains(Customer.UK_FIRST_NAME) || constraint.contains(Customer.UK_LAST_NAME)) {
+            return new DuplicateResourceException("Customer with the same name already exists");
         }
-        if (customer.getEmailAddress() == null || !customer.getEmailAddress().contains("@")) {
-            logger.error("Validation failed: Invalid email address");
-            throw new ValidationException("Invalid email address");
+        return new DuplicateResourceException("Customer with the same name or email already exists");
+    }
+
+    static void checkVersion(UUID uuid, Long expectedVersion, Customer current) {
+        if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+            throw new VersionConflictException("Customer with ID " + uuid + " was modified, expected version "
+                    + expectedVersion);
         }
-        logger.info("Customer validation passed");
     }
 }
@@ -0,0 +1,20 @@
+package com.example.customer.service;
+
+import com.example.customer.repository.CustomerChangeRepository;
+import org.springframework.stereotype.Component;
+
+// Version of the customer table as a whole, the basis of the collection ETag: the number of changes committed to the
+// change feed, which every write appends to in its own transaction. Nothing is locked or updated to keep it.
+@Component
+public class CustomerTableVersion {
+
+    private final CustomerChangeRepository repository;
+
+    public CustomerTableVersion(CustomerChangeRepository repository) {
+        this.repository = repository;
+    }
+
+    public long current() {
+        return repository.countCommittedChanges().orElse(0L);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.customer.service;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.function.Consumer;
+
+public interface CustomerTransferService {
+    ImportReport.Progress importCustomers(InputStream input, TransferFormat format, Consumer<ImportReport> reporter);
+    long exportCustomers(OutputStream output, TransferFormat format);
+}
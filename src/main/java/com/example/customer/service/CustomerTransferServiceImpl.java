@@ -0,0 +1,184 @@
+package com.example.customer.service;
+
+import com.example.customer.config.BatchProperties;
+import com.example.customer.repository.entity.Customer;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import datadog.trace.api.Trace;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Bulk import and export in constant memory. Import parses one record at a time and hands every chunk-size records
+// to the bulk create path, which validates, rejects duplicates and commits each chunk in its own transaction; export
+// writes rows as the database cursor returns them. Exported ids are kept on import, versions start over.
+@Service
+public class CustomerTransferServiceImpl implements CustomerTransferService {
+    private static final Logger logger = LoggerFactory.getLogger(CustomerTransferServiceImpl.class);
+
+    private final CustomerBatchService batchService;
+    private final CustomerService customerService;
+    private final BatchProperties properties;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader customerReader;
+    private final ObjectWriter customerWriter;
+
+    public CustomerTransferServiceImpl(CustomerBatchService batchService, CustomerService customerService,
+                                       BatchProperties properties, ObjectMapper objectMapper) {
+        this.batchService = batchService;
+        this.customerService = customerService;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.customerReader = objectMapper.readerFor(Customer.class);
+        this.customerWriter = objectMapper.writerFor(Customer.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Override
+    @Trace
+    @Timed("customer.batch")
+    public ImportReport.Progress importCustomers(InputStream input, TransferFormat format,
+                                                 Consumer<ImportReport> reporter) {
+        Import running = new Import(reporter);
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            if (format == TransferFormat.CSV) {
+                CustomerCsv.Reader csv = new CustomerCsv.Reader(reader);
+                for (CustomerCsv.Row row = csv.next(); row != null; row = csv.next()) {
+                    running.add(row.line(), row.customer(), row.error());
+                }
+            } else {
+                long line = 0;
+                for (String text = reader.readLine(); text != null; text = reader.readLine()) {
+                    line++;
+                    if (!text.isBlank()) {
+                        running.add(line, text);
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            // Chunks committed before the upload broke stay, their records report a conflict when sent again
+            logger.warn("Import aborted after {} records, the upload broke", running.records, ex);
+            throw new UncheckedIOException(ex);
+        }
+        running.flush();
+        ImportReport.Progress done = running.progress(true);
+        reporter.accept(done);
+        logger.info("Import of {} records finished, {} imported, {} failed", done.records(), done.imported(),
+                done.failed());
+        return done;
+    }
+
+    @Override
+    @Trace
+    @Timed("customer.batch")
+    public long exportCustomers(OutputStream output, TransferFormat format) {
+        long[] exported = {0};
+        try {
+            if (format == TransferFormat.CSV) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 65_536);
+                CustomerCsv.writeHeader(writer);
+                customerService.streamAllCustomers(customer -> {
+                    try {
+                        CustomerCsv.write(writer, customer);
+                        exported[0]++;
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+                writer.flush();
+            } else {
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(output);
+                // Records are separated by the newline below, not the default space
+                generator.setRootValueSeparator(null);
+                customerService.streamAllCustomers(customer -> {
+                    try {
+                        customerWriter.writeValue(generator, customer);
+                        generator.writeRaw('\n');
+                        exported[0]++;
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+                generator.flush();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        logger.info("Exported {} customers as {}", exported[0], format);
+        return exported[0];
+    }
+
+    // Records parsed but not yet committed, and the totals so far
+    private final class Import {
+        private final Consumer<ImportReport> reporter;
+        private final List<Customer> chunk = new ArrayList<>();
+        private final List<Long> lines = new ArrayList<>();
+        private long records;
+        private long imported;
+        private long failed;
+
+        Import(Consumer<ImportReport> reporter) {
+            this.reporter = reporter;
+        }
+
+        void add(long line, String json) {
+            Customer customer;
+            try {
+                customer = customerReader.readValue(json);
+            } catch (JsonProcessingException ex) {
+                add(line, null, "Malformed JSON: " + ex.getOriginalMessage());
+                return;
+            }
+            add(line, customer, customer == null ? "Expected a customer object" : null);
+        }
+
+        void add(long line, Customer customer, String error) {
+            records++;
+            if (error != null) {
+                failed++;
+                reporter.accept(new ImportReport.LineFailed(line, HttpStatus.BAD_REQUEST.value(), error));
+                return;
+            }
+            chunk.add(customer);
+            lines.add(line);
+            if (chunk.size() == properties.chunkSize()) {
+                flush();
+                reporter.accept(progress(false));
+            }
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            List<BatchItemResult> results = batchService.importCustomers(chunk);
+            for (BatchItemResult result : results) {
+                if (result.status() == HttpStatus.CREATED.value()) {
+                    imported++;
+                } else {
+                    failed++;
+                    reporter.accept(new ImportReport.LineFailed(lines.get(result.index()), result.status(),
+                            result.message()));
+                }
+            }
+            chunk.clear();
+            lines.clear();
+        }
+
+        ImportReport.Progress progress(boolean done) {
+            return new ImportReport.Progress(records, imported, failed, done);
+        }
+    }
+}
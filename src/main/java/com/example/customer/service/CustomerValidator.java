@@ -0,0 +1,29 @@
+package com.example.customer.service;
+
+import com.example.customer.exception.custom.ValidationException;
+import com.example.customer.repository.entity.Customer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+// Field rules shared by the single-row and bulk write paths
+@Component
+public class CustomerValidator {
+    private static final Logger logger = LoggerFactory.getLogger(CustomerValidator.class);
+
+    public void validate(Customer customer) {
+        if (customer.getFirstName() == null || customer.getFirstName().isBlank()) {
+            logger.error("Validation failed: First name is required");
+            throw new ValidationException("First name is required");
+        }
+        if (customer.getLastName() == null || customer.getLastName().isBlank()) {
+            logger.error("Validation failed: Last name is required");
+            throw new ValidationException("Last name is required");
+        }
+        if (customer.getEmailAddress() == null || !customer.getEmailAddress().contains("@")) {
+            logger.error("Validation failed: Invalid email address");
+            throw new ValidationException("Invalid email address");
+        }
+        logger.debug("Customer validation passed");
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.customer.service;
+
+import com.example.customer.cache.CustomerKeyIndex;
+import com.example.customer.config.WriteBehindProperties;
+import com.example.customer.exception.custom.DatabaseAccessException;
+import com.example.customer.exception.custom.DuplicateResourceException;
+import com.example.customer.exception.custom.TooManyRequestsException;
+import com.example.customer.repository.CustomerRepository;
+import com.example.customer.repository.entity.Customer;
+import com.example.customer.repository.entity.CustomerChange;
+import com.example.customer.repository.entity.TimeOrderedUuids;
+import com.example.customer.search.CustomerNameIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+// Write-behind path for creates. Requests are validated and claim their id and unique keys in memory, then a single
+// writer thread inserts whatever has queued up in one transaction, so a burst of creates shares one commit.
+@Component
+public class CustomerWriteQueue {
+    private static final Logger logger = LoggerFactory.getLogger(CustomerWriteQueue.class);
+
+    private final WriteBehindProperties properties;
+    private final CustomerRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final CustomerKeyIndex keyIndex;
+    private final CustomerNameIndex nameIndex;
+    private final CustomerChangeLog changeLog;
+    private final BlockingQueue<PendingWrite> queue;
+    // Unique keys of accepted creates that are not committed yet, so no two of them can claim the same name or email
+    private final ConcurrentMap<String, UUID> reservedKeys = new ConcurrentHashMap<>();
+    private final Counter committed;
+    private final Counter failed;
+    private final Counter throttled;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public CustomerWriteQueue(WriteBehindProperties properties, CustomerRepository repository,
+                              PlatformTransactionManager transactionManager, CustomerKeyIndex keyIndex,
+                              CustomerNameIndex nameIndex, CustomerChangeLog changeLog, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.keyIndex = keyIndex;
+        this.nameIndex = nameIndex;
+        this.changeLog = changeLog;
+        this.queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+        this.committed = outcomeCounter(meterRegistry, "committed");
+        this.failed = outcomeCounter(meterRegistry, "failed");
+        this.throttled = outcomeCounter(meterRegistry, "throttled");
+        if (properties.enabled()) {
+            Gauge.builder("customer.write.behind.pending", queue, BlockingQueue::size)
+                    .description("Creates accepted by the write-behind queue and not committed yet")
+                    .register(meterRegistry);
+            writer = Thread.ofPlatform().name("customer-write-behind").daemon().start(this::drain);
+        } else {
+            writer = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    public boolean acksOnCommit() {
+        return properties.ack() == WriteBehindProperties.Ack.COMMIT;
+    }
+
+    // Assigns the id and claims the unique keys. The future completes once the row is committed, or with the
+    // DuplicateResourceException or DatabaseAccessException the synchronous path would have thrown.
+    public CompletableFuture<Customer> enqueue(Customer customer) {
+        customer.setId(TimeOrderedUuids.next());
+        customer.setVersion(null);
+        List<String> keys = CustomerKeyIndex.keysOf(customer);
+        reserve(customer, keys);
+
+        PendingWrite write = new PendingWrite(customer, keys, new CompletableFuture<>());
+        if (!running || !queue.offer(write)) {
+            release(write);
+            throttled.increment();
+            throw new TooManyRequestsException("Too many pending writes, retry later");
+        }
+        return write.result();
+    }
+
+    public WriteQueueStatus status() {
+        return new WriteQueueStatus(properties.enabled(), properties.ack(), queue.size(), properties.queueCapacity(),
+                (long) committed.count(), (long) failed.count());
+    }
+
+    // Stops taking writes and commits whatever is still queued before the datasource goes away
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(10_000);
+        }
+        // Anything that raced past the shutdown check would otherwise wait forever
+        for (PendingWrite write; (write = queue.poll()) != null; ) {
+            fail(write, new DatabaseAccessException("Error accessing the database."));
+        }
+    }
+
+    private void reserve(Customer customer, List<String> keys) {
+        for (int i = 0; i < keys.size(); i++) {
+            if (reservedKeys.putIfAbsent(keys.get(i), customer.getId()) != null) {
+                for (int j = 0; j < i; j++) {
+                    reservedKeys.remove(keys.get(j), customer.getId());
+                }
+                throw new DuplicateResourceException(conflictMessage(customer, i));
+            }
+        }
+    }
+
+    private void release(PendingWrite write) {
+        write.keys().forEach(key -> reservedKeys.remove(key, write.customer().getId()));
+    }
+
+    private void drain() {
+        List<PendingWrite> batch = new ArrayList<>(properties.maxBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Linger briefly so the rest of a burst joins the same transaction
+                long deadline = System.nanoTime() + properties.maxDelay().toNanos();
+                while (batch.size() < properties.maxBatchSize()) {
+                    queue.drainTo(batch, properties.maxBatchSize() - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= properties.maxBatchSize() || remaining <= 0) {
+                        break;
+                    }
+                    PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException ex) {
+                // Only ever interrupted at shutdown: commit what was collected and keep draining what is queued
+                running = false;
+                commit(batch);
+            } catch (Exception ex) {
+                logger.error("Write-behind batch of {} customers failed", batch.size(), ex);
+                batch.stream().filter(write -> !write.result().isDone())
+                        .forEach(write -> fail(write, new DatabaseAccessException("Error accessing the database.")));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingWrite> batch) {
+        List<PendingWrite> inserted;
+        try {
+            inserted = transactionTemplate.execute(status -> {
+                // Keys taken by rows this replica's key index has not seen, one lookup for the whole batch
+                Set<String> taken = new HashSet<>();
+                repository.findDuplicateCandidates(
+                        batch.stream().map(write -> write.customer().getEmailAddress()).toList(),
+                        batch.stream().map(write -> write.customer().getFirstName()).toList(),
+                        batch.stream().map(write -> write.customer().getLastName()).toList()
+                ).forEach(existing -> taken.addAll(CustomerKeyIndex.keysOf(existing)));
+
+                List<PendingWrite> accepted = new ArrayList<>(batch.size());
+                for (PendingWrite write : batch) {
+                    int conflict = firstTaken(write.keys(), taken);
+                    if (conflict >= 0) {
+                        fail(write, new DuplicateResourceException(conflictMessage(write.customer(), conflict)));
+                    } else {
+                        accepted.add(write);
+                    }
+                }
+                if (accepted.isEmpty()) {
+                    return accepted;
+                }
+                // Flushed as JDBC batches of hibernate.jdbc.batch_size inserts
+                repository.saveAll(accepted.stream().map(PendingWrite::customer).toList());
+                repository.flush();
+                accepted.forEach(write -> track(write.customer()));
+                return accepted;
+            });
+        } catch (Exception ex) {
+            // A constraint hit by one row rolled back the batch, retry row by row to isolate it
+            logger.warn("Write-behind insert of {} customers failed, retrying row by row", batch.size(), ex);
+            batch.stream().filter(write -> !write.result().isDone()).forEach(this::commitOne);
+            return;
+        }
+        inserted.forEach(this::succeed);
+        logger.debug("Write-behind committed {} of {} customers", inserted.size(), batch.size());
+    }
+
+    private void commitOne(PendingWrite write) {
+        Customer customer = write.customer();
+        // The rolled back flush already stamped a version, which would turn the insert into a merge
+        customer.setVersion(null);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                repository.saveAndFlush(customer);
+                track(customer);
+            });
+            succeed(write);
+        } catch (DataIntegrityViolationException ex) {
+            fail(write, CustomerServiceImpl.toDuplicateResourceException(customer, ex));
+        } catch (Exception ex) {
+            logger.error("Error while saving write-behind customer {}", customer.getId(), ex);
+            fail(write, new DatabaseAccessException("Error accessing the database."));
+        }
+    }
+
+    private void track(Customer customer) {
+        keyIndex.addAfterCommit(customer);
+        nameIndex.upsertAfterCommit(customer);
+        changeLog.appendBeforeCommit(CustomerChange.Type.CREATED, customer);
+    }
+
+    private void succeed(PendingWrite write) {
+        release(write);
+        committed.increment();
+        write.result().complete(write.customer());
+    }
+
+    private void fail(PendingWrite write, RuntimeException ex) {
+        release(write);
+        failed.increment();
+        if (!acksOnCommit()) {
+            // The client was already told the create was accepted, the log and the counter are all that is left
+            logger.warn("Acknowledged create of customer {} was not written: {}", write.customer().getId(),
+                    ex.getMessage());
+        }
+        write.result().completeExceptionally(ex);
+    }
+
+    private static int firstTaken(List<String> keys, Set<String> taken) {
+        for (int i = 0; i < keys.size(); i++) {
+            if (taken.contains(keys.get(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Index into CustomerKeyIndex.keysOf: the two name keys come first, then the email key
+    private static String conflictMessage(Customer customer, int key) {
+        return key < 2
+                ? "Customer with the same name already exists"
+                : "Customer with email " + customer.getEmailAddress() + " already exists";
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("customer.write.behind")
+                .description("Creates handled by the write-behind queue, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record PendingWrite(Customer customer, List<String> keys, CompletableFuture<Customer> result) {
+    }
+}
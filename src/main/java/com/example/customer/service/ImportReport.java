@@ -0,0 +1,20 @@
+package com.example.customer.service;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+// What a running import reports, one NDJSON line each: every rejected record by the line it starts on, and the
+// running totals after every committed chunk. The last progress report has done set.
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+@JsonSubTypes({
+        @JsonSubTypes.Type(value = ImportReport.LineFailed.class, name = "error"),
+        @JsonSubTypes.Type(value = ImportReport.Progress.class, name = "progress")
+})
+public sealed interface ImportReport {
+
+    record LineFailed(long line, int status, String message) implements ImportReport {
+    }
+
+    record Progress(long records, long imported, long failed, boolean done) implements ImportReport {
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.customer.service;
+
+import com.example.customer.repository.entity.Customer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public interface ReactiveCustomerService {
+    Mono<Long> getCustomersVersion();
+    Mono<List<Customer>> getCustomersPage(UUID after, int limit);
+    Flux<Customer> streamAllCustomers();
+    Mono<Customer> getCustomerById(UUID id);
+    Mono<Customer> saveCustomer(Customer customer);
+    Mono<Customer> updateCustomer(UUID id, Customer customer);
+    Mono<Customer> patchCustomer(UUID id, Map<String, Object> patch);
+    Mono<Void> deleteCustomer(UUID id, Long expectedVersion);
+}
@@ -0,0 +1,238 @@
+package com.example.customer.service;
+
+import com.example.customer.exception.base.CustomerApiException;
+import com.example.customer.exception.custom.CustomerNotFoundException;
+import com.example.customer.exception.custom.DatabaseAccessException;
+import com.example.customer.exception.custom.VersionConflictException;
+import com.example.customer.logging.LogMarkers;
+import com.example.customer.repository.ReactiveCustomerRepository;
+import com.example.customer.repository.entity.Customer;
+import com.example.customer.repository.entity.CustomerChange;
+import com.example.customer.repository.entity.TimeOrderedUuids;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// CustomerServiceImpl's rules and errors on R2DBC, for the WebFlux stack. The in-process cache, key index and name
+// index are fed by the servlet stack's JPA transactions and are not used here: duplicates are left to the unique
+// constraints. No @Timed or @Trace, on a Mono they would only time assembly; http.server.requests times requests.
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCustomerServiceImpl implements ReactiveCustomerService {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveCustomerServiceImpl.class);
+
+    private final ReactiveCustomerRepository repository;
+    private final R2dbcEntityTemplate entityTemplate;
+    private final CustomerValidator validator;
+    private final TransactionalOperator transactionalOperator;
+    private final CustomerChangeLog changeLog;
+
+    public ReactiveCustomerServiceImpl(ReactiveCustomerRepository repository, R2dbcEntityTemplate entityTemplate,
+                                       CustomerValidator validator, TransactionalOperator transactionalOperator,
+                                       CustomerChangeLog changeLog) {
+        this.repository = repository;
+        this.entityTemplate = entityTemplate;
+        this.validator = validator;
+        this.transactionalOperator = transactionalOperator;
+        this.changeLog = changeLog;
+    }
+
+    @Override
+    public Mono<Long> getCustomersVersion() {
+        return repository.countCommittedChanges().defaultIfEmpty(0L);
+    }
+
+    @Override
+    public Mono<List<Customer>> getCustomersPage(UUID after, int limit) {
+        Flux<Customer> page = after == null
+                ? repository.findAllByOrderByIdAsc(Limit.of(limit))
+                : repository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit));
+        return page.collectList()
+                .doOnNext(customers -> logger.info(LogMarkers.SAMPLED, "Successfully fetched {} customers",
+                        customers.size()))
+                .onErrorMap(ex -> {
+                    logger.error("Error while fetching customers page after {}", after, ex);
+                    return new DatabaseAccessException("Error accessing the database.");
+                });
+    }
+
+    @Override
+    public Flux<Customer> streamAllCustomers() {
+        return repository.streamAllByOrderByIdAsc()
+                .doOnComplete(() -> logger.info("Successfully streamed customers"))
+                // The client went away, cancelling the query with it
+                .doOnCancel(() -> logger.warn("Streaming customers aborted"))
+                .onErrorMap(ex -> {
+                    logger.error("Error while streaming customers", ex);
+                    return new DatabaseAccessException("Error accessing the database.");
+                });
+    }
+
+    @Override
+    public Mono<Customer> getCustomerById(UUID uuid) {
+        return repository.findById(uuid)
+                .doOnNext(customer -> logger.info(LogMarkers.SAMPLED, "Customer with ID {} found", uuid))
+                .switchIfEmpty(Mono.error(() -> {
+                    logger.warn("Customer with ID {} not found", uuid);
+                    return new CustomerNotFoundException("Customer with ID " + uuid + " not found");
+                }));
+    }
+
+    @Override
+    public Mono<Customer> saveCustomer(Customer customer) {
+        return Mono.defer(() -> {
+                    validator.validate(customer);
+                    // Ids are always generated, never taken from the request
+                    customer.setId(TimeOrderedUuids.next());
+                    customer.setVersion(0L);
+                    // An insert, not save(): with the id already assigned save() would issue an UPDATE
+                    return entityTemplate.insert(customer)
+                            .onErrorMap(DataIntegrityViolationException.class, ex -> {
+                                logger.warn("Duplicate customer rejected by constraint");
+                                return CustomerServiceImpl.toDuplicateResourceException(customer, ex);
+                            })
+                            .flatMap(saved -> recordChange(CustomerChange.Type.CREATED, saved))
+                            .as(transactionalOperator::transactional)
+                            .doOnSuccess(saved -> changeLog.signalAppended());
+                })
+                .onErrorMap(ex -> !(ex instanceof CustomerApiException), ex -> {
+                    logger.error("Error while saving customer", ex);
+                    return new DatabaseAccessException("Error accessing the database.");
+                })
+                .doOnNext(saved -> logger.info(LogMarkers.SAMPLED, "Customer saved successfully with ID: {}",
+                        saved.getId()));
+    }
+
+    @Override
+    public Mono<Customer> updateCustomer(UUID uuid, Customer customer) {
+        return Mono.defer(() -> {
+                    validator.validate(customer);
+
+                    // One UPDATE, guarded by the version when the caller sent one
+                    Long expectedVersion = customer.getVersion();
+                    return repository.updateById(uuid, expectedVersion, customer)
+                            .onErrorMap(DataIntegrityViolationException.class, ex -> {
+                                logger.warn("Duplicate customer rejected by constraint on update of {}", uuid);
+                                return CustomerServiceImpl.toDuplicateResourceException(customer, ex);
+                            })
+                            .flatMap(updated -> updated == 0
+                                    ? missingOrModified(uuid, expectedVersion, "update")
+                                    : expectedVersion != null
+                                    ? Mono.just(expectedVersion + 1)
+                                    : repository.findVersionById(uuid))
+                            .map(newVersion -> updated(uuid, customer, newVersion))
+                            .flatMap(updated -> recordChange(CustomerChange.Type.UPDATED, updated))
+                            .as(transactionalOperator::transactional)
+                            .doOnSuccess(saved -> changeLog.signalAppended());
+                })
+                .onErrorMap(ex -> !(ex instanceof CustomerApiException), ex -> {
+                    logger.error("Error while updating customer with ID: {}", uuid, ex);
+                    return new DatabaseAccessException("Error accessing the database.");
+                })
+                .doOnNext(updated -> logger.info(LogMarkers.SAMPLED, "Customer with ID {} updated successfully", uuid));
+    }
+
+    @Override
+    public Mono<Customer> patchCustomer(UUID uuid, Map<String, Object> patch) {
+        return Mono.defer(() -> {
+                    CustomerPatch customerPatch = CustomerPatch.of(uuid, patch);
+                    return repository.findById(uuid)
+                            .switchIfEmpty(Mono.error(() -> {
+                                logger.warn("Customer with ID {} not found for patch", uuid);
+                                return new CustomerNotFoundException("Customer with ID " + uuid + " not found");
+                            }))
+                            .flatMap(existingCustomer -> {
+                                CustomerServiceImpl.checkVersion(uuid, customerPatch.expectedVersion(), existingCustomer);
+                                if (!customerPatch.changes(existingCustomer)) {
+                                    logger.debug("Patch for customer with ID {} changes nothing", uuid);
+                                    return Mono.just(existingCustomer);
+                                }
+                                customerPatch.applyTo(existingCustomer);
+                                validator.validate(existingCustomer);
+                                // Guarded by the version read above, like the JPA flush
+                                long readVersion = existingCustomer.getVersion();
+                                return repository.updateById(uuid, readVersion, existingCustomer)
+                                        .onErrorMap(DataIntegrityViolationException.class, ex -> {
+                                            logger.warn("Duplicate customer rejected by constraint on patch of {}", uuid);
+                                            return CustomerServiceImpl.toDuplicateResourceException(existingCustomer, ex);
+                                        })
+                                        .flatMap(updated -> {
+                                            if (updated == 0) {
+                                                logger.warn("Customer with ID {} was modified concurrently during patch", uuid);
+                                                return Mono.error(new VersionConflictException("Customer with ID " + uuid
+                                                        + " was modified concurrently"));
+                                            }
+                                            existingCustomer.setVersion(readVersion + 1);
+                                            return recordChange(CustomerChange.Type.UPDATED, existingCustomer);
+                                        })
+                                        .doOnNext(patched -> logger.info(LogMarkers.SAMPLED,
+                                                "Customer with ID {} patched successfully", uuid));
+                            })
+                            .as(transactionalOperator::transactional)
+                            .doOnSuccess(saved -> changeLog.signalAppended());
+                })
+                .onErrorMap(ex -> !(ex instanceof CustomerApiException), ex -> {
+                    logger.error("Error while patching customer with ID: {}", uuid, ex);
+                    return new DatabaseAccessException("Error accessing the database.");
+                });
+    }
+
+    @Override
+    public Mono<Void> deleteCustomer(UUID uuid, Long expectedVersion) {
+        return repository.deleteByIdReturningCount(uuid, expectedVersion)
+                .onErrorMap(ex -> {
+                    logger.error("Error while deleting customer with ID: {}", uuid, ex);
+                    return new DatabaseAccessException("Error accessing the database.");
+                })
+                .flatMap(deleted -> deleted == 0
+                        ? missingOrModified(uuid, expectedVersion, "deletion").then()
+                        : repository.appendChange(uuid, CustomerChange.Type.DELETED.name(), null, null).then())
+                .as(transactionalOperator::transactional)
+                .doOnSuccess(done -> changeLog.signalAppended())
+                .doOnSuccess(done -> logger.info(LogMarkers.SAMPLED, "Customer with ID {} deleted successfully", uuid));
+    }
+
+    // Only the failure path pays for telling a missing row from a stale version
+    private Mono<Long> missingOrModified(UUID uuid, Long expectedVersion, String operation) {
+        Mono<Boolean> exists = expectedVersion == null ? Mono.just(false) : repository.existsById(uuid);
+        return exists.flatMap(found -> {
+            if (found) {
+                logger.warn("Customer with ID {} was modified concurrently, expected version {}", uuid, expectedVersion);
+                return Mono.error(new VersionConflictException("Customer with ID " + uuid
+                        + " was modified, expected version " + expectedVersion));
+            }
+            logger.warn("Customer with ID {} not found for {}", uuid, operation);
+            return Mono.error(new CustomerNotFoundException("Customer with ID " + uuid + " not found"));
+        });
+    }
+
+    // Appended without an offset like CustomerChangeLog's changes; signal it once committed so it numbers them
+    private Mono<Customer> recordChange(CustomerChange.Type type, Customer customer) {
+        return Mono.fromCallable(() -> changeLog.payloadOf(customer))
+                .flatMap(payload -> repository.appendChange(customer.getId(), type.name(), customer.getVersion(), payload))
+                .thenReturn(customer);
+    }
+
+    private static Customer updated(UUID uuid, Customer customer, long newVersion) {
+        Customer updatedCustomer = new Customer();
+        updatedCustomer.setId(uuid);
+        updatedCustomer.setFirstName(customer.getFirstName());
+        updatedCustomer.setMiddleName(customer.getMiddleName());
+        updatedCustomer.setLastName(customer.getLastName());
+        updatedCustomer.setEmailAddress(customer.getEmailAddress());
+        updatedCustomer.setPhoneNumber(customer.getPhoneNumber());
+        updatedCustomer.setVersion(newVersion);
+        return updatedCustomer;
+    }
+}
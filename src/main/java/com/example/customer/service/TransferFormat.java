@@ -0,0 +1,57 @@
+package com.example.customer.service;
+
+import com.example.customer.exception.custom.ValidationException;
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+// Wire formats of bulk import and export, both one customer per record so neither side buffers the whole file
+public enum TransferFormat {
+    NDJSON(MediaType.APPLICATION_NDJSON, ".ndjson"),
+    CSV(new MediaType("text", "csv"), ".csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    TransferFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public static TransferFormat of(String name) {
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new ValidationException("Unsupported format: " + name);
+        }
+    }
+
+    public static TransferFormat of(MediaType mediaType) {
+        for (TransferFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(mediaType)) {
+                return format;
+            }
+        }
+        throw new ValidationException("Unsupported content type: " + mediaType);
+    }
+
+    // .jsonl is a common name for the same format
+    public static TransferFormat ofFileName(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(CSV.extension)) {
+            return CSV;
+        }
+        if (lower.endsWith(NDJSON.extension) || lower.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        throw new ValidationException("Cannot tell the format of " + fileName + ", pass --format=ndjson|csv");
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.customer.service;
+
+import com.example.customer.config.WriteBehindProperties;
+
+public record WriteQueueStatus(boolean enabled, WriteBehindProperties.Ack ack, int pending, int capacity,
+                               long committed, long failed) {
+}
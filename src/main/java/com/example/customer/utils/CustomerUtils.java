@@ -1,8 +1,27 @@
 package com.example.customer.utils;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
 
 public class CustomerUtils {
+    private static final byte[] HEX_DIGITS = new byte[256];
+
+    static {
+        Arrays.fill(HEX_DIGITS, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            HEX_DIGITS['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            HEX_DIGITS['a' + i] = (byte) (10 + i);
+            HEX_DIGITS['A' + i] = (byte) (10 + i);
+        }
+    }
+
     // Encodes the input text into a secret
     public static String encodeToBase64(String plainText) {
         if (plainText == null || plainText.isEmpty()) {
@@ -20,4 +39,108 @@ public class CustomerUtils {
         return new String(decodedBytes);
     }
 
+    // Encodes the last id of a page into an opaque, URL-safe continuation token
+    public static String encodeCursor(UUID lastId) {
+        if (lastId == null) {
+            throw new IllegalArgumentException("Cursor id cannot be null");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putLong(lastId.getMostSignificantBits());
+        buffer.putLong(lastId.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    //decodes a continuation token back into the id it points after
+    public static UUID decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            throw new IllegalArgumentException("Cursor cannot be null or empty");
+        }
+        byte[] decodedBytes = Base64.getUrlDecoder().decode(cursor);
+        if (decodedBytes.length != 16) {
+            throw new IllegalArgumentException("Cursor has an invalid length");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(decodedBytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    // Parses the canonical 8-4-4-4-12 hex form, returning null for anything else. Unlike UUID.fromString it never
+    // throws and allocates nothing but the result, so malformed ids from clients are cheap to turn away.
+    public static UUID parseUuid(String text) {
+        if (text == null || text.length() != 36
+                || text.charAt(8) != '-' || text.charAt(13) != '-' || text.charAt(18) != '-' || text.charAt(23) != '-') {
+            return null;
+        }
+        int p0 = parseHex4(text, 0);
+        int p1 = parseHex4(text, 4);
+        int p2 = parseHex4(text, 9);
+        int p3 = parseHex4(text, 14);
+        int p4 = parseHex4(text, 19);
+        int p5 = parseHex4(text, 24);
+        int p6 = parseHex4(text, 28);
+        int p7 = parseHex4(text, 32);
+        if ((p0 | p1 | p2 | p3 | p4 | p5 | p6 | p7) < 0) {
+            return null;
+        }
+        return new UUID((long) p0 << 48 | (long) p1 << 32 | (long) p2 << 16 | p3,
+                (long) p4 << 48 | (long) p5 << 32 | (long) p6 << 16 | p7);
+    }
+
+    // Four hex digits as a 16-bit value, negative if any of them is not hex
+    private static int parseHex4(String text, int start) {
+        char c1 = text.charAt(start);
+        char c2 = text.charAt(start + 1);
+        char c3 = text.charAt(start + 2);
+        char c4 = text.charAt(start + 3);
+        if ((c1 | c2 | c3 | c4) >= HEX_DIGITS.length) {
+            return -1;
+        }
+        return HEX_DIGITS[c1] << 12 | HEX_DIGITS[c2] << 8 | HEX_DIGITS[c3] << 4 | HEX_DIGITS[c4];
+    }
+
+    // Strong entity tag for a version counter
+    public static String toETag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    // If-None-Match: weak comparison against any tag in the list, "*" matches everything
+    public static boolean matchesAnyETag(String header, String etag) {
+        if (header == null || header.isBlank()) {
+            return false;
+        }
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //reads the versions back out of an If-Match list, a single null for "*" which only requires the resource to exist.
+    //Weak tags never pass the strong comparison If-Match asks for, so a list with no strong version tag is rejected.
+    public static List<Long> parseETagVersions(String header) {
+        if (header == null || header.isBlank()) {
+            throw new IllegalArgumentException("ETag cannot be null or empty");
+        }
+        List<Long> versions = new ArrayList<>();
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return Collections.singletonList(null);
+            }
+            if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+                continue;
+            }
+            try {
+                versions.add(Long.parseLong(tag.substring(1, tag.length() - 1)));
+            } catch (NumberFormatException ex) {
+                // an opaque tag we never issued cannot match any version
+            }
+        }
+        if (versions.isEmpty()) {
+            throw new IllegalArgumentException("ETag list has no strong version tag");
+        }
+        return versions;
+    }
+
 }
@@ -0,0 +1,18 @@
+-- Transactional outbox behind GET /api/customers/changes. Rows are appended under the table_version row lock, so
+-- offsets are handed out in commit order and a consumer resuming after an offset never skips a late commit.
+create table customer_change (
+    change_offset bigint generated always as identity,
+    customer_id uuid not null,
+    change_type varchar(16) not null,
+    customer_version bigint,
+    payload varchar(8192),
+    changed_at timestamp with time zone default current_timestamp not null,
+    primary key (change_offset)
+);
+
+-- Compaction looks for a later change of the same customer
+create index idx_customer_change_customer_id on customer_change (customer_id, change_offset);
+create index idx_customer_change_changed_at on customer_change (changed_at);
+
+-- Highest offset removed by retention; consumers still behind it have to resync from GET /api/customers
+insert into table_version (name, version) values ('customer_change_expired', 0);
@@ -0,0 +1,17 @@
+-- Offsets are handed out after commit by the change feed's sequencer instead of under the table_version row lock, so
+-- writers no longer queue behind each other's commits. Changes are appended without an offset, known by change_id
+-- until the sequencer numbers them; consumers only ever read numbered ones.
+alter table customer_change alter column change_offset drop identity;
+alter table customer_change drop primary key;
+alter table customer_change alter column change_offset set null;
+alter table customer_change add column change_id bigint generated always as identity;
+alter table customer_change add primary key (change_id);
+-- Also finds the changes still waiting for an offset
+create unique index uk_customer_change_offset on customer_change (change_offset);
+
+-- The last offset handed out. It starts past every collection ETag taken from the old 'customer' row, so none of
+-- those can match again.
+insert into table_version (name, version)
+select 'customer_change_offset', t.version + (select coalesce(max(c.change_offset), 0) from customer_change c)
+from table_version t where t.name = 'customer';
+delete from table_version where name = 'customer';
@@ -0,0 +1,26 @@
+-- Baseline: the schema Hibernate used to create with ddl-auto=update
+create table customer (
+    id uuid not null,
+    version bigint,
+    first_name varchar(255) not null,
+    middle_name varchar(255),
+    last_name varchar(255) not null,
+    email_address varchar(255) not null,
+    email_address_lower varchar(255) generated always as (lower(email_address)) stored,
+    phone_number varchar(255),
+    primary key (id),
+    constraint uk_customer_first_name unique (first_name),
+    constraint uk_customer_last_name unique (last_name),
+    constraint uk_customer_email_address unique (email_address)
+);
+
+create index idx_customer_email_address_lower on customer (email_address_lower);
+create index idx_customer_phone_number on customer (phone_number);
+
+create table table_version (
+    name varchar(255) not null,
+    version bigint not null,
+    primary key (name)
+);
+
+insert into table_version (name, version) values ('customer', 0);
@@ -0,0 +1,9 @@
+-- Prefix search matches a range from the prefix to its successor, which only holds exactly the prefixed values in
+-- code point order. Under a linguistic collation (en_US and the like) punctuation and case are weighed separately,
+-- so values outside the prefix fall into the range and prefixed ones fall out of it. Equality is unaffected: every
+-- deterministic collation compares equal only when the bytes are.
+alter table customer
+    alter column first_name type varchar(255) collate "C",
+    alter column last_name type varchar(255) collate "C",
+    alter column email_address_lower type varchar(255) collate "C",
+    alter column phone_number type varchar(255) collate "C";
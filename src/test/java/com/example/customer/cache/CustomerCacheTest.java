@@ -0,0 +1,139 @@
+package com.example.customer.cache;
+
+import com.example.customer.config.CustomerCacheProperties;
+import com.example.customer.repository.entity.Customer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LoopbackInvalidationTransport transport;
+    private CustomerCache cache;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        transport = new LoopbackInvalidationTransport();
+        cache = newCache(true);
+        customer = customer(UUID.randomUUID(), 1L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void get_ShouldReturnCustomer_AfterPut() {
+        cache.put(customer);
+
+        assertEquals(customer, cache.get(customer.getId()).orElseThrow());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void invalidateAfterCommit_ShouldKeepEntryUntilTransactionCommits() {
+        cache.put(customer);
+        TransactionSynchronizationManager.initSynchronization();
+
+        Customer updated = customer(customer.getId(), 1L);
+        cache.invalidateAfterCommit(updated);
+        updated.setVersion(2L);
+
+        // Other threads still see the committed entry, the writing transaction bypasses it
+        assertTrue(CompletableFuture.supplyAsync(() -> cache.get(customer.getId())).join().isPresent());
+        assertTrue(cache.get(customer.getId()).isEmpty());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> {
+            synchronization.afterCommit();
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        });
+        assertTrue(cache.get(customer.getId()).isEmpty());
+
+        // The version flushed at commit is what gets broadcast, so the new row can be cached again
+        cache.put(updated);
+        assertEquals(updated, cache.get(customer.getId()).orElseThrow());
+    }
+
+    @Test
+    void apply_ShouldNotEvictNewerEntry_WhenInvalidationArrivesLate() {
+        cache.put(customer(customer.getId(), 5L));
+
+        cache.apply(new CacheInvalidation(customer.getId(), 4L));
+
+        assertEquals(5L, cache.get(customer.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void put_ShouldRejectStaleCopy_LoadedBeforeInvalidation() {
+        cache.apply(new CacheInvalidation(customer.getId(), 2L));
+
+        cache.put(customer(customer.getId(), 1L));
+        assertTrue(cache.get(customer.getId()).isEmpty());
+
+        cache.put(customer(customer.getId(), 2L));
+        assertTrue(cache.get(customer.getId()).isPresent());
+    }
+
+    @Test
+    void invalidateDeletedAfterCommit_ShouldEvictOnEveryReplicaSharingTheTransport() {
+        CustomerCache otherReplica = newCache(true);
+        cache.put(customer);
+        otherReplica.put(customer);
+
+        cache.invalidateDeletedAfterCommit(customer.getId());
+
+        assertTrue(cache.get(customer.getId()).isEmpty());
+        assertTrue(otherReplica.get(customer.getId()).isEmpty());
+        otherReplica.put(customer);
+        assertTrue(otherReplica.get(customer.getId()).isEmpty());
+    }
+
+    @Test
+    void get_ShouldAlwaysMiss_WhenCacheIsDisabled() {
+        CustomerCache disabled = newCache(false);
+
+        disabled.put(customer);
+
+        assertTrue(disabled.get(customer.getId()).isEmpty());
+    }
+
+    @Test
+    void cacheInvalidation_ShouldRoundTripThroughItsWireFormat() {
+        CacheInvalidation invalidation = new CacheInvalidation(customer.getId(), CacheInvalidation.DELETED);
+
+        byte[] encoded = invalidation.encode();
+
+        assertEquals(invalidation, CacheInvalidation.decode(encoded, 0, encoded.length));
+        assertTrue(invalidation.isDeletion());
+    }
+
+    private CustomerCache newCache(boolean enabled) {
+        CustomerCacheProperties properties = new CustomerCacheProperties(enabled, 100, Duration.ofMinutes(1),
+                new CustomerCacheProperties.Invalidation(CustomerCacheProperties.Transport.LOOPBACK, null, 0, 1, null,
+                        null, Duration.ofSeconds(10)));
+        return new CustomerCache(properties, meterRegistry, transport);
+    }
+
+    private static Customer customer(UUID id, Long version) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        customer.setFirstName("John");
+        customer.setVersion(version);
+        return customer;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.customer.cache;
+
+import com.example.customer.config.CustomerCacheProperties;
+import com.example.customer.repository.entity.Customer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerKeyIndexTest {
+
+    private LoopbackInvalidationTransport transport;
+    private CustomerKeyIndex keyIndex;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        transport = new LoopbackInvalidationTransport();
+        keyIndex = new CustomerKeyIndex(new CustomerCacheProperties(true, 100, Duration.ofMinutes(1),
+                new CustomerCacheProperties.Invalidation(CustomerCacheProperties.Transport.LOOPBACK, null, 0, 1, null,
+                        null, Duration.ofSeconds(10))),
+                transport);
+        customer = new Customer();
+        customer.setId(UUID.randomUUID());
+        customer.setFirstName("John");
+        customer.setLastName("Doe");
+        customer.setEmailAddress("john.doe@example.com");
+    }
+
+    @Test
+    void findConflict_ShouldReportNameAndEmail_OfCreatedCustomers() {
+        keyIndex.addAfterCommit(customer);
+
+        Customer sameName = new Customer();
+        sameName.setFirstName("John");
+        sameName.setLastName("Doe");
+        sameName.setEmailAddress("other@example.com");
+        Customer sameEmail = new Customer();
+        sameEmail.setFirstName("Jane");
+        sameEmail.setLastName("Roe");
+        sameEmail.setEmailAddress("john.doe@example.com");
+
+        assertEquals("Customer with the same name already exists", keyIndex.findConflict(sameName));
+        sameName.setLastName("Smith");
+        assertEquals("Customer with the same name already exists", keyIndex.findConflict(sameName));
+        assertEquals("Customer with email john.doe@example.com already exists", keyIndex.findConflict(sameEmail));
+    }
+
+    @Test
+    void findConflict_ShouldForgetKeys_WhenAnyReplicaInvalidatesTheCustomer() {
+        keyIndex.addAfterCommit(customer);
+
+        transport.publish(new CacheInvalidation(customer.getId(), 3L));
+
+        assertNull(keyIndex.findConflict(customer));
+    }
+}
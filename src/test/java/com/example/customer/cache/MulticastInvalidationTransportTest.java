@@ -0,0 +1,26 @@
+package com.example.customer.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MulticastInvalidationTransportTest {
+
+    @Test
+    void publish_ShouldReachEveryTransportJoinedToTheGroup() throws Exception {
+        try (MulticastInvalidationTransport first = new MulticastInvalidationTransport("239.255.42.99", 45446, 0, null);
+             MulticastInvalidationTransport second = new MulticastInvalidationTransport("239.255.42.99", 45446, 0, null)) {
+            CompletableFuture<CacheInvalidation> received = new CompletableFuture<>();
+            second.subscribe(received::complete);
+            CacheInvalidation invalidation = new CacheInvalidation(UUID.randomUUID(), 7L);
+
+            first.publish(invalidation);
+
+            assertEquals(invalidation, received.get(5, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.customer.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UnicastInvalidationTransportTest {
+
+    @Test
+    void publish_ShouldReachEveryPeer_AndThePublisherItself() throws Exception {
+        try (UnicastInvalidationTransport first = new UnicastInvalidationTransport(List.of("localhost:45448"), 45447,
+                Duration.ofSeconds(10));
+             UnicastInvalidationTransport second = new UnicastInvalidationTransport(List.of("localhost:45447"), 45448,
+                     Duration.ofSeconds(10))) {
+            CompletableFuture<CacheInvalidation> published = new CompletableFuture<>();
+            CompletableFuture<CacheInvalidation> received = new CompletableFuture<>();
+            first.subscribe(published::complete);
+            second.subscribe(received::complete);
+            CacheInvalidation invalidation = new CacheInvalidation(UUID.randomUUID(), 7L);
+
+            first.publish(invalidation);
+
+            assertEquals(invalidation, published.getNow(null));
+            assertEquals(invalidation, received.get(5, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -1,17 +1,28 @@
 package com.example.customer.controller;
 
+import com.example.customer.config.NameIndexProperties;
+import com.example.customer.config.PaginationProperties;
+import com.example.customer.exception.custom.CustomerNotFoundException;
 import com.example.customer.exception.custom.InvalidIdFormatException;
+import com.example.customer.exception.custom.PreconditionFailedException;
+import com.example.customer.exception.custom.ValidationException;
+import com.example.customer.exception.custom.VersionConflictException;
 import com.example.customer.repository.entity.Customer;
+import com.example.customer.search.NameMatch;
+import com.example.customer.service.CustomerSearch;
 import com.example.customer.service.CustomerService;
+import com.example.customer.utils.CustomerUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -23,7 +34,6 @@ class CustomerControllerTest {
     @Mock
     private CustomerService customerService;
 
-    @InjectMocks
     private CustomerController customerController;
 
     private Customer customer;
@@ -31,6 +41,8 @@ class CustomerControllerTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        customerController = new CustomerController(customerService, new ObjectMapper(), new PaginationProperties(2, 5),
+                new NameIndexProperties(true, 0.3, 10, 20));
         customer = new Customer();
         customer.setId(UUID.randomUUID());
         customer.setFirstName("John");
@@ -38,20 +50,98 @@ class CustomerControllerTest {
         customer.setLastName("Doe");
         customer.setEmailAddress("john.doe@example.com");
         customer.setPhoneNumber("1234567890");
+        customer.setVersion(3L);
     }
 
     @Test
     void getAllCustomers_ShouldReturnListOfCustomers() {
         // Arrange
-        when(customerService.getAllCustomers()).thenReturn(Arrays.asList(customer));
+        when(customerService.getCustomersPage(null, 2)).thenReturn(Arrays.asList(customer));
 
         // Act
-        var customers = customerController.getAllCustomers();
+        ResponseEntity<List<Customer>> response = customerController.getAllCustomers(null, null, null);
 
         // Assert
-        assertNotNull(customers);
-        assertEquals(1, customers.size());
-        verify(customerService, times(1)).getAllCustomers();
+        assertNotNull(response.getBody());
+        assertEquals(1, response.getBody().size());
+        assertFalse(response.getHeaders().containsKey(CustomerController.NEXT_CURSOR_HEADER));
+        verify(customerService, times(1)).getCustomersPage(null, 2);
+    }
+
+    @Test
+    void getAllCustomers_ShouldReturnNextCursor_WhenPageIsFull() {
+        // Arrange
+        Customer last = new Customer();
+        last.setId(UUID.randomUUID());
+        when(customerService.getCustomersPage(customer.getId(), 2)).thenReturn(List.of(customer, last));
+
+        // Act
+        ResponseEntity<List<Customer>> response = customerController.getAllCustomers(
+                CustomerUtils.encodeCursor(customer.getId()), 2, null);
+
+        // Assert
+        assertEquals(CustomerUtils.encodeCursor(last.getId()),
+                response.getHeaders().getFirst(CustomerController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void getAllCustomers_ShouldClampLimitToMaxPageSize() {
+        // Arrange
+        when(customerService.getCustomersPage(null, 5)).thenReturn(List.of(customer));
+
+        // Act
+        customerController.getAllCustomers(null, 10_000, null);
+
+        // Assert
+        verify(customerService, times(1)).getCustomersPage(null, 5);
+    }
+
+    @Test
+    void getAllCustomers_ShouldRejectInvalidCursorAndLimit() {
+        assertThrows(InvalidIdFormatException.class, () -> customerController.getAllCustomers("not-a-cursor", null, null));
+        assertThrows(ValidationException.class, () -> customerController.getAllCustomers(null, 0, null));
+        verify(customerService, never()).getCustomersPage(any(), anyInt());
+    }
+
+    @Test
+    void searchCustomers_ShouldPassFiltersAndReturnNextCursor_WhenPageIsFull() {
+        // Arrange
+        Customer last = new Customer();
+        last.setId(UUID.randomUUID());
+        CustomerSearch search = new CustomerSearch("Jo", null, "john.doe@example.com", null, true);
+        when(customerService.searchCustomers(search, null, 2)).thenReturn(List.of(customer, last));
+
+        // Act
+        ResponseEntity<List<Customer>> response = customerController.searchCustomers(
+                "Jo", " ", "john.doe@example.com", null, "prefix", null, null);
+
+        // Assert
+        assertEquals(2, response.getBody().size());
+        assertEquals(CustomerUtils.encodeCursor(last.getId()),
+                response.getHeaders().getFirst(CustomerController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void searchCustomers_ShouldRejectMissingFiltersAndUnknownMatch() {
+        assertThrows(ValidationException.class,
+                () -> customerController.searchCustomers(null, "", null, null, "prefix", null, null));
+        assertThrows(ValidationException.class,
+                () -> customerController.searchCustomers("Jo", null, null, null, "fuzzy", null, null));
+        verifyNoInteractions(customerService);
+    }
+
+    @Test
+    void searchCustomersByName_ShouldClampLimitAndRejectBlankQuery() {
+        // Arrange
+        NameMatch match = new NameMatch(customer.getId(), "John", "Doe", 0.8);
+        when(customerService.searchCustomersByName("jon doe", 20)).thenReturn(List.of(match));
+
+        // Act
+        ResponseEntity<List<NameMatch>> response = customerController.searchCustomersByName("jon doe", 500);
+
+        // Assert
+        assertEquals(List.of(match), response.getBody());
+        assertThrows(ValidationException.class, () -> customerController.searchCustomersByName(" ", null));
     }
 
     @Test
@@ -61,7 +151,7 @@ class CustomerControllerTest {
         when(customerService.getCustomerById(id)).thenReturn(Optional.of(customer));
 
         // Act
-        ResponseEntity<Customer> response = customerController.getCustomerById(id.toString());
+        ResponseEntity<Customer> response = customerController.getCustomerById(id.toString(), null);
 
         // Assert
         assertNotNull(response);
@@ -71,31 +161,119 @@ class CustomerControllerTest {
     }
 
     @Test
-    void getCustomerById_ShouldReturnNotFound_WhenCustomerDoesNotExist() {
+    void getCustomerById_ShouldReturnNotModified_WhenETagMatches() {
         // Arrange
-        UUID id = UUID.randomUUID();
-        when(customerService.getCustomerById(id)).thenReturn(Optional.empty());
+        UUID id = customer.getId();
+        when(customerService.getCustomerById(id)).thenReturn(Optional.of(customer));
 
         // Act
-        ResponseEntity<Customer> response = customerController.getCustomerById(id.toString());
+        ResponseEntity<Customer> response = customerController.getCustomerById(id.toString(), "\"3\"");
 
         // Assert
-        assertNotNull(response);
-        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"3\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void getAllCustomers_ShouldReturnNotModified_WithoutLoadingPage_WhenTableVersionMatches() {
+        // Arrange
+        when(customerService.getCustomersVersion()).thenReturn(42L);
+
+        // Act
+        ResponseEntity<List<Customer>> response = customerController.getAllCustomers(null, null, "W/\"42\"");
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        verify(customerService, never()).getCustomersPage(any(), anyInt());
+    }
+
+    @Test
+    void updateCustomer_ShouldThrowPreconditionFailedException_WhenIfMatchIsStale() {
+        // Arrange
+        UUID id = customer.getId();
+        when(customerService.updateCustomer(eq(id), any(Customer.class)))
+                .thenThrow(new VersionConflictException("Customer with ID " + id + " was modified"));
+
+        // Act & Assert
+        assertThrows(PreconditionFailedException.class,
+                () -> customerController.updateCustomer(id.toString(), customer, "\"2\""));
+        assertEquals(2L, customer.getVersion());
+    }
+
+    @Test
+    void deleteCustomer_ShouldTryEachStrongTag_WhenIfMatchIsAList() {
+        // Arrange
+        UUID id = customer.getId();
+        doThrow(new VersionConflictException("Customer with ID " + id + " was modified"))
+                .when(customerService).deleteCustomer(id, 3L);
+
+        // Act
+        ResponseEntity<Void> response = customerController.deleteCustomer(id.toString(), "W/\"1\", \"3\", \"4\"");
+
+        // Assert
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(customerService).deleteCustomer(id, 3L);
+        verify(customerService).deleteCustomer(id, 4L);
+        verify(customerService, never()).deleteCustomer(id, 1L);
+    }
+
+    @Test
+    void deleteCustomer_ShouldThrowPreconditionFailedException_WhenIfMatchHasOnlyWeakTags() {
+        // Arrange
+        UUID id = customer.getId();
+
+        // Act & Assert
+        assertThrows(PreconditionFailedException.class,
+                () -> customerController.deleteCustomer(id.toString(), "W/\"1\", W/\"2\""));
+        verifyNoInteractions(customerService);
+    }
+
+    @Test
+    void getCustomerById_ShouldThrowCustomerNotFoundException_WhenCustomerDoesNotExist() {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        when(customerService.getCustomerById(id)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        CustomerNotFoundException ex = assertThrows(CustomerNotFoundException.class,
+                () -> customerController.getCustomerById(id.toString(), null));
+        assertEquals(HttpStatus.NOT_FOUND, ex.getStatus());
+        // Expected outcome, thrown without capturing a stack trace
+        assertEquals(0, ex.getStackTrace().length);
         verify(customerService, times(1)).getCustomerById(id);
     }
 
     @Test
     void getCustomerById_ShouldThrowInvalidIdFormatException_WhenIdIsInvalid() {
         // Act & Assert
-        assertThrows(IllegalArgumentException.class, () -> {
-            customerController.getCustomerById("invalid-uuid");
+        assertThrows(InvalidIdFormatException.class, () -> {
+            customerController.getCustomerById("invalid-uuid", null);
         });
+        // Right length, but not hex or with the hyphens out of place
+        assertThrows(InvalidIdFormatException.class, () ->
+                customerController.getCustomerById("zzzzzzzz-0000-0000-0000-000000000000", null));
+        assertThrows(InvalidIdFormatException.class, () ->
+                customerController.getCustomerById("00000000000-00-0000-0000-000000000000", null));
 
         // Verify that the service is never called
         verify(customerService, never()).getCustomerById(any());
     }
 
+    @Test
+    void getCustomerById_ShouldAcceptUpperCaseId() {
+        // Arrange
+        UUID id = customer.getId();
+        when(customerService.getCustomerById(id)).thenReturn(Optional.of(customer));
+
+        // Act
+        ResponseEntity<Customer> response = customerController.getCustomerById(id.toString().toUpperCase(), null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(customerService, times(1)).getCustomerById(id);
+    }
+
     @Test
     void createCustomer_ShouldReturnCreatedCustomer() {
         // Arrange
@@ -111,6 +289,21 @@ class CustomerControllerTest {
         verify(customerService, times(1)).saveCustomer(customer);
     }
 
+    @Test
+    void createCustomer_ShouldReturnAccepted_WhenCreateIsOnlyQueued() {
+        // Arrange
+        customer.setVersion(null);
+        when(customerService.saveCustomer(customer)).thenReturn(customer);
+
+        // Act
+        ResponseEntity<Customer> response = customerController.createCustomer(customer);
+
+        // Assert
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals("/api/customers/" + customer.getId(), response.getHeaders().getLocation().toString());
+        assertNull(response.getHeaders().getETag());
+    }
+
     @Test
     void updateCustomer_ShouldReturnUpdatedCustomer() {
         // Arrange
@@ -118,7 +311,7 @@ class CustomerControllerTest {
         when(customerService.updateCustomer(eq(id), any(Customer.class))).thenReturn(customer);
 
         // Act
-        ResponseEntity<Customer> response = customerController.updateCustomer(id.toString(), customer);
+        ResponseEntity<Customer> response = customerController.updateCustomer(id.toString(), customer, null);
 
         // Assert
         assertNotNull(response);
@@ -127,11 +320,27 @@ class CustomerControllerTest {
         verify(customerService, times(1)).updateCustomer(eq(id), any(Customer.class));
     }
 
+    @Test
+    void patchCustomer_ShouldReturnPatchedCustomer() {
+        // Arrange
+        UUID id = customer.getId();
+        Map<String, Object> patch = Map.of("phoneNumber", "5550100");
+        when(customerService.patchCustomer(id, patch)).thenReturn(customer);
+
+        // Act
+        ResponseEntity<Customer> response = customerController.patchCustomer(id.toString(), patch, null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(customer, response.getBody());
+        verify(customerService, times(1)).patchCustomer(id, patch);
+    }
+
     @Test
     void updateCustomer_ShouldThrowInvalidIdFormatException_WhenIdIsInvalid() {
         // Act & Assert
-        assertThrows(IllegalArgumentException.class, () -> {
-            customerController.updateCustomer("invalid-uuid", customer);
+        assertThrows(InvalidIdFormatException.class, () -> {
+            customerController.updateCustomer("invalid-uuid", customer, null);
         });
     }
 
@@ -139,30 +348,26 @@ class CustomerControllerTest {
     void deleteCustomer_ShouldReturnNoContent_WhenCustomerExists() {
         // Arrange
         UUID id = customer.getId();
-        when(customerService.getCustomerById(id)).thenReturn(Optional.of(customer));
-        doNothing().when(customerService).deleteCustomer(id);
+        doNothing().when(customerService).deleteCustomer(id, null);
 
         // Act
-        ResponseEntity<Void> response = customerController.deleteCustomer(id.toString());
+        ResponseEntity<Void> response = customerController.deleteCustomer(id.toString(), null);
 
         // Assert
         assertNotNull(response);
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
-        verify(customerService, times(1)).deleteCustomer(id);
+        verify(customerService, times(1)).deleteCustomer(id, null);
+        verify(customerService, never()).getCustomerById(any());
     }
 
     @Test
-    void deleteCustomer_ShouldReturnNotFound_WhenCustomerDoesNotExist() {
+    void deleteCustomer_ShouldThrowCustomerNotFoundException_WhenCustomerDoesNotExist() {
         // Arrange
         UUID id = UUID.randomUUID();
-        when(customerService.getCustomerById(id)).thenReturn(Optional.empty());
-
-        // Act
-        ResponseEntity<Void> response = customerController.deleteCustomer(id.toString());
+        doThrow(new CustomerNotFoundException("Customer with ID " + id + " not found"))
+                .when(customerService).deleteCustomer(id, null);
 
-        // Assert
-        assertNotNull(response);
-        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        verify(customerService, times(0)).deleteCustomer(id);
+        // Act & Assert
+        assertThrows(CustomerNotFoundException.class, () -> customerController.deleteCustomer(id.toString(), null));
     }
 }
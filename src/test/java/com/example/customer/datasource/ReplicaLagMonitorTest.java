@@ -0,0 +1,90 @@
+package com.example.customer.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaLagMonitorTest {
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private ReplicaLagMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(database("primary"));
+        replica = new JdbcTemplate(database("replica"));
+        monitor = new ReplicaLagMonitor(primary.getDataSource(), replica.getDataSource(), Duration.ofMillis(100));
+    }
+
+    @Test
+    void isUsable_ShouldBeFalse_UntilTheFirstCheck() {
+        assertFalse(monitor.isUsable());
+        assertTrue(Double.isNaN(monitor.lagSeconds()));
+
+        monitor.check();
+
+        assertTrue(monitor.isUsable());
+    }
+
+    @Test
+    void isUsable_ShouldBeFalse_OnceReplicaTrailsByMoreThanMaxLag() throws InterruptedException {
+        monitor.check();
+        setVersion(primary, 1);
+
+        monitor.check();
+        Thread.sleep(150);
+        monitor.check();
+        assertFalse(monitor.isUsable());
+
+        // Replicated: caught up again as of this check
+        setVersion(replica, 1);
+        monitor.check();
+        assertTrue(monitor.isUsable());
+    }
+
+    @Test
+    void isUsable_ShouldStayTrue_WhileReplicaFollowsAContinuouslyWrittenPrimary() throws InterruptedException {
+        monitor = new ReplicaLagMonitor(primary.getDataSource(), replica.getDataSource(), Duration.ofSeconds(1));
+        for (int version = 1; version <= 5; version++) {
+            setVersion(primary, version);
+            // The replica never holds the primary's current version, only the one from the previous check
+            monitor.check();
+            setVersion(replica, version);
+            Thread.sleep(10);
+        }
+
+        assertTrue(monitor.isUsable());
+        assertTrue(monitor.lagSeconds() < 1);
+    }
+
+    @Test
+    void isUsable_ShouldBeFalse_WhenReplicaIsUnreachable() {
+        monitor.check();
+        replica.execute("drop table table_version");
+
+        monitor.check();
+
+        assertFalse(monitor.isUsable());
+    }
+
+    private static void setVersion(JdbcTemplate database, long version) {
+        database.update("update table_version set version = ? where name = 'customer_change_offset'", version);
+    }
+
+    private static JdbcDataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table table_version (name varchar(64) primary key, version bigint not null)");
+        jdbcTemplate.update("insert into table_version (name, version) values ('customer_change_offset', 0)");
+        jdbcTemplate.execute("create table customer_change (change_offset bigint)");
+        return dataSource;
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.customer.integration;
 
 import com.example.customer.repository.entity.Customer;
+import com.example.customer.utils.CustomerUtils;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Order;
@@ -12,9 +13,15 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
@@ -68,11 +75,130 @@ public class IntegrationTest {
                 .andExpect(jsonPath("$.emailAddress").value("Shiva.Kumar@example.com"));
     }
 
+    @Test
+    @Transactional
+    void getAllCustomers_ShouldReturnNextCursor_WhenPageIsFull() throws Exception {
+        mockMvc.perform(get("/api/customers").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().exists("X-Next-Cursor"));
+    }
+
+    @Test
+    @Transactional
+    void createCustomer_ShouldAssignTimeOrderedIds_SoTheNewestPagesLast() throws Exception {
+        String response = mockMvc.perform(post("/api/customers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"Later\",\"lastName\":\"Created\",\"emailAddress\":\"Later.Created@example.com\"}"))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        UUID laterId = objectMapper.readValue(response, Customer.class).getId();
+
+        assertEquals(7, testCustomer.getId().version());
+        assertTrue(laterId.compareTo(testCustomer.getId()) > 0);
+        mockMvc.perform(get("/api/customers")
+                        .param("cursor", CustomerUtils.encodeCursor(testCustomer.getId()))
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(laterId.toString()));
+    }
+
+    @Test
+    @Transactional
+    void streamAllCustomers_ShouldWriteJsonArray() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/customers/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$").isArray());
+    }
+
+    @Test
+    @Transactional
+    void createCustomer_ShouldReturnConflict_WhenEmailAlreadyExists() throws Exception {
+        Customer duplicate = new Customer();
+        duplicate.setFirstName("Ravi");
+        duplicate.setLastName("Shankar");
+        duplicate.setEmailAddress("Shiva.Kumar@example.com");
+
+        mockMvc.perform(post("/api/customers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(duplicate)))
+                .andExpect(status().isConflict())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.type").value("about:blank"))
+                .andExpect(jsonPath("$.title").value("Conflict"))
+                .andExpect(jsonPath("$.status").value(409))
+                .andExpect(jsonPath("$.detail").value("Customer with email Shiva.Kumar@example.com already exists"))
+                .andExpect(jsonPath("$.instance").value("/api/customers"));
+    }
+
     @Test
     @Transactional
     void getCustomerById_ShouldReturnNotFound_WhenCustomerKumarsNotExist() throws Exception {
+        UUID id = UUID.randomUUID();
+        mockMvc.perform(get("/api/customers/" + id))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.title").value("Not Found"))
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.detail").value("Customer with ID " + id + " not found"))
+                .andExpect(jsonPath("$.instance").value("/api/customers/" + id));
+    }
+
+    @Test
+    @Transactional
+    void getCustomerById_ShouldReturnBadRequest_WhenIdIsMalformed() throws Exception {
+        mockMvc.perform(get("/api/customers/not-a-uuid"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.detail").value("Invalid ID format: not-a-uuid"));
+    }
+
+    @Test
+    @Transactional
+    void frameworkRejections_ShouldKeepTheirClientErrorStatus() throws Exception {
+        mockMvc.perform(get("/api/nope"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.instance").value("/api/nope"));
+        mockMvc.perform(get("/api/customers").param("limit", "abc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Invalid value for limit"));
+        mockMvc.perform(get("/api/customers/search/fuzzy"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON));
+        mockMvc.perform(post("/api/customers").contentType(MediaType.APPLICATION_JSON).content("{\"firstName\":"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Malformed request body"));
+        mockMvc.perform(delete("/api/customers/batch").contentType(MediaType.APPLICATION_JSON).content("[\"not-a-uuid\"]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Malformed request body"));
+        mockMvc.perform(delete("/api/customers"))
+                .andExpect(status().isMethodNotAllowed())
+                .andExpect(header().exists("Allow"));
+    }
+
+    @Test
+    @Transactional
+    void metrics_ShouldRecordServiceTimersAndErrorCounters() throws Exception {
         mockMvc.perform(get("/api/customers/" + UUID.randomUUID()))
                 .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/actuator/metrics/customer.service").param("tag", "method:getCustomerById"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[?(@.statistic == 'COUNT')].value").isNotEmpty());
+        mockMvc.perform(get("/actuator/metrics/customer.api.errors")
+                        .param("tag", "exception:CustomerNotFoundException")
+                        .param("tag", "status:404"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics/spring.data.repository.invocations"))
+                .andExpect(status().isOk());
     }
 
     @Test
@@ -87,8 +213,136 @@ public class IntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(updatedCustomerJson))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.version").value(1))
                 .andExpect(jsonPath("$.firstName").value("Lalita"))
                 .andExpect(jsonPath("$.emailAddress").value("Lalita.Kumar@example.com"));
+
+        // Still one statement without a version, the constraint names the clash
+        Customer other = new Customer();
+        other.setFirstName("Other");
+        other.setLastName("Person");
+        other.setEmailAddress("Other.Person@example.com");
+        String otherId = objectMapper.readTree(mockMvc.perform(post("/api/customers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(other)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString()).get("id").asText();
+        other.setEmailAddress("Lalita.Kumar@example.com");
+        mockMvc.perform(put("/api/customers/" + otherId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(other)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.detail").value("Customer with email Lalita.Kumar@example.com already exists"));
+    }
+
+    @Test
+    @Transactional
+    void updateCustomer_ShouldReturnConflict_WhenVersionIsStale() throws Exception {
+        testCustomer.setVersion(0L);
+        testCustomer.setFirstName("Lalita");
+
+        mockMvc.perform(put("/api/customers/" + testCustomer.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testCustomer)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(1));
+
+        // A second writer still holding version 0 must not overwrite the first
+        testCustomer.setFirstName("Meera");
+        mockMvc.perform(put("/api/customers/" + testCustomer.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testCustomer)))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(get("/api/customers/" + testCustomer.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value("Lalita"));
+    }
+
+    @Test
+    @Transactional
+    void patchCustomer_ShouldUpdateOnlyGivenFields_AndSkipNoOpWrites() throws Exception {
+        mockMvc.perform(patch("/api/customers/" + testCustomer.getId())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"phoneNumber\": \"5550100\", \"middleName\": null}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.phoneNumber").value("5550100"))
+                .andExpect(jsonPath("$.firstName").value("Shiva"))
+                .andExpect(jsonPath("$.version").value(1));
+
+        // Same value again: nothing is written, the version stays put
+        mockMvc.perform(patch("/api/customers/" + testCustomer.getId())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"phoneNumber\": \"5550100\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(1));
+
+        mockMvc.perform(patch("/api/customers/" + testCustomer.getId())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"nickname\": \"Shiv\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void conditionalRequests_ShouldUseVersionETags() throws Exception {
+        String etag = mockMvc.perform(get("/api/customers/" + testCustomer.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0\""))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/customers/" + testCustomer.getId()).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        String listETag = mockMvc.perform(get("/api/customers"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/customers").header("If-None-Match", listETag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(delete("/api/customers/" + testCustomer.getId()).header("If-Match", "\"7\""))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(put("/api/customers/" + testCustomer.getId())
+                        .header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testCustomer)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""));
+    }
+
+    @Test
+    @Transactional
+    void conditionalWrites_ShouldSucceed_WhenAnyStrongTagInIfMatchMatches() throws Exception {
+        String uri = "/api/customers/" + testCustomer.getId();
+
+        mockMvc.perform(put(uri)
+                        .header("If-Match", "W/\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testCustomer)))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(put(uri)
+                        .header("If-Match", "\"7\", W/\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testCustomer)))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(put(uri)
+                        .header("If-Match", "\"7\", \"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testCustomer)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""));
+        mockMvc.perform(patch(uri)
+                        .header("If-Match", "\"1\", \"9\"")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"middleName\":\"M\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2\""));
+        mockMvc.perform(delete(uri).header("If-Match", "\"3\", \"4\""))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete(uri).header("If-Match", "\"4\",\"2\""))
+                .andExpect(status().isNoContent());
     }
 
     @Test
@@ -107,6 +361,30 @@ public class IntegrationTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    void conditionalWrites_ShouldFailPrecondition_WhenCustomerDoesNotExist() throws Exception {
+        String missing = "/api/customers/" + UUID.randomUUID();
+
+        mockMvc.perform(put(missing)
+                        .header("If-Match", "*")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testCustomer)))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(patch(missing)
+                        .header("If-Match", "*")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"middleName\":\"M\"}"))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete(missing).header("If-Match", "*"))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete(missing).header("If-Match", "\"0\""))
+                .andExpect(status().isPreconditionFailed());
+        // Without If-Match it stays a plain 404
+        mockMvc.perform(delete(missing))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @Transactional
     void deleteCustomer_ShouldReturnNoContent_WhenCustomerExists() throws Exception {
@@ -118,10 +396,267 @@ public class IntegrationTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void batchCreateAndDelete_ShouldReturnPerItemResults() throws Exception {
+        Customer first = new Customer();
+        first.setFirstName("Arjun");
+        first.setLastName("Rao");
+        first.setEmailAddress("Arjun.Rao@example.com");
+        Customer duplicate = new Customer();
+        duplicate.setFirstName("Shiva");
+        duplicate.setLastName("Kumar");
+        duplicate.setEmailAddress("Shiva.Kumar2@example.com");
+        String listETag = mockMvc.perform(get("/api/customers"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        String response = mockMvc.perform(post("/api/customers/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(first, duplicate))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(201))
+                .andExpect(jsonPath("$[1].status").value(409))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String createdId = objectMapper.readTree(response).get(0).get("id").asText();
+
+        mockMvc.perform(delete("/api/customers/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(createdId, testCustomer.getId()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(204))
+                .andExpect(jsonPath("$[1].status").value(204));
+
+        // Committed writes moved the table version, so the old list ETag no longer matches
+        mockMvc.perform(get("/api/customers").header("If-None-Match", listETag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @Transactional
+    void searchCustomers_ShouldMatchPrefixesAndEmailCaseInsensitively() throws Exception {
+        mockMvc.perform(get("/api/customers/search").param("firstName", "Shi").param("phoneNumber", "321"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(testCustomer.getId().toString()));
+
+        mockMvc.perform(get("/api/customers/search")
+                        .param("emailAddress", "shiva.kumar@EXAMPLE.com").param("match", "exact"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].emailAddressLower").doesNotExist());
+
+        mockMvc.perform(get("/api/customers/search").param("lastName", "Kum").param("match", "exact"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+
+        mockMvc.perform(get("/api/customers/search"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchCustomersByName_ShouldFindCustomerDespiteTypos_AndForgetDeletedOnes() throws Exception {
+        mockMvc.perform(get("/api/customers/search/fuzzy").param("q", "Shiva Kumr"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(testCustomer.getId().toString()))
+                .andExpect(jsonPath("$[0].score").isNumber());
+
+        mockMvc.perform(delete("/api/customers/" + testCustomer.getId()))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/customers/search/fuzzy").param("q", "Shiva Kumr"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    // Not @Transactional: changes are only appended when the write commits
+    @Test
+    void changeFeed_ShouldListCommittedWrites_AndWakeWaitingConsumers() throws Exception {
+        String head = mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/customers/changes")).andReturn()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("X-Next-Offset");
+
+        mockMvc.perform(patch("/api/customers/" + testCustomer.getId())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"middleName\":\"M\"}"))
+                .andExpect(status().isOk());
+        // Offsets are assigned just after the commit, so this read waits in case it gets there first
+        String afterPatch = mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/customers/changes")
+                        .param("after", head).param("wait", "10")).andReturn()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].type").value("UPDATED"))
+                .andExpect(jsonPath("$[0].customerId").value(testCustomer.getId().toString()))
+                .andExpect(jsonPath("$[0].customerVersion").value(1))
+                .andExpect(jsonPath("$[0].customer.middleName").value("M"))
+                .andReturn().getResponse().getHeader("X-Next-Offset");
+
+        // Nothing after the patch yet, so this one waits for the delete
+        MvcResult waiting = mockMvc.perform(get("/api/customers/changes").param("after", afterPatch).param("wait", "10"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(delete("/api/customers/" + testCustomer.getId()))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(asyncDispatch(waiting))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].type").value("DELETED"))
+                .andExpect(jsonPath("$[0].customerId").value(testCustomer.getId().toString()))
+                .andExpect(jsonPath("$[0].customer").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void importCustomers_ShouldReportRejectedLines_AndImportTheRest() throws Exception {
+        String ndjson = """
+                {"firstName":"Imported","lastName":"One","emailAddress":"Imported.One@example.com"}
+
+                not json
+                {"firstName":"Imported","lastName":"Two","emailAddress":"no-at-sign"}
+                {"firstName":"Shiva","lastName":"Kumar","emailAddress":"Shiva.Kumar@example.com"}
+                """;
+        String report = mockMvc.perform(post("/api/customers/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = report.lines().toList();
+        assertEquals(4, lines.size());
+        assertEquals("{\"type\":\"error\",\"line\":3,\"status\":400,\"message\":\"Malformed JSON: "
+                + "Unrecognized token 'not': was expecting (JSON String, Number, Array, Object or token 'null', "
+                + "'true' or 'false')\"}", lines.get(0));
+        assertEquals("{\"type\":\"error\",\"line\":4,\"status\":400,\"message\":\"Invalid email address\"}",
+                lines.get(1));
+        assertEquals("{\"type\":\"error\",\"line\":5,\"status\":409,"
+                + "\"message\":\"Customer with the same name already exists\"}", lines.get(2));
+        assertEquals("{\"type\":\"progress\",\"records\":4,\"imported\":1,\"failed\":3,\"done\":true}",
+                lines.get(3));
+
+        mockMvc.perform(get("/api/customers/search").param("emailAddress", "Imported.One@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    // Not transactional: the export streams on another thread, it only sees committed customers
+    @Test
+    void importThenExport_ShouldRoundTripQuotedCsvFields() throws Exception {
+        String csv = "firstName,lastName,emailAddress,middleName,source\r\n"
+                + "Round,Trip,Round.Trip@example.com,\"Smith, \"\"Jr\"\"\",legacy\r\n"
+                + "Second,Row,Second.Row@example.com,,legacy\r\n";
+        mockMvc.perform(post("/api/customers/import")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(content().string(
+                        "{\"type\":\"progress\",\"records\":2,\"imported\":2,\"failed\":0,\"done\":true}\n"));
+
+        String exported = mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/customers/export")
+                        .param("format", "csv")).andReturn()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(exported.startsWith("id,version,firstName,middleName,lastName,emailAddress,phoneNumber\r\n"));
+        assertTrue(exported.contains(",0,Round,\"Smith, \"\"Jr\"\"\",Trip,Round.Trip@example.com,\r\n"));
+        assertTrue(exported.contains(",0,Second,,Row,Second.Row@example.com,\r\n"));
+
+        List<Customer> customers = exportCustomers();
+        Customer roundTrip = customers.stream()
+                .filter(customer -> customer.getEmailAddress().equals("Round.Trip@example.com"))
+                .findFirst().orElseThrow();
+        assertEquals("Smith, \"Jr\"", roundTrip.getMiddleName());
+
+        List<UUID> created = customers.stream()
+                .filter(customer -> List.of("Round.Trip@example.com", "Second.Row@example.com", "Shiva.Kumar@example.com")
+                        .contains(customer.getEmailAddress()))
+                .map(Customer::getId)
+                .toList();
+        assertEquals(3, created.size());
+        mockMvc.perform(delete("/api/customers/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(created)))
+                .andExpect(status().isOk());
+    }
+
+    // Not transactional, like the round trip above
+    @Test
+    void exportThenImport_ShouldKeepCustomerIds_AndRejectThemOnceTheyExist() throws Exception {
+        List<String> emails = List.of("Moved.One@example.com", "Moved.Two@example.com");
+        mockMvc.perform(post("/api/customers/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("""
+                                {"firstName":"Moved","lastName":"One","emailAddress":"Moved.One@example.com"}
+                                {"firstName":"Moving","lastName":"Two","emailAddress":"Moved.Two@example.com"}
+                                """))
+                .andExpect(status().isOk());
+        List<Customer> exported = exportCustomers().stream()
+                .filter(customer -> emails.contains(customer.getEmailAddress()))
+                .toList();
+        List<UUID> ids = exported.stream().map(Customer::getId).toList();
+        assertEquals(2, ids.size());
+        String file = exported.stream().map(customer -> {
+            try {
+                return objectMapper.writeValueAsString(customer);
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        }).collect(Collectors.joining("\n"));
+
+        // Into an environment without them
+        mockMvc.perform(delete("/api/customers/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ids)))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/customers/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(file))
+                .andExpect(status().isOk())
+                .andExpect(content().string(
+                        "{\"type\":\"progress\",\"records\":2,\"imported\":2,\"failed\":0,\"done\":true}\n"));
+        assertEquals(ids, exportCustomers().stream()
+                .filter(customer -> emails.contains(customer.getEmailAddress()))
+                .map(Customer::getId)
+                .toList());
+
+        // The same file again creates no copies
+        String report = mockMvc.perform(post("/api/customers/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(file))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(report.endsWith(
+                "{\"type\":\"progress\",\"records\":2,\"imported\":0,\"failed\":2,\"done\":true}\n"), report);
+        assertEquals(2, report.lines().filter(line -> line.contains("\"status\":409")).count(), report);
+
+        List<UUID> created = new ArrayList<>(ids);
+        created.add(testCustomer.getId());
+        mockMvc.perform(delete("/api/customers/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(created)))
+                .andExpect(status().isOk());
+    }
+
     @Test
     @Transactional
     void deleteCustomer_ShouldReturnNotFound_WhenCustomerKumarsNotExist() throws Exception {
         mockMvc.perform(delete("/api/customers/" + UUID.randomUUID()))
                 .andExpect(status().isNotFound());
     }
+
+    private List<Customer> exportCustomers() throws Exception {
+        return mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/customers/export")).andReturn()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString().lines()
+                .map(line -> {
+                    try {
+                        return objectMapper.readValue(line, Customer.class);
+                    } catch (Exception ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                })
+                .toList();
+    }
 }
@@ -0,0 +1,117 @@
+package com.example.customer.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Budgets far below what a test sends, refilling too slowly to recover while it runs
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "customer.rate-limit.enabled=true",
+        "customer.rate-limit.api-keys=first-client,second-client",
+        "customer.rate-limit.reads.per-second=0.01",
+        "customer.rate-limit.reads.burst=3",
+        "customer.rate-limit.writes.per-second=0.01",
+        "customer.rate-limit.writes.burst=1",
+        "customer.load-shedding.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:ratelimit;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class RateLimitIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void requests_ShouldBeLimitedPerClientAndBudget_WithRetryAfter() throws Exception {
+        String client = "first-client";
+        mockMvc.perform(delete("/api/customers/" + UUID.randomUUID()).header("X-API-Key", client))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/api/customers/" + UUID.randomUUID()).header("X-API-Key", client))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.status").value(429));
+
+        // Reads have their own budget, and other clients their own buckets
+        mockMvc.perform(get("/api/customers").header("X-API-Key", client))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/customers/" + UUID.randomUUID()).header("X-API-Key", "second-client"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void requests_ShouldFallBackToTheAddress_AndNeverLimitActuator() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/customers").with(request -> {
+                        request.setRemoteAddr("10.0.0.7");
+                        return request;
+                    }))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/api/customers").with(request -> {
+                    request.setRemoteAddr("10.0.0.7");
+                    return request;
+                }))
+                .andExpect(status().isTooManyRequests());
+
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(get("/actuator/health"))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    void requests_ShouldKeyUnknownApiKeysByTheAddress() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/customers").header("X-API-Key", UUID.randomUUID().toString())
+                            .with(request -> {
+                                request.setRemoteAddr("10.0.0.8");
+                                return request;
+                            }))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/api/customers").header("X-API-Key", UUID.randomUUID().toString())
+                        .with(request -> {
+                            request.setRemoteAddr("10.0.0.8");
+                            return request;
+                        }))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    // Through the real connector: both clients reach it from the loopback address of a trusted proxy
+    @Test
+    void requests_ShouldKeepClientsBehindOneProxyApart() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, forwardedFor(client, "203.0.113.10"));
+        }
+        assertEquals(429, forwardedFor(client, "203.0.113.10"));
+        assertEquals(200, forwardedFor(client, "203.0.113.11"));
+    }
+
+    private int forwardedFor(HttpClient client, String address) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/customers"))
+                        .header("X-Forwarded-For", address).GET().build(), HttpResponse.BodyHandlers.discarding())
+                .statusCode();
+    }
+}
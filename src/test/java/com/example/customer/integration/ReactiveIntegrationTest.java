@@ -0,0 +1,275 @@
+package com.example.customer.integration;
+
+import com.example.customer.repository.CustomerChangeRepository;
+import com.example.customer.repository.entity.Customer;
+import com.example.customer.repository.entity.CustomerChange;
+import com.example.customer.service.CustomerChangeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The same contract as IntegrationTest, served by WebFlux and R2DBC
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactivedb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.r2dbc.url=r2dbc:pool:h2:mem:///reactivedb?options=DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.r2dbc.username=sa"
+})
+@AutoConfigureWebTestClient
+@ActiveProfiles({"test", "reactive"})
+public class ReactiveIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private CustomerChangeRepository changeRepository;
+
+    @Autowired
+    private CustomerChangeService changeService;
+
+    @Test
+    void createCustomer_ShouldReturnCreatedCustomerWithETag() {
+        EntityExchangeResult<Customer> created = create("ReactiveCreate", "Create");
+
+        Customer customer = created.getResponseBody();
+        assertNotNull(customer.getId());
+        assertEquals("\"0\"", created.getResponseHeaders().getETag());
+
+        webTestClient.get().uri("/api/customers/" + customer.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo("ReactiveCreate")
+                .jsonPath("$.emailAddress").isEqualTo("ReactiveCreate.Create@example.com");
+
+        webTestClient.get().uri("/api/customers/" + customer.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    void createCustomer_ShouldReturnConflictProblem_WhenEmailIsTaken() {
+        create("ReactiveDuplicate", "Duplicate");
+
+        webTestClient.post().uri("/api/customers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(customerJson("Other", "Person", "ReactiveDuplicate.Duplicate@example.com"))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(409)
+                .jsonPath("$.instance").isEqualTo("/api/customers");
+    }
+
+    @Test
+    void createCustomer_ShouldReturnBadRequest_WhenInvalid() {
+        webTestClient.post().uri("/api/customers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"firstName\":\"No\",\"lastName\":\"Email\"}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON);
+    }
+
+    @Test
+    void getCustomerById_ShouldReturnProblems_ForMalformedAndMissingIds() {
+        webTestClient.get().uri("/api/customers/not-a-uuid")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.instance").isEqualTo("/api/customers/not-a-uuid");
+
+        webTestClient.get().uri("/api/customers/" + UUID.randomUUID())
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON);
+    }
+
+    @Test
+    void updateCustomer_ShouldRejectStaleIfMatch_AndAcceptCurrentOne() {
+        UUID id = create("ReactiveUpdate", "Update").getResponseBody().getId();
+
+        webTestClient.put().uri("/api/customers/" + id)
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(customerJson("Renamed", "Update", "reactiveupdate.update@example.com"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"")
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo("Renamed");
+
+        webTestClient.put().uri("/api/customers/" + id)
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(customerJson("Stale", "Update", "reactiveupdate.update@example.com"))
+                .exchange()
+                .expectStatus().isEqualTo(412);
+    }
+
+    @Test
+    void updateCustomer_ShouldAcceptIfMatchList_WhenAnyStrongTagMatches() {
+        UUID id = create("ReactiveList", "Listed").getResponseBody().getId();
+
+        webTestClient.put().uri("/api/customers/" + id)
+                .header(HttpHeaders.IF_MATCH, "W/\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(customerJson("Weak", "Listed", "reactivelist.listed@example.com"))
+                .exchange()
+                .expectStatus().isEqualTo(412);
+
+        webTestClient.put().uri("/api/customers/" + id)
+                .header(HttpHeaders.IF_MATCH, "\"5\", \"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(customerJson("Relisted", "Listed", "reactivelist.listed@example.com"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"");
+
+        webTestClient.delete().uri("/api/customers/" + id)
+                .header(HttpHeaders.IF_MATCH, "\"0\", \"5\"")
+                .exchange()
+                .expectStatus().isEqualTo(412);
+        webTestClient.delete().uri("/api/customers/" + id)
+                .header(HttpHeaders.IF_MATCH, "\"0\", \"1\"")
+                .exchange()
+                .expectStatus().isNoContent();
+    }
+
+    @Test
+    void conditionalWrites_ShouldFailPrecondition_WhenCustomerDoesNotExist() {
+        String missing = "/api/customers/" + UUID.randomUUID();
+
+        webTestClient.patch().uri(missing)
+                .header(HttpHeaders.IF_MATCH, "*")
+                .contentType(MediaType.valueOf("application/merge-patch+json"))
+                .bodyValue("{\"middleName\":\"M\"}")
+                .exchange()
+                .expectStatus().isEqualTo(412);
+        webTestClient.delete().uri(missing)
+                .header(HttpHeaders.IF_MATCH, "*")
+                .exchange()
+                .expectStatus().isEqualTo(412);
+        webTestClient.delete().uri(missing)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void patchCustomer_ShouldChangeOnlyGivenFields() {
+        UUID id = create("ReactivePatch", "Patch").getResponseBody().getId();
+
+        webTestClient.patch().uri("/api/customers/" + id)
+                .contentType(MediaType.valueOf("application/merge-patch+json"))
+                .bodyValue("{\"middleName\":\"M\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"")
+                .expectBody()
+                .jsonPath("$.middleName").isEqualTo("M")
+                .jsonPath("$.firstName").isEqualTo("ReactivePatch");
+    }
+
+    @Test
+    void deleteCustomer_ShouldRemoveCustomer() {
+        UUID id = create("ReactiveDelete", "Delete").getResponseBody().getId();
+
+        webTestClient.delete().uri("/api/customers/" + id)
+                .exchange()
+                .expectStatus().isNoContent();
+        webTestClient.delete().uri("/api/customers/" + id)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    // The feed is served by the servlet stack, writes made here still land in it
+    @Test
+    void writes_ShouldAppendToTheChangeFeed() {
+        long head = changeRepository.findLatestOffset();
+        UUID id = create("ReactiveChange", "Change").getResponseBody().getId();
+        webTestClient.delete().uri("/api/customers/" + id)
+                .exchange()
+                .expectStatus().isNoContent();
+        // Numbers whatever the feed thread has not sequenced yet
+        changeService.getLatestOffset();
+
+        List<CustomerChange> changes = changeRepository.findByOffsetGreaterThanOrderByOffsetAsc(head, Limit.of(100))
+                .stream().filter(change -> change.getCustomerId().equals(id)).toList();
+        assertEquals(List.of(CustomerChange.Type.CREATED, CustomerChange.Type.DELETED),
+                changes.stream().map(CustomerChange::getType).toList());
+        assertEquals(0L, changes.get(0).getCustomerVersion());
+        assertTrue(changes.get(0).getPayload().contains("\"firstName\":\"ReactiveChange\""));
+    }
+
+    @Test
+    void getAllCustomers_ShouldPageWithCursor_AndTagWithTableVersion() {
+        create("ReactivePageOne", "PageOne");
+        create("ReactivePageTwo", "PageTwo");
+
+        EntityExchangeResult<List<Customer>> first = webTestClient.get().uri("/api/customers?limit=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists("X-Next-Cursor")
+                .expectBodyList(Customer.class).hasSize(1)
+                .returnResult();
+        String etag = first.getResponseHeaders().getETag();
+
+        webTestClient.get().uri("/api/customers?limit=1&cursor=" + first.getResponseHeaders().getFirst("X-Next-Cursor"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Customer.class)
+                .value(page -> assertNotEquals(first.getResponseBody().get(0).getId(), page.get(0).getId()));
+
+        webTestClient.get().uri("/api/customers")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    void streamAllCustomers_ShouldWriteOneCustomerPerLine_AsNdjson() {
+        UUID id = create("ReactiveStream", "Stream").getResponseBody().getId();
+
+        List<Customer> streamed = webTestClient.get().uri("/api/customers/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Customer.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertTrue(streamed.stream().anyMatch(customer -> customer.getId().equals(id)));
+    }
+
+    private EntityExchangeResult<Customer> create(String firstName, String lastName) {
+        return webTestClient.post().uri("/api/customers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(customerJson(firstName, lastName, firstName + "." + lastName + "@example.com"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Customer.class)
+                .returnResult();
+    }
+
+    private static String customerJson(String firstName, String lastName, String emailAddress) {
+        return "{\"firstName\":\"" + firstName + "\",\"lastName\":\"" + lastName
+                + "\",\"emailAddress\":\"" + emailAddress + "\"}";
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.customer.integration;
+
+import com.example.customer.datasource.ReplicaLagMonitor;
+import com.example.customer.repository.entity.Customer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Two H2 databases stand in for a primary and its replica. Nothing replicates between them, so a row only the
+// replica has shows which database served a read, and the replica lags until a test copies a row across.
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReadReplicaIntegrationTest.PRIMARY_URL,
+        "customer.read-replica.url=" + ReadReplicaIntegrationTest.REPLICA_URL,
+        "customer.read-replica.username=sa",
+        "customer.read-replica.max-lag=1h",
+        "customer.read-replica.lag-check-interval=50ms",
+        "customer.cache.enabled=false",
+        "customer.name-index.enabled=false"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ReadReplicaIntegrationTest {
+    static final String PRIMARY_URL = "jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    // The replica's schema comes from replication in production, here it is migrated separately
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "sa", "")
+                .locations("classpath:db/migration/h2")
+                .load()
+                .migrate();
+    }
+
+    @BeforeEach
+    void awaitReplica() throws InterruptedException {
+        for (int i = 0; i < 100 && !lagMonitor.isUsable(); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(lagMonitor.isUsable());
+    }
+
+    @Test
+    void getCustomerById_ShouldReadFromReplica() throws Exception {
+        UUID id = UUID.randomUUID();
+        insertIntoReplica(id, "Replica", "Only");
+
+        mockMvc.perform(get("/api/customers/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value("Replica"));
+    }
+
+    @Test
+    void getCustomerById_ShouldReadFromPrimary_WithinReadYourWritesWindow() throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/customers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"Shiva\",\"lastName\":\"Kumar\",\"emailAddress\":\"Shiva.Kumar@example.com\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(cookie().exists("customer-last-write"))
+                .andReturn();
+        Cookie lastWrite = created.getResponse().getCookie("customer-last-write");
+        UUID id = objectMapper.readValue(created.getResponse().getContentAsString(), Customer.class).getId();
+        double primaryReads = meterRegistry.counter("customer.read.connections", "target", "primary").count();
+
+        mockMvc.perform(get("/api/customers/" + id).cookie(lastWrite))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value("Shiva"));
+        assertTrue(meterRegistry.counter("customer.read.connections", "target", "primary").count() > primaryReads);
+
+        // Other clients read the replica, which has not caught up with the write
+        mockMvc.perform(get("/api/customers/" + id))
+                .andExpect(status().isNotFound());
+
+        insertIntoReplica(id, "Shiva", "Kumar");
+        mockMvc.perform(get("/api/customers/" + id))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void streamedReads_ShouldReadFromPrimary_WithinReadYourWritesWindow() throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/customers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"Streamed\",\"lastName\":\"Write\",\"emailAddress\":\"Streamed.Write@example.com\"}"))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Cookie lastWrite = created.getResponse().getCookie("customer-last-write");
+        String id = objectMapper.readValue(created.getResponse().getContentAsString(), Customer.class).getId().toString();
+
+        // Both bodies are written on the async executor, not the request thread
+        for (String path : new String[]{"/api/customers/stream", "/api/customers/export"}) {
+            String pinned = mockMvc.perform(asyncDispatch(mockMvc.perform(get(path).cookie(lastWrite))
+                            .andExpect(request().asyncStarted())
+                            .andReturn()))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            assertTrue(pinned.contains(id), path + " did not read the primary: " + pinned);
+
+            String other = mockMvc.perform(asyncDispatch(mockMvc.perform(get(path)).andReturn()))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            assertFalse(other.contains(id), path + " did not read the replica: " + other);
+        }
+    }
+
+    private void insertIntoReplica(UUID id, String firstName, String lastName) {
+        new JdbcTemplate(replicaDataSource).update(
+                "insert into customer (id, version, first_name, last_name, email_address) values (?, 0, ?, ?, ?)",
+                id, firstName, lastName, firstName + "." + lastName + "@example.com");
+    }
+}
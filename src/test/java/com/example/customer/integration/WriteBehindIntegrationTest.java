@@ -0,0 +1,92 @@
+package com.example.customer.integration;
+
+import com.example.customer.repository.entity.Customer;
+import com.example.customer.service.CustomerService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "customer.write-behind.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:writebehind;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class WriteBehindIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Test
+    void createCustomer_ShouldCommitConcurrentCreatesWithTheirAssignedIds() throws Exception {
+        long committedBefore = customerService.getWriteQueueStatus().committed();
+        List<Future<String>> responses = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 20; i++) {
+                String json = customerJson("Queued" + i, "Writer" + i);
+                responses.add(executor.submit(() -> mockMvc.perform(post("/api/customers")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(json))
+                        .andExpect(status().isCreated())
+                        .andExpect(header().exists("ETag"))
+                        .andReturn()
+                        .getResponse()
+                        .getContentAsString()));
+            }
+        }
+
+        for (Future<String> response : responses) {
+            Customer created = objectMapper.readValue(response.get(), Customer.class);
+            mockMvc.perform(get("/api/customers/" + created.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.firstName").value(created.getFirstName()));
+        }
+        assertEquals(committedBefore + 20, customerService.getWriteQueueStatus().committed());
+    }
+
+    @Test
+    void createCustomer_ShouldReturnConflict_WhenEmailIsTakenByACommittedCustomer() throws Exception {
+        mockMvc.perform(post("/api/customers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(customerJson("Shiva", "Kumar")))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/api/customers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(customerJson("Shiva", "Kumar")))
+                .andExpect(status().isConflict())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON));
+
+        mockMvc.perform(get("/api/customers/write-queue"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.enabled").value(true))
+                .andExpect(jsonPath("$.ack").value("COMMIT"))
+                .andExpect(jsonPath("$.pending").value(0));
+    }
+
+    private static String customerJson(String firstName, String lastName) {
+        return String.format("{\"firstName\":\"%1$s\",\"lastName\":\"%2$s\",\"emailAddress\":\"%1$s.%2$s@example.com\"}",
+                firstName, lastName);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.customer.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SamplingTurboFilterTest {
+
+    private SamplingTurboFilter filter;
+    private Logger logger;
+    private Logger otherLogger;
+
+    @BeforeEach
+    void setUp() {
+        LoggerContext context = new LoggerContext();
+        logger = context.getLogger("com.example.customer.Sampled");
+        otherLogger = context.getLogger("com.example.customer.Other");
+        context.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.INFO);
+
+        filter = new SamplingTurboFilter();
+        filter.setEventsPerSecond(2);
+        filter.start();
+    }
+
+    @Test
+    void decide_ShouldDenySampledEvents_WhenLimitReachedWithinSecond() {
+        // Act
+        FilterReply first = decide(logger);
+        FilterReply second = decide(logger);
+        FilterReply third = decide(logger);
+
+        // Assert
+        assertEquals(FilterReply.NEUTRAL, first);
+        assertEquals(FilterReply.NEUTRAL, second);
+        assertEquals(FilterReply.DENY, third);
+    }
+
+    @Test
+    void decide_ShouldCountEachLoggerSeparately() {
+        // Arrange
+        decide(logger);
+        decide(logger);
+
+        // Act & Assert
+        assertEquals(FilterReply.DENY, decide(logger));
+        assertEquals(FilterReply.NEUTRAL, decide(otherLogger));
+    }
+
+    @Test
+    void decide_ShouldIgnoreEvents_WhenNotMarkedOrLevelDisabled() {
+        // Arrange
+        decide(logger);
+        decide(logger);
+
+        // Act & Assert
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, logger, Level.INFO, "unmarked", null, null));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(LogMarkers.SAMPLED, logger, Level.DEBUG, "disabled", null, null));
+    }
+
+    private FilterReply decide(Logger target) {
+        return filter.decide(LogMarkers.SAMPLED, target, Level.INFO, "Customer with ID {} found", null, null);
+    }
+}
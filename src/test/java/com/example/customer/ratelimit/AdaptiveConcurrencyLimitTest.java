@@ -0,0 +1,79 @@
+package com.example.customer.ratelimit;
+
+import com.example.customer.config.LoadSheddingProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long WINDOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AdaptiveConcurrencyLimit concurrencyLimit = new AdaptiveConcurrencyLimit(new LoadSheddingProperties(
+            true, 20, 4, 100, 2.0, Duration.ofMillis(100), Duration.ofSeconds(1), List.of()));
+
+    // The first window ends one window after construction
+    private final long start = System.nanoTime() + WINDOW;
+
+    @Test
+    void tryAcquire_ShouldRejectOnceTheLimitIsInFlight() {
+        for (int i = 0; i < 20; i++) {
+            assertTrue(concurrencyLimit.tryAcquire());
+        }
+        assertFalse(concurrencyLimit.tryAcquire());
+
+        concurrencyLimit.release(0, false);
+        assertTrue(concurrencyLimit.tryAcquire());
+    }
+
+    @Test
+    void release_ShouldShrinkTheLimit_WhenLatencyRisesPastTolerance_AndGrowItBackWhenItRecovers() {
+        long now = start;
+        // Baseline of 10ms under load that uses the whole limit
+        for (int window = 1; window <= 5; window++) {
+            now = runWindow(now, window, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        int steady = concurrencyLimit.limit();
+        assertTrue(steady > 20, "limit grows while latency holds: " + steady);
+
+        for (int window = 6; window <= 10; window++) {
+            now = runWindow(now, window, TimeUnit.MILLISECONDS.toNanos(100));
+        }
+        int overloaded = concurrencyLimit.limit();
+        assertTrue(overloaded < steady, "limit shrinks once latency passes 2x the baseline: " + overloaded);
+
+        for (int window = 11; window <= 20; window++) {
+            now = runWindow(now, window, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        assertTrue(concurrencyLimit.limit() > overloaded, "limit recovers with latency: " + concurrencyLimit.limit());
+    }
+
+    @Test
+    void release_ShouldNotGrowTheLimit_WhenLoadStaysFarBelowIt() {
+        long now = start;
+        for (int window = 1; window <= 10; window++) {
+            for (int i = 0; i < 20; i++) {
+                assertTrue(concurrencyLimit.tryAcquire());
+                concurrencyLimit.release(TimeUnit.MILLISECONDS.toNanos(10), true, now);
+            }
+            now = start + window * WINDOW;
+        }
+        assertEquals(20, concurrencyLimit.limit());
+    }
+
+    // Fills the limit, then finishes every request with the latency; the last one lands after the window ends
+    private long runWindow(long now, int window, long latency) {
+        int admitted = 0;
+        while (concurrencyLimit.tryAcquire()) {
+            admitted++;
+        }
+        for (int i = 0; i < admitted; i++) {
+            concurrencyLimit.release(latency, true, i == admitted - 1 ? start + window * WINDOW : now);
+        }
+        return start + window * WINDOW;
+    }
+}
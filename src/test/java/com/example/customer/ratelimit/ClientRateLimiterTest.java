@@ -0,0 +1,51 @@
+package com.example.customer.ratelimit;
+
+import com.example.customer.config.RateLimitProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClientRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final ClientRateLimiter rateLimiter = new ClientRateLimiter(new RateLimitProperties(true, "X-API-Key",
+            Set.of(), new RateLimitProperties.Budget(10, 5), new RateLimitProperties.Budget(1, 2), 100, Duration.ofMinutes(10)));
+
+    @Test
+    void tryAcquire_ShouldAllowTheBurst_ThenOneTokenPerInterval() {
+        long now = 0;
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("a", ClientRateLimiter.Budget.READ, now));
+        }
+        assertEquals(SECOND / 10, rateLimiter.tryAcquire("a", ClientRateLimiter.Budget.READ, now));
+
+        assertEquals(0, rateLimiter.tryAcquire("a", ClientRateLimiter.Budget.READ, now + SECOND / 10));
+        assertEquals(SECOND / 10, rateLimiter.tryAcquire("a", ClientRateLimiter.Budget.READ, now + SECOND / 10));
+    }
+
+    @Test
+    void tryAcquire_ShouldKeepClientsAndBudgetsApart() {
+        long now = 0;
+        assertEquals(0, rateLimiter.tryAcquire("a", ClientRateLimiter.Budget.WRITE, now));
+        assertEquals(0, rateLimiter.tryAcquire("a", ClientRateLimiter.Budget.WRITE, now));
+        assertEquals(SECOND, rateLimiter.tryAcquire("a", ClientRateLimiter.Budget.WRITE, now));
+
+        assertEquals(0, rateLimiter.tryAcquire("a", ClientRateLimiter.Budget.READ, now));
+        assertEquals(0, rateLimiter.tryAcquire("b", ClientRateLimiter.Budget.WRITE, now));
+    }
+
+    @Test
+    void tryAcquire_ShouldRefillNoFurtherThanTheBurst() {
+        assertEquals(0, rateLimiter.tryAcquire("a", ClientRateLimiter.Budget.WRITE, 0));
+
+        long later = 60 * SECOND;
+        assertEquals(0, rateLimiter.tryAcquire("a", ClientRateLimiter.Budget.WRITE, later));
+        assertEquals(0, rateLimiter.tryAcquire("a", ClientRateLimiter.Budget.WRITE, later));
+        assertEquals(SECOND, rateLimiter.tryAcquire("a", ClientRateLimiter.Budget.WRITE, later));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.customer.repository;
+
+import com.example.customer.service.CustomerSearch;
+import com.example.customer.service.CustomerService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.customer.repository.CustomerSearchPlanTest$CapturingInspector")
+@ActiveProfiles("test")
+public class CustomerSearchPlanTest {
+
+    @Autowired
+    private CustomerService service;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void search_ShouldUseAnIndex_ForEveryFilterCombination() {
+        // Every non-empty subset of the four filters, both as exact and as prefix match, with and without a cursor
+        for (int mask = 1; mask < 16; mask++) {
+            for (boolean prefix : new boolean[]{false, true}) {
+                for (UUID after : new UUID[]{null, UUID.randomUUID()}) {
+                    CustomerSearch search = new CustomerSearch(
+                            (mask & 1) != 0 ? "Shiva" : null,
+                            (mask & 2) != 0 ? "Kumar" : null,
+                            (mask & 4) != 0 ? "Shiva.Kumar@Example.com" : null,
+                            (mask & 8) != 0 ? "321" : null,
+                            prefix);
+
+                    String plan = explain(search, after);
+                    assertFalse(plan.contains("tableScan"), () -> search + " scans the table:\n" + plan);
+                    assertTrue(plan.contains("IDX") || plan.contains("UK_"), () -> search + " uses no index:\n" + plan);
+                }
+            }
+        }
+    }
+
+    @Test
+    void search_ShouldUseTheLowerCaseIndex_WhenFilteringByEmailOnly() {
+        String plan = explain(new CustomerSearch(null, null, "Shiva.Kumar@Example.com", null, false), null);
+        assertTrue(plan.contains("IDX_CUSTOMER_EMAIL_ADDRESS_LOWER"), plan);
+    }
+
+    private String explain(CustomerSearch search, UUID after) {
+        CapturingInspector.statements.clear();
+        service.searchCustomers(search, after, 10);
+        String sql = CapturingInspector.statements.stream()
+                .filter(statement -> statement.contains(" where "))
+                .reduce((first, second) -> second)
+                .orElseThrow();
+        // H2 plans the prepared statement up front, so the bind parameters do not need values
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class)).toUpperCase();
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+        static final List<String> statements = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+}
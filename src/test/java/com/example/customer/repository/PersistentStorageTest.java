@@ -0,0 +1,51 @@
+package com.example.customer.repository;
+
+import com.example.customer.CustomerApiApplication;
+import com.example.customer.repository.entity.Customer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistentStorageTest {
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void prodProfile_ShouldKeepCustomersAcrossRestarts_AndMigrateOnlyOnce() {
+        UUID id;
+        try (ConfigurableApplicationContext context = start()) {
+            Customer customer = new Customer();
+            customer.setFirstName("Shiva");
+            customer.setLastName("Kumar");
+            customer.setEmailAddress("Shiva.Kumar@example.com");
+            id = context.getBean(CustomerRepository.class).saveAndFlush(customer).getId();
+        }
+
+        try (ConfigurableApplicationContext context = start()) {
+            Customer customer = context.getBean(CustomerRepository.class).findById(id).orElseThrow();
+            assertEquals("shiva.kumar@example.com", customer.getEmailAddressLower());
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            assertEquals(1, jdbcTemplate.queryForObject(
+                    "select count(*) from \"flyway_schema_history\" where \"version\" = '1'", Integer.class));
+            assertEquals(0L, jdbcTemplate.queryForObject(
+                    "select version from table_version where name = 'customer_change_offset'", Long.class));
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(CustomerApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("prod")
+                .run("--customer.name-index.enabled=false",
+                        "--CUSTOMER_DB_PATH=" + dataDir.resolve("customerdb"));
+    }
+}
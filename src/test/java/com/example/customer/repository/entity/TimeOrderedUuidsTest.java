@@ -0,0 +1,62 @@
+package com.example.customer.repository.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedUuidsTest {
+
+    @Test
+    void next_ShouldReturnVersion7WithCurrentTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID uuid = TimeOrderedUuids.next();
+        long after = System.currentTimeMillis();
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        // Borrowing from the next millisecond is allowed once the counter runs out
+        assertTrue(TimeOrderedUuids.timestampMillis(uuid) >= before);
+        assertTrue(TimeOrderedUuids.timestampMillis(uuid) <= after + 1);
+    }
+
+    @Test
+    void next_ShouldBeStrictlyIncreasing_WithinAndAcrossMilliseconds() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            ids.add(TimeOrderedUuids.next());
+        }
+
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1).compareTo(ids.get(i)) < 0, "out of order at " + i);
+        }
+    }
+
+    @Test
+    void next_ShouldNotRepeat_AcrossThreads() throws Exception {
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (int thread = 0; thread < 4; thread++) {
+                executor.submit(() -> {
+                    for (int i = 0; i < 25_000; i++) {
+                        ids.add(TimeOrderedUuids.next());
+                    }
+                });
+            }
+        }
+
+        assertEquals(100_000, ids.size());
+    }
+
+    @Test
+    void timestampMillis_ShouldRejectRandomUuids() {
+        assertThrows(IllegalArgumentException.class, () -> TimeOrderedUuids.timestampMillis(UUID.randomUUID()));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.customer.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameSearchIndexTest {
+
+    private NameSearchIndex index;
+    private UUID shiva;
+    private UUID shivani;
+    private UUID arjun;
+
+    @BeforeEach
+    void setUp() {
+        index = new NameSearchIndex();
+        shiva = UUID.randomUUID();
+        shivani = UUID.randomUUID();
+        arjun = UUID.randomUUID();
+        index.upsert(shiva, 0, "Shiva", "Kumar");
+        index.upsert(shivani, 0, "Shivani", "Kumari");
+        index.upsert(arjun, 0, "Arjun", "Rao");
+    }
+
+    @Test
+    void search_ShouldRankClosestNameFirst_DespiteTypos() {
+        List<NameMatch> matches = index.search("shiva kumr", 0.3, 10);
+
+        assertEquals(List.of(shiva, shivani), matches.stream().map(NameMatch::id).toList());
+        assertTrue(matches.get(0).score() > matches.get(1).score());
+    }
+
+    @Test
+    void search_ShouldIgnoreCaseAccentsAndPunctuation() {
+        List<NameMatch> matches = index.search("ARJÚN-rao", 0.3, 10);
+
+        assertEquals(arjun, matches.get(0).id());
+        assertEquals(1.0, matches.get(0).score(), 1e-9);
+    }
+
+    @Test
+    void search_ShouldHonourLimitAndThreshold() {
+        assertEquals(1, index.search("shiva kumar", 0.3, 1).size());
+        assertTrue(index.search("zzzz", 0.3, 10).isEmpty());
+        assertTrue(index.search(" ", 0.3, 10).isEmpty());
+    }
+
+    @Test
+    void upsert_ShouldReindexNewerVersion_AndIgnoreOlderOne() {
+        index.upsert(arjun, 2, "Arjun", "Reddy");
+        index.upsert(arjun, 1, "Arjun", "Rao");
+
+        assertEquals(2, index.version(arjun));
+        assertTrue(index.search("arjun rao", 0.6, 10).isEmpty());
+        assertEquals(arjun, index.search("arjun reddy", 0.6, 10).get(0).id());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void remove_ShouldDropCustomerFromResults() {
+        index.remove(shiva);
+
+        assertEquals(-1, index.version(shiva));
+        assertEquals(List.of(shivani), index.search("shiva kumar", 0.3, 10).stream().map(NameMatch::id).toList());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void compaction_ShouldKeepResultsIntact_AfterManyRemovals() {
+        List<UUID> removed = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            UUID id = UUID.randomUUID();
+            index.upsert(id, 0, "Temp" + i, "Customer" + i);
+            removed.add(id);
+        }
+        long before = index.estimatedBytes();
+        removed.forEach(index::remove);
+
+        assertEquals(3, index.size());
+        assertTrue(index.estimatedBytes() < before);
+        assertEquals(shiva, index.search("shiva kumar", 0.3, 10).get(0).id());
+        assertEquals(arjun, index.search("arjun rao", 0.3, 10).get(0).id());
+        assertTrue(index.search("temp customer", 0.3, 10).isEmpty());
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.customer.service;
+
+import com.example.customer.cache.CustomerCache;
+import com.example.customer.cache.CustomerKeyIndex;
+import com.example.customer.config.BatchProperties;
+import com.example.customer.exception.custom.ValidationException;
+import com.example.customer.repository.CustomerRepository;
+import com.example.customer.repository.entity.Customer;
+import com.example.customer.search.CustomerNameIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CustomerBatchServiceImplTest {
+
+    @Mock
+    private CustomerRepository repository;
+
+    @Mock
+    private CustomerCache cache;
+
+    @Mock
+    private CustomerKeyIndex keyIndex;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private CustomerNameIndex nameIndex;
+
+    @Mock
+    private CustomerChangeLog changeLog;
+
+    private CustomerBatchServiceImpl batchService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        batchService = new CustomerBatchServiceImpl(repository, cache, keyIndex, new CustomerValidator(),
+                transactionManager, new BatchProperties(100, 2), nameIndex, changeLog);
+    }
+
+    @Test
+    void saveCustomers_ShouldReportEachItem_AndCheckDuplicatesOncePerChunk() {
+        // Arrange
+        Customer valid = customer("John", "Doe", "john.doe@example.com");
+        Customer invalid = customer("Jane", "Doe", "not-an-email");
+        Customer inBatchDuplicate = customer("Jim", "Beam", "john.doe@example.com");
+        Customer existing = customer("Ann", "Lee", "ann.lee@example.com");
+        when(repository.findDuplicateCandidates(anyCollection(), anyCollection(), anyCollection())).thenReturn(List.of())
+                .thenReturn(List.of(customer("Ann", "Lee", "other@example.com")));
+
+        // Act
+        List<BatchItemResult> results = batchService.saveCustomers(List.of(valid, invalid, inBatchDuplicate, existing));
+
+        // Assert
+        assertEquals(List.of(201, 400, 409, 409), results.stream().map(BatchItemResult::status).toList());
+        assertEquals("Invalid email address", results.get(1).message());
+        verify(repository, times(2)).findDuplicateCandidates(anyCollection(), anyCollection(), anyCollection());
+        verify(repository, times(1)).saveAll(List.of(valid));
+    }
+
+    @Test
+    void saveCustomers_ShouldRejectClashesOnEitherName_BeforeFlushingTheChunk() {
+        // Arrange
+        Customer valid = customer("John", "Doe", "john.doe@example.com");
+        Customer sameFirstName = customer("John", "Roe", "john.roe@example.com");
+        Customer takenFirstName = customer("Ann", "Lee", "ann.lee@example.com");
+        Customer takenLastName = customer("Bob", "Stone", "bob.stone@example.com");
+        when(repository.findDuplicateCandidates(anyCollection(), anyCollection(), anyCollection())).thenReturn(List.of(
+                customer("Ann", "Other", "other@example.com"), customer("Someone", "Stone", "stone@example.com")));
+
+        // Act
+        List<BatchItemResult> results = batchService.saveCustomers(
+                List.of(valid, sameFirstName, takenFirstName, takenLastName));
+
+        // Assert
+        assertEquals(List.of(201, 409, 409, 409), results.stream().map(BatchItemResult::status).toList());
+        assertEquals("Customer with the same name already exists", results.get(1).message());
+        verify(repository, times(1)).saveAll(List.of(valid));
+        verify(repository, never()).saveAndFlush(any(Customer.class));
+    }
+
+    @Test
+    void saveCustomers_ShouldIsolateConstraintViolation_WhenChunkFails() {
+        // Arrange
+        Customer first = customer("John", "Doe", "john.doe@example.com");
+        Customer second = customer("Jane", "Roe", "jane.roe@example.com");
+        when(repository.findDuplicateCandidates(anyCollection(), anyCollection(), anyCollection())).thenReturn(List.of());
+        doThrow(new DataIntegrityViolationException("unique")).when(repository).flush();
+        when(repository.saveAndFlush(first)).thenReturn(first);
+        when(repository.saveAndFlush(second)).thenThrow(new DataIntegrityViolationException("unique"));
+
+        // Act
+        List<BatchItemResult> results = batchService.saveCustomers(List.of(first, second));
+
+        // Assert
+        assertEquals(List.of(201, 409), results.stream().map(BatchItemResult::status).toList());
+    }
+
+    @Test
+    void importCustomers_ShouldKeepIds_AndRejectExistingOnes() {
+        // Arrange
+        Customer kept = customer("John", "Doe", "john.doe@example.com");
+        kept.setId(UUID.randomUUID());
+        kept.setVersion(4L);
+        Customer taken = customer("Jane", "Roe", "jane.roe@example.com");
+        taken.setId(UUID.randomUUID());
+        when(repository.findDuplicateCandidates(anyCollection(), anyCollection(), anyCollection())).thenReturn(List.of());
+        when(repository.findExistingIds(anyCollection())).thenReturn(List.of(taken.getId()));
+
+        // Act
+        List<BatchItemResult> results = batchService.importCustomers(List.of(kept, taken));
+
+        // Assert
+        assertEquals(List.of(201, 409), results.stream().map(BatchItemResult::status).toList());
+        assertEquals(kept.getId(), results.get(0).id());
+        assertNull(kept.getVersion());
+        assertEquals("Customer with ID " + taken.getId() + " already exists", results.get(1).message());
+        verify(repository, times(1)).saveAll(List.of(kept));
+    }
+
+    @Test
+    void saveCustomers_ShouldNotKeepRequestedIds() {
+        // Arrange
+        Customer customer = customer("John", "Doe", "john.doe@example.com");
+        customer.setId(UUID.randomUUID());
+        when(repository.findDuplicateCandidates(anyCollection(), anyCollection(), anyCollection())).thenReturn(List.of());
+
+        // Act
+        batchService.saveCustomers(List.of(customer));
+
+        // Assert
+        assertNull(customer.getId());
+        verify(repository, never()).findExistingIds(anyCollection());
+    }
+
+    @Test
+    void updateCustomers_ShouldReturnNotFound_ForMissingIds() {
+        // Arrange
+        Customer existing = customer("John", "Doe", "john.doe@example.com");
+        existing.setId(UUID.randomUUID());
+        Customer missing = customer("Jane", "Roe", "jane.roe@example.com");
+        missing.setId(UUID.randomUUID());
+        Customer changes = customer("Johnny", "Doe", "john.doe@example.com");
+        changes.setId(existing.getId());
+        when(repository.findAllById(anyIterable())).thenReturn(List.of(existing));
+
+        // Act
+        List<BatchItemResult> results = batchService.updateCustomers(List.of(changes, missing));
+
+        // Assert
+        assertEquals(List.of(200, 404), results.stream().map(BatchItemResult::status).toList());
+        assertEquals("Johnny", existing.getFirstName());
+        verify(cache, times(1)).invalidateAfterCommit(existing);
+    }
+
+    @Test
+    void updateCustomers_ShouldReturnConflict_ForStaleVersions() {
+        // Arrange
+        Customer current = customer("John", "Doe", "john.doe@example.com");
+        current.setId(UUID.randomUUID());
+        current.setVersion(4L);
+        Customer modified = customer("Jane", "Roe", "jane.roe@example.com");
+        modified.setId(UUID.randomUUID());
+        modified.setVersion(5L);
+        Customer changes = customer("Johnny", "Doe", "john.doe@example.com");
+        changes.setId(current.getId());
+        changes.setVersion(4L);
+        Customer staleChanges = customer("Janet", "Roe", "jane.roe@example.com");
+        staleChanges.setId(modified.getId());
+        staleChanges.setVersion(3L);
+        when(repository.findAllById(anyIterable())).thenReturn(List.of(current, modified));
+
+        // Act
+        List<BatchItemResult> results = batchService.updateCustomers(List.of(changes, staleChanges));
+
+        // Assert
+        assertEquals(List.of(200, 409), results.stream().map(BatchItemResult::status).toList());
+        assertEquals("Customer with ID " + modified.getId() + " was modified, expected version 3",
+                results.get(1).message());
+        assertEquals("Jane", modified.getFirstName());
+        verify(cache, never()).invalidateAfterCommit(modified);
+    }
+
+    @Test
+    void deleteCustomers_ShouldDeleteExistingIdsInOneStatement() {
+        // Arrange
+        UUID existing = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        when(repository.findExistingIds(anyCollection())).thenReturn(List.of(existing));
+
+        // Act
+        List<BatchItemResult> results = batchService.deleteCustomers(List.of(existing, missing));
+
+        // Assert
+        assertEquals(List.of(204, 404), results.stream().map(BatchItemResult::status).toList());
+        verify(repository, times(1)).deleteAllByIdInBatch(List.of(existing));
+        verify(cache, times(1)).invalidateDeletedAfterCommit(existing);
+    }
+
+    @Test
+    void saveCustomers_ShouldRejectOversizedBatch() {
+        List<Customer> customers = Collections.nCopies(101, customer("John", "Doe", "john.doe@example.com"));
+
+        assertThrows(ValidationException.class, () -> batchService.saveCustomers(customers));
+        assertThrows(ValidationException.class, () -> batchService.saveCustomers(List.of()));
+    }
+
+    private static Customer customer(String firstName, String lastName, String email) {
+        Customer customer = new Customer();
+        customer.setFirstName(firstName);
+        customer.setLastName(lastName);
+        customer.setEmailAddress(email);
+        return customer;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.customer.service;
+
+import com.example.customer.config.ChangeFeedProperties;
+import com.example.customer.exception.custom.ChangesExpiredException;
+import com.example.customer.repository.CustomerChangeRepository;
+import com.example.customer.repository.TableVersionRepository;
+import com.example.customer.repository.entity.CustomerChange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+// The feed thread is not started here, waits can only end by timeout
+class CustomerChangeServiceImplTest {
+
+    @Mock
+    private CustomerChangeRepository repository;
+
+    @Mock
+    private TableVersionRepository tableVersionRepository;
+
+    @Mock
+    private CustomerChangeLog changeLog;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CustomerChangeServiceImpl changeService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        changeService = new CustomerChangeServiceImpl(repository, tableVersionRepository, changeLog,
+                new ChangeFeedProperties(Duration.ofSeconds(30), Duration.ofSeconds(1), Duration.ofDays(7), false,
+                        Duration.ofHours(1), Duration.ofMinutes(1)),
+                transactionManager, new SimpleMeterRegistry());
+        when(tableVersionRepository.findVersion(CustomerChangeServiceImpl.EXPIRED_THROUGH)).thenReturn(Optional.of(0L));
+    }
+
+    @Test
+    void awaitChanges_ShouldCompleteAtOnce_WhenChangesExist() {
+        CustomerChange change = new CustomerChange();
+        change.setOffset(6L);
+        when(repository.findByOffsetGreaterThanOrderByOffsetAsc(5, Limit.of(10))).thenReturn(List.of(change));
+
+        CompletableFuture<List<CustomerChange>> changes = changeService.awaitChanges(5, 10, Duration.ofSeconds(30));
+
+        assertTrue(changes.isDone());
+        assertEquals(List.of(change), changes.join());
+    }
+
+    @Test
+    void awaitChanges_ShouldCompleteEmpty_WhenNothingChangesWithinWait() {
+        when(repository.findByOffsetGreaterThanOrderByOffsetAsc(anyLong(), any(Limit.class))).thenReturn(List.of());
+
+        CompletableFuture<List<CustomerChange>> changes = changeService.awaitChanges(5, 10, Duration.ofMillis(50));
+
+        assertFalse(changes.isDone());
+        assertEquals(List.of(), changes.join());
+    }
+
+    @Test
+    void getChanges_ShouldReject_WhenRetentionRemovedChangesAfterTheOffset() {
+        when(repository.findByOffsetGreaterThanOrderByOffsetAsc(anyLong(), any(Limit.class))).thenReturn(List.of());
+        when(tableVersionRepository.findVersion(CustomerChangeServiceImpl.EXPIRED_THROUGH)).thenReturn(Optional.of(100L));
+
+        assertThrows(ChangesExpiredException.class, () -> changeService.getChanges(99, 10));
+        assertEquals(List.of(), changeService.getChanges(100, 10));
+    }
+}
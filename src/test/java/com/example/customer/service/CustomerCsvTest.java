@@ -0,0 +1,93 @@
+package com.example.customer.service;
+
+import com.example.customer.repository.entity.Customer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerCsvTest {
+
+    @Test
+    void reader_ShouldMapColumnsByHeader_AndKeepLineNumbersAcrossQuotedLineBreaks() throws IOException {
+        List<CustomerCsv.Row> rows = read("﻿lastName,firstName,source,emailAddress\n"
+                + "Kumar,Shiva,ignored,shiva@example.com\n"
+                + "\n"
+                + "\"Multi\nLine\",\"Quote \"\"d\"\"\",,multi@example.com\r\n"
+                + "Tail,Only\n");
+
+        assertEquals(3, rows.size());
+        assertEquals(2, rows.get(0).line());
+        assertEquals("Shiva", rows.get(0).customer().getFirstName());
+        assertEquals("Kumar", rows.get(0).customer().getLastName());
+        assertNull(rows.get(0).customer().getId());
+        assertEquals(4, rows.get(1).line());
+        assertEquals("Multi\nLine", rows.get(1).customer().getLastName());
+        assertEquals("Quote \"d\"", rows.get(1).customer().getFirstName());
+        assertEquals(6, rows.get(2).line());
+        assertNull(rows.get(2).customer().getEmailAddress());
+    }
+
+    @Test
+    void reader_ShouldRejectRecordsWithExtraFields_AndStopAtAnUnterminatedQuote() throws IOException {
+        List<CustomerCsv.Row> rows = read("firstName,lastName\n"
+                + "a,b,c\n"
+                + "\"unterminated,b\n"
+                + "never,read\n");
+
+        assertEquals(2, rows.size());
+        assertEquals("Expected at most 2 fields, found 3", rows.get(0).error());
+        assertEquals(3, rows.get(1).line());
+        assertEquals("Unterminated quoted field", rows.get(1).error());
+    }
+
+    @Test
+    void reader_ShouldKeepTheId_AndRejectAnInvalidOne() throws IOException {
+        List<CustomerCsv.Row> rows = read("id,version,firstName\n"
+                + "0190a6e4-0000-7000-8000-000000000001,3,Shiva\n"
+                + "not-a-uuid,3,Kumar\n");
+
+        assertEquals(UUID.fromString("0190a6e4-0000-7000-8000-000000000001"), rows.get(0).customer().getId());
+        assertNull(rows.get(0).customer().getVersion());
+        assertNull(rows.get(1).customer());
+        assertEquals("Invalid ID format: not-a-uuid", rows.get(1).error());
+    }
+
+    @Test
+    void write_ShouldQuoteOnlyFieldsThatNeedIt_AndReadBack() throws IOException {
+        Customer customer = new Customer();
+        customer.setId(UUID.fromString("0190a6e4-0000-7000-8000-000000000001"));
+        customer.setVersion(3L);
+        customer.setFirstName("Shiva");
+        customer.setMiddleName("\"The\", Great");
+        customer.setLastName("Kumar");
+        customer.setEmailAddress("shiva@example.com");
+
+        StringWriter writer = new StringWriter();
+        CustomerCsv.writeHeader(writer);
+        CustomerCsv.write(writer, customer);
+
+        assertEquals("id,version,firstName,middleName,lastName,emailAddress,phoneNumber\r\n"
+                + "0190a6e4-0000-7000-8000-000000000001,3,Shiva,\"\"\"The\"\", Great\",Kumar,shiva@example.com,\r\n",
+                writer.toString());
+        Customer read = read(writer.toString()).get(0).customer();
+        assertEquals(customer.getId(), read.getId());
+        assertEquals(customer.getMiddleName(), read.getMiddleName());
+        assertNull(read.getPhoneNumber());
+    }
+
+    private static List<CustomerCsv.Row> read(String csv) throws IOException {
+        CustomerCsv.Reader reader = new CustomerCsv.Reader(new StringReader(csv));
+        List<CustomerCsv.Row> rows = new ArrayList<>();
+        for (CustomerCsv.Row row = reader.next(); row != null; row = reader.next()) {
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.customer.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerSearchTest {
+
+    @Test
+    void successor_ShouldIncrementTheLastCodePoint() {
+        assertEquals("Shivb", CustomerSearch.successor("Shiva"));
+        assertEquals("ab.", CustomerSearch.successor("ab-"));
+        // A supplementary character is incremented as a whole, and surrogates are skipped
+        assertEquals("a\uD83D\uDE01", CustomerSearch.successor("a\uD83D\uDE00"));
+        assertEquals("a\uE000", CustomerSearch.successor("a\uD7FF"));
+    }
+
+    @Test
+    void successor_ShouldDropTrailingMaximalCodePoints_OrBeNullWhenNoneRemain() {
+        assertEquals("b", CustomerSearch.successor("a" + Character.toString(Character.MAX_CODE_POINT)));
+        assertNull(CustomerSearch.successor(Character.toString(Character.MAX_CODE_POINT)));
+        assertNull(CustomerSearch.successor(""));
+    }
+}
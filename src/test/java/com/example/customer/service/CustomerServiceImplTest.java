@@ -1,16 +1,30 @@
 package com.example.customer.service;
 
+import com.example.customer.cache.CustomerCache;
+import com.example.customer.cache.CustomerKeyIndex;
 import com.example.customer.exception.custom.*;
 import com.example.customer.repository.CustomerRepository;
 import com.example.customer.repository.entity.Customer;
+import com.example.customer.search.CustomerNameIndex;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -20,6 +34,33 @@ class CustomerServiceImplTest {
     @Mock
     private CustomerRepository repository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private CustomerCache cache;
+
+    @Mock
+    private CustomerKeyIndex keyIndex;
+
+    @Spy
+    private CustomerValidator validator = new CustomerValidator();
+
+    @Mock
+    private CustomerTableVersion tableVersion;
+
+    @Mock
+    private CustomerNameIndex nameIndex;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private CustomerWriteQueue writeQueue;
+
+    @Mock
+    private CustomerChangeLog changeLog;
+
     @InjectMocks
     private CustomerServiceImpl service;
 
@@ -40,28 +81,57 @@ class CustomerServiceImplTest {
     }
 
     @Test
-    void getAllCustomers_ShouldReturnListOfCustomers() {
+    void getCustomersPage_ShouldReturnFirstPage_WhenNoCursorGiven() {
         // Arrange
-        when(repository.findAll()).thenReturn(List.of(customer));
+        when(repository.findAllByOrderByIdAsc(Limit.of(10))).thenReturn(List.of(customer));
 
         // Act
-        List<Customer> customers = service.getAllCustomers();
+        List<Customer> customers = service.getCustomersPage(null, 10);
 
         // Assert
         assertNotNull(customers);
         assertEquals(1, customers.size());
         assertEquals(customer, customers.get(0));
-        verify(repository, times(1)).findAll();
+        verify(repository, times(1)).findAllByOrderByIdAsc(Limit.of(10));
+        verify(repository, never()).findAll();
     }
 
     @Test
-    void getAllCustomers_ShouldThrowDatabaseAccessException_WhenRepositoryFails() {
+    void getCustomersPage_ShouldSeekPastCursor_WhenCursorGiven() {
         // Arrange
-        when(repository.findAll()).thenThrow(RuntimeException.class);
+        UUID after = UUID.randomUUID();
+        when(repository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(10))).thenReturn(List.of(customer));
+
+        // Act
+        List<Customer> customers = service.getCustomersPage(after, 10);
+
+        // Assert
+        assertEquals(List.of(customer), customers);
+        verify(repository, times(1)).findByIdGreaterThanOrderByIdAsc(after, Limit.of(10));
+    }
+
+    @Test
+    void getCustomersPage_ShouldThrowDatabaseAccessException_WhenRepositoryFails() {
+        // Arrange
+        when(repository.findAllByOrderByIdAsc(any())).thenThrow(RuntimeException.class);
 
         // Act & Assert
-        assertThrows(DatabaseAccessException.class, () -> service.getAllCustomers());
-        verify(repository, times(1)).findAll();
+        assertThrows(DatabaseAccessException.class, () -> service.getCustomersPage(null, 10));
+        verify(repository, times(1)).findAllByOrderByIdAsc(any());
+    }
+
+    @Test
+    void streamAllCustomers_ShouldPassEachRowToConsumerAndDetachIt() {
+        // Arrange
+        when(repository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(customer));
+        List<Customer> streamed = new ArrayList<>();
+
+        // Act
+        service.streamAllCustomers(streamed::add);
+
+        // Assert
+        assertEquals(List.of(customer), streamed);
+        verify(entityManager, times(1)).detach(customer);
     }
 
     @Test
@@ -79,12 +149,38 @@ class CustomerServiceImplTest {
         verify(repository, times(1)).findById(id);
     }
 
+    @Test
+    void getCustomerById_ShouldReturnCachedCustomer_WithoutHittingRepository() {
+        // Arrange
+        UUID id = customer.getId();
+        when(cache.get(id)).thenReturn(Optional.of(customer));
+
+        // Act
+        Optional<Customer> result = service.getCustomerById(id);
+
+        // Assert
+        assertEquals(Optional.of(customer), result);
+        verify(repository, never()).findById(any());
+    }
+
+    @Test
+    void getCustomerById_ShouldPopulateCache_OnMiss() {
+        // Arrange
+        UUID id = customer.getId();
+        when(cache.get(id)).thenReturn(Optional.empty());
+        when(repository.findById(id)).thenReturn(Optional.of(customer));
+
+        // Act
+        service.getCustomerById(id);
+
+        // Assert
+        verify(cache, times(1)).put(customer);
+    }
+
     @Test
     void saveCustomer_ShouldSaveCustomer_WhenValidCustomer() {
         // Arrange
-        when(repository.existsByFirstNameAndLastName(customer.getFirstName(), customer.getLastName())).thenReturn(false);
-        when(repository.existsByEmailAddress(customer.getEmailAddress())).thenReturn(false);
-        when(repository.save(customer)).thenReturn(customer);
+        when(repository.saveAndFlush(customer)).thenReturn(customer);
 
         // Act
         Customer savedCustomer = service.saveCustomer(customer);
@@ -92,17 +188,49 @@ class CustomerServiceImplTest {
         // Assert
         assertNotNull(savedCustomer);
         assertEquals(customer, savedCustomer);
-        verify(repository, times(1)).save(customer);
+        verify(repository, times(1)).saveAndFlush(customer);
+        verify(keyIndex, times(1)).addAfterCommit(customer);
+        verify(nameIndex, times(1)).upsertAfterCommit(customer);
     }
 
     @Test
     void saveCustomer_ShouldThrowDuplicateResourceException_WhenDuplicateNameExists() {
         // Arrange
-        when(repository.existsByFirstNameAndLastName(customer.getFirstName(), customer.getLastName())).thenReturn(true);
+        when(repository.saveAndFlush(customer)).thenThrow(constraintViolation(Customer.UK_FIRST_NAME));
+
+        // Act & Assert
+        DuplicateResourceException ex = assertThrows(DuplicateResourceException.class, () -> service.saveCustomer(customer));
+        assertEquals("Customer with the same name already exists", ex.getMessage());
+    }
+
+    @Test
+    void saveCustomer_ShouldThrowDuplicateResourceException_WhenDuplicateEmailExists() {
+        // Arrange
+        when(repository.saveAndFlush(customer)).thenThrow(constraintViolation(Customer.UK_EMAIL_ADDRESS));
+
+        // Act & Assert
+        DuplicateResourceException ex = assertThrows(DuplicateResourceException.class, () -> service.saveCustomer(customer));
+        assertEquals("Customer with email john.doe@example.com already exists", ex.getMessage());
+    }
+
+    @Test
+    void saveCustomer_ShouldRejectKnownDuplicate_WithoutHittingRepository() {
+        // Arrange
+        when(keyIndex.findConflict(customer)).thenReturn("Customer with the same name already exists");
 
         // Act & Assert
         assertThrows(DuplicateResourceException.class, () -> service.saveCustomer(customer));
-        verify(repository, never()).save(any(Customer.class));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void saveCustomer_ShouldThrowValidationException_WhenEmailIsInvalid() {
+        // Arrange
+        customer.setEmailAddress("not-an-email");
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> service.saveCustomer(customer));
+        verify(repository, never()).saveAndFlush(any(Customer.class));
     }
 
     @Test
@@ -115,42 +243,176 @@ class CustomerServiceImplTest {
         updatedCustomer.setEmailAddress("jane.smith@example.com");
         updatedCustomer.setPhoneNumber("9876543210");
 
-        when(repository.existsById(id)).thenReturn(true);
-        when(repository.findById(id)).thenReturn(Optional.of(customer));
-        when(repository.save(any(Customer.class))).thenReturn(updatedCustomer);
+        when(repository.updateReturningVersion(id, updatedCustomer)).thenReturn(Optional.of(3L));
 
         // Act
         Customer result = service.updateCustomer(id, updatedCustomer);
 
         // Assert
         assertNotNull(result);
+        assertEquals(id, result.getId());
         assertEquals("Jane", result.getFirstName());
         assertEquals("Smith", result.getLastName());
-        verify(repository, times(1)).save(any(Customer.class));
+        assertEquals(3L, result.getVersion());
+        verify(repository, times(1)).updateReturningVersion(id, updatedCustomer);
+        verifyNoMoreInteractions(repository);
+        verify(cache, times(1)).invalidateAfterCommit(result);
+        verify(nameIndex, times(1)).upsertAfterCommit(result);
     }
 
     @Test
-    void deleteCustomer_ShouldDeleteCustomer_WhenCustomerExists() {
+    void updateCustomer_ShouldUseSingleStatement_WhenVersionIsGiven() {
+        // Arrange
+        UUID id = customer.getId();
+        customer.setVersion(4L);
+        when(repository.updateById(id, 4L, customer)).thenReturn(1);
+
+        // Act
+        Customer result = service.updateCustomer(id, customer);
+
+        // Assert
+        assertEquals(5L, result.getVersion());
+        verify(repository, times(1)).updateById(id, 4L, customer);
+        verifyNoMoreInteractions(repository);
+    }
+
+    @Test
+    void updateCustomer_ShouldThrowVersionConflictException_WhenVersionIsStale() {
         // Arrange
         UUID id = customer.getId();
+        customer.setVersion(1L);
+        when(repository.updateById(id, 1L, customer)).thenReturn(0);
         when(repository.existsById(id)).thenReturn(true);
 
+        // Act & Assert
+        assertThrows(VersionConflictException.class, () -> service.updateCustomer(id, customer));
+        verify(cache, never()).invalidateAfterCommit(any());
+        verifyNoInteractions(nameIndex);
+    }
+
+    @Test
+    void updateCustomer_ShouldThrowCustomerNotFoundException_WhenNoRowUpdated() {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        when(repository.updateReturningVersion(id, customer)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(CustomerNotFoundException.class, () -> service.updateCustomer(id, customer));
+        verify(repository, never()).existsById(any());
+    }
+
+    @Test
+    void updateCustomer_ShouldThrowDuplicateResourceException_WhenEmailTaken() {
+        // Arrange
+        UUID id = customer.getId();
+        when(repository.updateReturningVersion(id, customer)).thenThrow(constraintViolation(Customer.UK_EMAIL_ADDRESS));
+
+        // Act & Assert
+        assertThrows(DuplicateResourceException.class, () -> service.updateCustomer(id, customer));
+    }
+
+    @Test
+    void patchCustomer_ShouldChangeOnlyPatchedFields() {
+        // Arrange
+        UUID id = customer.getId();
+        customer.setVersion(2L);
+        when(repository.findById(id)).thenReturn(Optional.of(customer));
+
+        // Act
+        Customer result = service.patchCustomer(id, Map.of("phoneNumber", "5550100", "version", 2));
+
+        // Assert
+        assertEquals("5550100", result.getPhoneNumber());
+        assertEquals("John", result.getFirstName());
+        verify(repository, times(1)).flush();
+        verify(repository, never()).save(any(Customer.class));
+        verify(cache, times(1)).invalidateAfterCommit(customer);
+    }
+
+    @Test
+    void patchCustomer_ShouldNotTouchRepositoryOrOpenATransaction_WhenCachedCustomerAlreadyMatches() {
+        // Arrange
+        UUID id = customer.getId();
+        when(cache.get(id)).thenReturn(Optional.of(customer));
+
+        // Act
+        Customer result = service.patchCustomer(id, Map.of("firstName", "John"));
+
+        // Assert
+        assertSame(customer, result);
+        verifyNoInteractions(repository, transactionManager);
+        verify(cache, never()).invalidateAfterCommit(any());
+    }
+
+    @Test
+    void patchCustomer_ShouldThrowVersionConflictException_WhenVersionIsStale() {
+        // Arrange
+        UUID id = customer.getId();
+        customer.setVersion(3L);
+        when(repository.findById(id)).thenReturn(Optional.of(customer));
+
+        // Act & Assert
+        assertThrows(VersionConflictException.class,
+                () -> service.patchCustomer(id, Map.of("phoneNumber", "5550100", "version", 2)));
+        verify(repository, never()).flush();
+    }
+
+    @Test
+    void patchCustomer_ShouldThrowValidationException_WhenFieldIsUnknownOrRequiredFieldCleared() {
+        // Arrange
+        UUID id = customer.getId();
+        Map<String, Object> clearLastName = new HashMap<>();
+        clearLastName.put("lastName", null);
+        when(repository.findById(id)).thenReturn(Optional.of(customer));
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> service.patchCustomer(id, Map.of("nickname", "JD")));
+        assertThrows(ValidationException.class, () -> service.patchCustomer(id, clearLastName));
+        verify(repository, never()).flush();
+    }
+
+    @Test
+    void deleteCustomer_ShouldDeleteCustomer_WhenCustomerExists() {
+        // Arrange
+        UUID id = customer.getId();
+        when(repository.deleteByIdReturningCount(id, null)).thenReturn(1);
+
         // Act
         service.deleteCustomer(id);
 
         // Assert
-        verify(repository, times(1)).deleteById(id);
+        verify(repository, times(1)).deleteByIdReturningCount(id, null);
+        verifyNoMoreInteractions(repository);
+        verify(cache, times(1)).invalidateDeletedAfterCommit(id);
+        verify(changeLog, times(1)).appendDeletedBeforeCommit(id);
+    }
+
+    @Test
+    void deleteCustomer_ShouldThrowVersionConflictException_WhenVersionIsStale() {
+        // Arrange
+        UUID id = customer.getId();
+        when(repository.deleteByIdReturningCount(id, 1L)).thenReturn(0);
+        when(repository.existsById(id)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(VersionConflictException.class, () -> service.deleteCustomer(id, 1L));
+        verify(changeLog, never()).appendDeletedBeforeCommit(id);
     }
 
     @Test
     void deleteCustomer_ShouldThrowCustomerNotFoundException_WhenCustomerDoesNotExist() {
         // Arrange
         UUID id = UUID.randomUUID();
-        when(repository.existsById(id)).thenReturn(false);
+        when(repository.deleteByIdReturningCount(id, null)).thenReturn(0);
 
         // Act & Assert
         assertThrows(CustomerNotFoundException.class, () -> service.deleteCustomer(id));
-        verify(repository, never()).deleteById(any());
+        verify(cache, never()).invalidateDeletedAfterCommit(any());
     }
-}
 
+    private static DataIntegrityViolationException constraintViolation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("Unique index or primary key violation", null,
+                        "PUBLIC." + constraintName.toUpperCase() + "_INDEX_5"));
+    }
+}
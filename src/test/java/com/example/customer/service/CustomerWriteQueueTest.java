@@ -0,0 +1,145 @@
+package com.example.customer.service;
+
+import com.example.customer.cache.CustomerKeyIndex;
+import com.example.customer.config.WriteBehindProperties;
+import com.example.customer.exception.custom.DuplicateResourceException;
+import com.example.customer.exception.custom.TooManyRequestsException;
+import com.example.customer.repository.CustomerRepository;
+import com.example.customer.repository.entity.Customer;
+import com.example.customer.search.CustomerNameIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CustomerWriteQueueTest {
+
+    @Mock
+    private CustomerRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private CustomerKeyIndex keyIndex;
+
+    @Mock
+    private CustomerNameIndex nameIndex;
+
+    @Mock
+    private CustomerChangeLog changeLog;
+
+    private CustomerWriteQueue writeQueue;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writeQueue.close();
+    }
+
+    @Test
+    void enqueue_ShouldCommitABurstInOneTransaction() {
+        writeQueue = queue(true, 100, Duration.ofMillis(200));
+
+        List<CompletableFuture<Customer>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            results.add(writeQueue.enqueue(customer("First" + i, "Last" + i)));
+        }
+
+        results.forEach(result -> assertNotNull(result.join().getId()));
+        verify(repository, times(1)).saveAll(anyList());
+        verify(keyIndex, times(10)).addAfterCommit(any(Customer.class));
+        assertEquals(10, writeQueue.status().committed());
+        assertEquals(0, writeQueue.status().pending());
+    }
+
+    @Test
+    void enqueue_ShouldFailOnlyTheRowWhoseKeysAreTakenInTheDatabase() {
+        writeQueue = queue(true, 100, Duration.ofMillis(200));
+        when(repository.findDuplicateCandidates(anyCollection(), anyCollection(), anyCollection()))
+                .thenReturn(List.of(customer("Someone", "Else", "taken@example.com")));
+
+        CompletableFuture<Customer> duplicate = writeQueue.enqueue(customer("Shiva", "Kumar", "taken@example.com"));
+        CompletableFuture<Customer> fresh = writeQueue.enqueue(customer("Arjun", "Rao"));
+
+        CompletionException ex = assertThrows(CompletionException.class, duplicate::join);
+        assertInstanceOf(DuplicateResourceException.class, ex.getCause());
+        assertEquals("Customer with email taken@example.com already exists", ex.getCause().getMessage());
+        assertNotNull(fresh.join().getId());
+        assertEquals(1, writeQueue.status().failed());
+    }
+
+    @Test
+    void enqueue_ShouldFailTheRow_WhenOnlyItsFirstNameIsTakenInTheDatabase() {
+        writeQueue = queue(true, 100, Duration.ofMillis(200));
+        when(repository.findDuplicateCandidates(anyCollection(), anyCollection(), anyCollection()))
+                .thenReturn(List.of(customer("Shiva", "Else", "else@example.com")));
+
+        CompletableFuture<Customer> duplicate = writeQueue.enqueue(customer("Shiva", "Kumar"));
+
+        CompletionException ex = assertThrows(CompletionException.class, duplicate::join);
+        assertEquals("Customer with the same name already exists", ex.getCause().getMessage());
+        verify(repository, never()).saveAndFlush(any(Customer.class));
+    }
+
+    @Test
+    void enqueue_ShouldRejectWithTooManyRequests_WhenQueueIsFull() {
+        // Disabled, so no writer thread takes anything off the queue
+        writeQueue = queue(false, 1, Duration.ZERO);
+
+        writeQueue.enqueue(customer("Shiva", "Kumar"));
+
+        assertThrows(TooManyRequestsException.class, () -> writeQueue.enqueue(customer("Arjun", "Rao")));
+        assertEquals(1, writeQueue.status().pending());
+        // The rejected create released its keys again
+        assertDoesNotThrow(() -> queue(false, 1, Duration.ZERO).enqueue(customer("Arjun", "Rao")));
+    }
+
+    @Test
+    void enqueue_ShouldRejectDuplicateOfAPendingCreate() {
+        writeQueue = queue(false, 10, Duration.ZERO);
+
+        writeQueue.enqueue(customer("Shiva", "Kumar", "shiva@example.com"));
+
+        DuplicateResourceException ex = assertThrows(DuplicateResourceException.class,
+                () -> writeQueue.enqueue(customer("Arjun", "Rao", "shiva@example.com")));
+        assertEquals("Customer with email shiva@example.com already exists", ex.getMessage());
+        assertThrows(DuplicateResourceException.class, () -> writeQueue.enqueue(customer("Shiva", "Kumar")));
+        assertEquals(1, writeQueue.status().pending());
+    }
+
+    private CustomerWriteQueue queue(boolean enabled, int capacity, Duration maxDelay) {
+        return new CustomerWriteQueue(
+                new WriteBehindProperties(enabled, WriteBehindProperties.Ack.COMMIT, capacity, 500, maxDelay),
+                repository, transactionManager, keyIndex, nameIndex, changeLog,
+                new SimpleMeterRegistry());
+    }
+
+    private static Customer customer(String firstName, String lastName) {
+        return customer(firstName, lastName, firstName + "." + lastName + "@example.com");
+    }
+
+    private static Customer customer(String firstName, String lastName, String emailAddress) {
+        Customer customer = new Customer();
+        customer.setFirstName(firstName);
+        customer.setLastName(lastName);
+        customer.setEmailAddress(emailAddress);
+        return customer;
+    }
+}